@@ -0,0 +1,103 @@
+package com.mashreq.booking.benchmark;
+
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.RoomCatalog;
+import com.mashreq.booking.cluster.BookingOverlapGuard;
+import com.mashreq.booking.entity.ConferenceRoomsEntity;
+import com.mashreq.booking.entity.MaintenanceTimeEntity;
+import com.mashreq.booking.idempotency.IdempotencyCache;
+import com.mashreq.booking.metrics.BookingMetrics;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.BookedSlotView;
+import com.mashreq.booking.repo.ConferenceRoomRepository;
+import com.mashreq.booking.repo.IdempotencyKeyRepository;
+import com.mashreq.booking.repo.MaintenanceTimeRepository;
+import com.mashreq.booking.service.impl.BookingServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic dataset of rooms and bookings behind stub-only repositories, so the benchmarks measure the service and
+ * not the database. Stub-only mocks do not record invocations and keep the heap flat over long runs.
+ *
+ * @author janv@mashreq.com
+ */
+final class BenchmarkData {
+
+    static final LocalDate BOOKING_DAY = LocalDate.of(2024, 3, 4);
+    static final Clock CLOCK = Clock.fixed(BOOKING_DAY.atTime(LocalTime.of(8, 0)).atZone(ZoneId.systemDefault()).toInstant(),
+            ZoneId.systemDefault());
+
+    final RoomAvailabilityEngine roomAvailabilityEngine;
+    final BookingServiceImpl bookingService;
+
+    private BenchmarkData(RoomAvailabilityEngine roomAvailabilityEngine, BookingServiceImpl bookingService) {
+        this.roomAvailabilityEngine = roomAvailabilityEngine;
+        this.bookingService = bookingService;
+    }
+
+    /**
+     * Create the dataset with the given number of rooms and one booking per room
+     *
+     * @param rooms the number of rooms and bookings
+     * @return the benchmark data
+     */
+    static BenchmarkData of(int rooms) {
+        Random random = new Random(42);
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>(rooms);
+        List<BookedSlotView> bookedSlots = new ArrayList<>(rooms);
+        for (int i = 0; i < rooms; i++) {
+            String roomName = "Room-" + i;
+            conferenceRooms.add(new ConferenceRoomsEntity((long) i, roomName, 2 + random.nextInt(49)));
+            LocalTime startTime = LocalTime.of(8, 0).plusMinutes(15L * random.nextInt(48));
+            bookedSlots.add(bookedSlot(roomName, startTime, startTime.plusMinutes(15L * (1 + random.nextInt(8)))));
+        }
+        List<MaintenanceTimeEntity> maintenanceTimes = List.of(new MaintenanceTimeEntity(1L, LocalTime.of(9, 0), LocalTime.of(9, 15)),
+                new MaintenanceTimeEntity(2L, LocalTime.of(13, 0), LocalTime.of(13, 15)),
+                new MaintenanceTimeEntity(3L, LocalTime.of(17, 0), LocalTime.of(17, 15)));
+
+        ConferenceRoomRepository conferenceRoomRepository = Mockito.mock(ConferenceRoomRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        MaintenanceTimeRepository maintenanceTimeRepository = Mockito.mock(MaintenanceTimeRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimes);
+        BookedRoomRepository bookedRoomRepository = Mockito.mock(BookedRoomRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(bookedRoomRepository.findBookedSlots(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(bookedSlots);
+        Mockito.when(bookedRoomRepository.save(Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RoomAvailabilityEngine roomAvailabilityEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        BookingServiceImpl bookingService = new BookingServiceImpl(bookedRoomRepository, roomAvailabilityEngine,
+                new RoomCatalog(conferenceRoomRepository, maintenanceTimeRepository), CLOCK, event -> {
+        }, new BookingMetrics(new SimpleMeterRegistry()), new IdempotencyCache(bookedRoomRepository,
+                Mockito.mock(IdempotencyKeyRepository.class, Mockito.withSettings().stubOnly()), CLOCK, Duration.ofHours(1), 1),
+                new BookingOverlapGuard(conferenceRoomRepository, bookedRoomRepository, false));
+        return new BenchmarkData(roomAvailabilityEngine, bookingService);
+    }
+
+    private static BookedSlotView bookedSlot(String roomName, LocalTime startTime, LocalTime endTime) {
+        return new BookedSlotView() {
+            @Override
+            public String getRoomName() {
+                return roomName;
+            }
+
+            @Override
+            public LocalTime getStartTime() {
+                return startTime;
+            }
+
+            @Override
+            public LocalTime getEndTime() {
+                return endTime;
+            }
+        };
+    }
+}
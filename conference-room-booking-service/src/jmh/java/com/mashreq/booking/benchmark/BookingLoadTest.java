@@ -0,0 +1,117 @@
+package com.mashreq.booking.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of a running service, measuring the throughput, the latency and the number of requests in
+ * flight at increasing concurrency. Each booking goes to a random future day and slot so that it reaches the database.
+ * Compare the concurrency ceiling of the platform thread pool with the virtual thread mode by running it against the
+ * service started with and without {@code booking.virtual-threads.enabled=true}:
+ * <pre>
+ * mvn -P benchmark test-compile
+ * java -cp target/test-classes com.mashreq.booking.benchmark.BookingLoadTest http://localhost:8080 book 50,200,1000 10
+ * </pre>
+ *
+ * @author janv@mashreq.com
+ */
+public final class BookingLoadTest {
+
+    private static final String BOOK_PATH = "/v1/conference/room/book";
+    private static final String VIEW_PATH = "/v1/conference/room/view";
+
+    private BookingLoadTest() {
+    }
+
+    /**
+     * Run the load test
+     *
+     * @param args the base url, the mode (book or view), the comma separated concurrency levels and the seconds per level
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String mode = args.length > 1 ? args[1] : "book";
+        int[] concurrencyLevels = Arrays.stream((args.length > 2 ? args[2] : "50,200,1000").split(",")).mapToInt(Integer::parseInt).toArray();
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 10);
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+
+        System.out.printf("%-12s %10s %10s %10s %10s %10s %10s%n", "concurrency", "requests", "req/s", "p50 ms", "p99 ms", "max flight", "failures");
+        for (int concurrency : concurrencyLevels) {
+            run(httpClient, URI.create(baseUrl + ("view".equals(mode) ? VIEW_PATH : BOOK_PATH)), "view".equals(mode), concurrency, duration);
+        }
+    }
+
+    private static void run(HttpClient httpClient, URI uri, boolean view, int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicLong failures = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>(concurrency);
+        List<Thread> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long[] clientLatencies = new long[1 << 16];
+            latencies.add(clientLatencies);
+            Thread client = new Thread(() -> {
+                int count = 0;
+                while (System.nanoTime() < deadline && count < clientLatencies.length - 1) {
+                    HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(view ? viewBody() : bookBody())).build();
+                    long start = System.nanoTime();
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                    clientLatencies[++count] = System.nanoTime() - start;
+                }
+                clientLatencies[0] = count;
+            });
+            clients.add(client);
+            client.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        long[] all = latencies.stream().flatMapToLong(clientLatencies -> Arrays.stream(clientLatencies, 1, (int) clientLatencies[0] + 1)).sorted().toArray();
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%-12d %10d %10.0f %10.1f %10.1f %10d %10d%n", concurrency, all.length, all.length / seconds,
+                percentile(all, 0.50), percentile(all, 0.99), maxInFlight.get(), failures.get());
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        return sortedLatencies.length == 0 ? 0 : sortedLatencies[(int) ((sortedLatencies.length - 1) * percentile)] / 1e6;
+    }
+
+    private static String bookBody() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate bookingDate = LocalDate.now().plusDays(1 + random.nextInt(365));
+        LocalTime startTime = LocalTime.of(random.nextInt(23), 15 * random.nextInt(4));
+        return String.format("{\"persons\":%d,\"bookingDate\":\"%s\",\"startTime\":\"%s\",\"endTime\":\"%s\"}",
+                2 + random.nextInt(18), bookingDate, startTime, startTime.plusMinutes(30));
+    }
+
+    private static String viewBody() {
+        LocalDate bookingDate = LocalDate.now().plusDays(1 + ThreadLocalRandom.current().nextInt(365));
+        return String.format("{\"bookingDate\":\"%s\",\"startTime\":\"00:00\",\"endTime\":\"23:45\"}", bookingDate);
+    }
+}
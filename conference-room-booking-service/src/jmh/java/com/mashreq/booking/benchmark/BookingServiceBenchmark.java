@@ -0,0 +1,159 @@
+package com.mashreq.booking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.enums.ViewFormat;
+import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.BookingResponse;
+import com.mashreq.booking.model.ViewRoomRequest;
+import com.mashreq.booking.model.ViewRoomResponse;
+import com.mashreq.booking.util.CommonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the booking and view hot paths and of the JSON serialization of the view, over 10, 1k and 100k rooms
+ * with one booking each. Run with {@code mvn -P benchmark test-compile exec:exec}, the GC profiler reports the
+ * allocation rate of every benchmark.
+ *
+ * @author janv@mashreq.com
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingServiceBenchmark {
+
+    private static final LocalTime BOOKING_START_TIME = LocalTime.of(10, 0);
+    private static final LocalTime BOOKING_END_TIME = LocalTime.of(11, 0);
+
+    @Param({"10", "1000", "100000"})
+    private int rooms;
+
+    private BenchmarkData data;
+    private BookingRequest bookingRequest;
+    private ViewRoomRequest viewRoomRequest;
+    private long bookingMaskLow;
+    private long bookingMaskHigh;
+    private ObjectMapper objectMapper;
+    private ViewRoomResponse slotsResponse;
+    private ViewRoomResponse rangesResponse;
+    private ViewRoomResponse bitmapResponse;
+
+    /**
+     * Build the dataset and warm the availability engine and the room catalog.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkData.of(rooms);
+
+        bookingRequest = new BookingRequest();
+        bookingRequest.setPersons(5);
+        bookingRequest.setStartTime(BOOKING_START_TIME);
+        bookingRequest.setEndTime(BOOKING_END_TIME);
+        int startSlot = SlotBitmap.slotOf(BOOKING_START_TIME);
+        int endSlot = SlotBitmap.slotCeil(BOOKING_END_TIME);
+        bookingMaskLow = SlotBitmap.lowMask(startSlot, endSlot);
+        bookingMaskHigh = SlotBitmap.highMask(startSlot, endSlot);
+
+        viewRoomRequest = new ViewRoomRequest();
+        viewRoomRequest.setStartTime(LocalTime.MIDNIGHT);
+        viewRoomRequest.setEndTime(LocalTime.of(23, 45));
+
+        objectMapper = new ObjectMapper();
+        slotsResponse = data.bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.SLOTS);
+        rangesResponse = data.bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.RANGES);
+        bitmapResponse = data.bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.BITMAP);
+    }
+
+    /**
+     * Book a room and release it again, so every invocation sees the same dataset.
+     *
+     * @return the booking response
+     */
+    @Benchmark
+    public BookingResponse bookConferenceRoom() {
+        BookingResponse bookingResponse = data.bookingService.bookConferenceRoom(bookingRequest);
+        data.roomAvailabilityEngine.release(BenchmarkData.BOOKING_DAY, bookingResponse.getRoom(), bookingMaskLow, bookingMaskHigh);
+        return bookingResponse;
+    }
+
+    /**
+     * View the free slots of all rooms for the whole day.
+     *
+     * @return the view room response
+     */
+    @Benchmark
+    public ViewRoomResponse findAvailableRoomsSlots() {
+        return data.bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.SLOTS);
+    }
+
+    /**
+     * View the free ranges of all rooms for the whole day.
+     *
+     * @return the view room response
+     */
+    @Benchmark
+    public ViewRoomResponse findAvailableRoomsRanges() {
+        return data.bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.RANGES);
+    }
+
+    /**
+     * View the free slot bitmap of all rooms for the whole day.
+     *
+     * @return the view room response
+     */
+    @Benchmark
+    public ViewRoomResponse findAvailableRoomsBitmap() {
+        return data.bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.BITMAP);
+    }
+
+    /**
+     * Serialize the whole day view with one label per free slot.
+     *
+     * @return the JSON bytes
+     * @throws JsonProcessingException if the response cannot be serialized
+     */
+    @Benchmark
+    public byte[] serializeSlots() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(CommonUtil.buildSuccessResponse(slotsResponse));
+    }
+
+    /**
+     * Serialize the whole day view with one label per free range.
+     *
+     * @return the JSON bytes
+     * @throws JsonProcessingException if the response cannot be serialized
+     */
+    @Benchmark
+    public byte[] serializeRanges() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(CommonUtil.buildSuccessResponse(rangesResponse));
+    }
+
+    /**
+     * Serialize the whole day view with the free slot bitmap.
+     *
+     * @return the JSON bytes
+     * @throws JsonProcessingException if the response cannot be serialized
+     */
+    @Benchmark
+    public byte[] serializeBitmap() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(CommonUtil.buildSuccessResponse(bitmapResponse));
+    }
+}
@@ -0,0 +1,81 @@
+package com.mashreq.booking.benchmark;
+
+import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.ViewRoomRequest;
+import com.mashreq.booking.validation.validator.BookingRequestValidator;
+import com.mashreq.booking.validation.validator.ViewRoomRequestValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalTime;
+import java.time.Period;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the request validators on valid requests.
+ *
+ * @author janv@mashreq.com
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+    private BookingRequestValidator bookingRequestValidator;
+    private ViewRoomRequestValidator viewRoomRequestValidator;
+    private ConstraintValidatorContext context;
+    private BookingRequest bookingRequest;
+    private ViewRoomRequest viewRoomRequest;
+
+    /**
+     * Create the validators with a clock fixed before the requested times.
+     */
+    @Setup
+    public void setUp() {
+        bookingRequestValidator = new BookingRequestValidator(BenchmarkData.CLOCK, Period.ofYears(1));
+        viewRoomRequestValidator = new ViewRoomRequestValidator(BenchmarkData.CLOCK, Period.ofYears(1));
+        context = Mockito.mock(ConstraintValidatorContext.class, Mockito.withSettings().stubOnly());
+
+        bookingRequest = new BookingRequest();
+        bookingRequest.setPersons(5);
+        bookingRequest.setStartTime(LocalTime.of(10, 0));
+        bookingRequest.setEndTime(LocalTime.of(11, 0));
+
+        viewRoomRequest = new ViewRoomRequest();
+        viewRoomRequest.setStartTime(LocalTime.of(10, 0));
+        viewRoomRequest.setEndTime(LocalTime.of(18, 0));
+    }
+
+    /**
+     * Validate a booking request.
+     *
+     * @return the validation result
+     */
+    @Benchmark
+    public boolean validateBookingRequest() {
+        return bookingRequestValidator.isValid(bookingRequest, context);
+    }
+
+    /**
+     * Validate a view room request.
+     *
+     * @return the validation result
+     */
+    @Benchmark
+    public boolean validateViewRoomRequest() {
+        return viewRoomRequestValidator.isValid(viewRoomRequest, context);
+    }
+}
@@ -0,0 +1,55 @@
+package com.mashreq.booking.archive;
+
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Moves the bookings of the days older than the retention period from BOOKED_ROOM to BOOKED_ROOM_ARCHIVE.
+ * Every booking query is bound to a single day through the leading BOOKING_DATE index column, so archiving only keeps
+ * the table small and is not required for the queries of today to stay fast. The idempotency keys saved before the
+ * retention period are dropped along with them.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "booking.archive.enabled", havingValue = "true")
+public class BookingArchiver {
+
+    private final BookedRoomRepository bookedRoomRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Clock clock;
+    private final Period retention;
+
+    public BookingArchiver(BookedRoomRepository bookedRoomRepository, IdempotencyKeyRepository idempotencyKeyRepository, Clock clock,
+                           @Value("${booking.archive.retention}") Period retention) {
+        this.bookedRoomRepository = bookedRoomRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.clock = clock;
+        this.retention = retention;
+    }
+
+    /**
+     * Archive the bookings of the days before the retention period
+     */
+    @Scheduled(cron = "${booking.archive.cron}")
+    @Transactional
+    public void archive() {
+        LocalDate archiveBefore = LocalDate.now(clock).minus(retention);
+        int archived = bookedRoomRepository.archiveBookingsBefore(archiveBefore);
+        int deleted = bookedRoomRepository.deleteBookingsBefore(archiveBefore);
+        int deletedKeys = idempotencyKeyRepository.deleteCreatedBefore(archiveBefore.atStartOfDay());
+        log.info("Archived {} bookings of the days before {}, {} rows removed from the booking table, {} idempotency keys removed",
+                archived, archiveBefore, deleted, deletedKeys);
+    }
+}
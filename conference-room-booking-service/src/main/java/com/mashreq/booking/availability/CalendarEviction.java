@@ -0,0 +1,34 @@
+package com.mashreq.booking.availability;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Drops the in-memory shards of the days that are over, bookings can no longer be made for them.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarEviction {
+
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final Clock clock;
+
+    /**
+     * Evict the shards of the past days
+     */
+    @Scheduled(initialDelayString = "${booking.calendar.evict-interval}", fixedDelayString = "${booking.calendar.evict-interval}")
+    public void evictPastDays() {
+        int evicted = roomAvailabilityEngine.evictBefore(LocalDate.now(clock));
+        if (evicted > 0) {
+            log.info("Evicted {} past days from the availability calendar", evicted);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.mashreq.booking.availability;
+
+/**
+ * Published when a conference room or a maintenance time is created, updated or removed.
+ *
+ * @param entity the changed entity
+ * @author janv@mashreq.com
+ */
+public record CatalogChangedEvent(Object entity) {
+}
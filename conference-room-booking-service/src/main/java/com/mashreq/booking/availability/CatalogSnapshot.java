@@ -0,0 +1,47 @@
+package com.mashreq.booking.availability;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of the conference rooms and the maintenance windows. The maintenance windows are also compiled
+ * into a slot mask in which every slot touched by a window is set, so windows that are not aligned to the 15-minute
+ * slots still block the slots they overlap.
+ *
+ * @param rooms              the conference rooms in id order
+ * @param capacityIndex      the conference rooms ordered by capacity
+ * @param maintenanceWindows the maintenance windows
+ * @param maintenanceLow     the low word of the maintenance slot mask
+ * @param maintenanceHigh    the high word of the maintenance slot mask
+ * @author janv@mashreq.com
+ */
+public record CatalogSnapshot(List<RoomInfo> rooms, RoomCapacityIndex capacityIndex, List<MaintenanceWindow> maintenanceWindows,
+                              long maintenanceLow, long maintenanceHigh) {
+
+    /**
+     * Create the snapshot of the given rooms and maintenance windows
+     *
+     * @param rooms              the conference rooms in id order
+     * @param maintenanceWindows the maintenance windows
+     * @return the catalog snapshot
+     */
+    public static CatalogSnapshot of(List<RoomInfo> rooms, List<MaintenanceWindow> maintenanceWindows) {
+        long maintenanceLow = 0L;
+        long maintenanceHigh = 0L;
+        for (MaintenanceWindow maintenanceWindow : maintenanceWindows) {
+            maintenanceLow |= SlotBitmap.lowMask(maintenanceWindow.startSlot(), maintenanceWindow.endSlot());
+            maintenanceHigh |= SlotBitmap.highMask(maintenanceWindow.startSlot(), maintenanceWindow.endSlot());
+        }
+        return new CatalogSnapshot(rooms, RoomCapacityIndex.of(rooms), maintenanceWindows, maintenanceLow, maintenanceHigh);
+    }
+
+    /**
+     * Check if any of the given slots is under maintenance
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @return true if at least one slot is under maintenance
+     */
+    public boolean isUnderMaintenance(long maskLow, long maskHigh) {
+        return ((maintenanceLow & maskLow) | (maintenanceHigh & maskHigh)) != 0;
+    }
+}
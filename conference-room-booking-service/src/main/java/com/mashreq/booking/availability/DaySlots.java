@@ -0,0 +1,16 @@
+package com.mashreq.booking.availability;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Copy of the in-memory availability of one day.
+ *
+ * @param bookingDate the booking day
+ * @param loadedLow   the low word mask of the slots already read from the database
+ * @param loadedHigh  the high word mask of the slots already read from the database
+ * @param rooms       the booked slots of each room
+ * @author janv@mashreq.com
+ */
+public record DaySlots(LocalDate bookingDate, long loadedLow, long loadedHigh, List<RoomSlots> rooms) {
+}
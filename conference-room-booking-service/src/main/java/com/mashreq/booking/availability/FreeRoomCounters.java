@@ -0,0 +1,126 @@
+package com.mashreq.booking.availability;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Number of free conference rooms of one day, per slot and per capacity bucket. There is one bucket per distinct room
+ * capacity and the counter of a bucket holds the free rooms with at least that capacity, so whether a group may fit a
+ * time range is answered from the counters of a single bucket, without looking at the slots of each room.
+ * <p>
+ * A room free at every requested slot is only possible when no counter of the range is zero. The counters are kept in
+ * step with the room bitmaps by the {@link RoomAvailabilityEngine}, with the slots that actually changed.
+ *
+ * @author janv@mashreq.com
+ */
+public final class FreeRoomCounters {
+
+    private final RoomCapacityIndex capacityIndex;
+    private final int[] bucketCapacities;
+    private final Map<String, Integer> roomBuckets;
+    private final AtomicIntegerArray counts;
+
+    /**
+     * Create the counters of the given rooms, all free
+     *
+     * @param capacityIndex the conference rooms ordered by capacity
+     */
+    public FreeRoomCounters(RoomCapacityIndex capacityIndex) {
+        this.capacityIndex = capacityIndex;
+        int[] capacities = new int[capacityIndex.size()];
+        this.roomBuckets = new HashMap<>(capacityIndex.size() * 2);
+        int buckets = 0;
+        for (int i = 0; i < capacityIndex.size(); i++) {
+            if (buckets == 0 || capacities[buckets - 1] != capacityIndex.capacityAt(i)) {
+                capacities[buckets++] = capacityIndex.capacityAt(i);
+            }
+            roomBuckets.put(capacityIndex.roomAt(i), buckets - 1);
+        }
+        this.bucketCapacities = Arrays.copyOf(capacities, buckets);
+        this.counts = new AtomicIntegerArray(buckets * SlotBitmap.SLOTS_PER_DAY);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int freeRooms = capacityIndex.size() - capacityIndex.ceilingIndex(bucketCapacities[bucket]);
+            for (int slot = 0; slot < SlotBitmap.SLOTS_PER_DAY; slot++) {
+                counts.set(bucket * SlotBitmap.SLOTS_PER_DAY + slot, freeRooms);
+            }
+        }
+    }
+
+    /**
+     * Get the room capacity index the counters were built from
+     *
+     * @return the room capacity index
+     */
+    public RoomCapacityIndex getCapacityIndex() {
+        return capacityIndex;
+    }
+
+    /**
+     * Take the newly booked slots of the room off the counters
+     *
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the newly booked slots
+     * @param maskHigh the high word mask of the newly booked slots
+     */
+    public void booked(String roomName, long maskLow, long maskHigh) {
+        this.add(roomName, maskLow, maskHigh, -1);
+    }
+
+    /**
+     * Add the newly freed slots of the room to the counters
+     *
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the newly freed slots
+     * @param maskHigh the high word mask of the newly freed slots
+     */
+    public void freed(String roomName, long maskLow, long maskHigh) {
+        this.add(roomName, maskLow, maskHigh, 1);
+    }
+
+    /**
+     * Get the fewest free rooms that can fit the given number of persons over the given slots. A zero means no room
+     * can be booked for the whole range, any other value is an upper bound of the rooms free for the whole range.
+     *
+     * @param persons  the number of persons
+     * @param maskLow  the low word mask of the requested slots
+     * @param maskHigh the high word mask of the requested slots
+     * @return the lowest free room count of the requested slots
+     */
+    public int minFreeRooms(int persons, long maskLow, long maskHigh) {
+        int bucket = this.bucketOf(persons);
+        if (bucket < 0) {
+            return 0;
+        }
+        int offset = bucket * SlotBitmap.SLOTS_PER_DAY;
+        int minFreeRooms = Integer.MAX_VALUE;
+        for (int slot = SlotBitmap.nextSlot(maskLow, maskHigh, 0); slot >= 0 && minFreeRooms > 0; slot = SlotBitmap.nextSlot(maskLow, maskHigh, slot + 1)) {
+            minFreeRooms = Math.min(minFreeRooms, counts.get(offset + slot));
+        }
+        return minFreeRooms == Integer.MAX_VALUE ? 0 : minFreeRooms;
+    }
+
+    private int bucketOf(int persons) {
+        for (int bucket = 0; bucket < bucketCapacities.length; bucket++) {
+            if (bucketCapacities[bucket] >= persons) {
+                return bucket;
+            }
+        }
+        return -1;
+    }
+
+    private void add(String roomName, long maskLow, long maskHigh, int delta) {
+        Integer roomBucket = roomBuckets.get(roomName);
+        if (roomBucket == null) {
+            // Bookings of rooms no longer in the catalog do not count
+            return;
+        }
+        for (int slot = SlotBitmap.nextSlot(maskLow, maskHigh, 0); slot >= 0; slot = SlotBitmap.nextSlot(maskLow, maskHigh, slot + 1)) {
+            // The room counts in its own bucket and in every smaller one
+            for (int bucket = 0; bucket <= roomBucket; bucket++) {
+                counts.addAndGet(bucket * SlotBitmap.SLOTS_PER_DAY + slot, delta);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.mashreq.booking.availability;
+
+import java.time.LocalTime;
+
+/**
+ * Immutable maintenance window, kept as minutes of the day.
+ *
+ * @param startMinute the inclusive start minute of the day
+ * @param endMinute   the exclusive end minute of the day
+ * @author janv@mashreq.com
+ */
+public record MaintenanceWindow(int startMinute, int endMinute) {
+
+    /**
+     * Create the maintenance window of the given time range
+     *
+     * @param startTime the start time
+     * @param endTime   the end time
+     * @return the maintenance window
+     */
+    public static MaintenanceWindow of(LocalTime startTime, LocalTime endTime) {
+        return new MaintenanceWindow(minuteOfDay(startTime), minuteOfDay(endTime));
+    }
+
+    /**
+     * Get the minute of the day of the given time
+     *
+     * @param time the time
+     * @return the minute of the day
+     */
+    public static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Get the first slot touched by the maintenance window
+     *
+     * @return the inclusive start slot
+     */
+    public int startSlot() {
+        return startMinute / SlotBitmap.SLOT_MINUTES;
+    }
+
+    /**
+     * Get the slot after the last slot touched by the maintenance window
+     *
+     * @return the exclusive end slot
+     */
+    public int endSlot() {
+        return (endMinute + SlotBitmap.SLOT_MINUTES - 1) / SlotBitmap.SLOT_MINUTES;
+    }
+}
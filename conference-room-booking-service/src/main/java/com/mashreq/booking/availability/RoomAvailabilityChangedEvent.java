@@ -0,0 +1,15 @@
+package com.mashreq.booking.availability;
+
+import java.time.LocalDate;
+
+/**
+ * Published when slots of a room are booked or released.
+ *
+ * @param bookingDate the booking day
+ * @param roomName    the room name
+ * @param maskLow     the low word mask of the changed slots
+ * @param maskHigh    the high word mask of the changed slots
+ * @author janv@mashreq.com
+ */
+public record RoomAvailabilityChangedEvent(LocalDate bookingDate, String roomName, long maskLow, long maskHigh) {
+}
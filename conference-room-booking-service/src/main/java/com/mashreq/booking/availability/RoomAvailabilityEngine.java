@@ -0,0 +1,599 @@
+package com.mashreq.booking.availability;
+
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.BookedSlotView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory availability of the conference rooms, kept as one shard per booking day holding a {@link SlotBitmap} per room.
+ * The BOOKED_ROOM table stays the durable store. Each time window of a day is read from it once, with a single
+ * overlap query on that day only, the first time the window is used. Shards of past days are evicted.
+ * <p>
+ * Reservations check and set the slots of a room under the monitor of that room's bitmap only, so concurrent bookings
+ * of the same room are serialized while bookings of different rooms never contend.
+ * <p>
+ * Each shard also keeps {@link FreeRoomCounters} of its day, updated with the slots each change actually booked or
+ * freed. They are built on first use from the room capacities of the catalog, and rebuilt when those change.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomAvailabilityEngine {
+
+    private final BookedRoomRepository bookedRoomRepository;
+
+    private final Map<LocalDate, DayShard> days = new ConcurrentHashMap<>();
+    private final List<RoomChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Register a listener of the changes of the booked slots in memory. A reservation is seen before its booking is
+     * written to the database. Bookings read from the database by {@link #load} are not changes and are not seen.
+     *
+     * @param changeListener the listener, called on the thread that made the change
+     */
+    public void addChangeListener(RoomChangeListener changeListener) {
+        changeListeners.add(changeListener);
+    }
+
+    /**
+     * Make sure the bookings overlapping the given slots of the day have been read from the database
+     *
+     * @param day       the booking day
+     * @param startSlot the inclusive start slot
+     * @param endSlot   the exclusive end slot
+     */
+    public void load(LocalDate day, int startSlot, int endSlot) {
+        long maskLow = SlotBitmap.lowMask(startSlot, endSlot);
+        long maskHigh = SlotBitmap.highMask(startSlot, endSlot);
+        DayShard shard = days.computeIfAbsent(day, key -> new DayShard());
+        if (shard.loaded.covers(maskLow, maskHigh)) {
+            return;
+        }
+        // An explicit lock rather than a monitor, a virtual thread waiting on the query below must not pin its carrier
+        shard.loadLock.lock();
+        try {
+            if (shard.loaded.covers(maskLow, maskHigh)) {
+                return;
+            }
+            while (!this.load(day, shard, startSlot, endSlot)) {
+                log.debug("Slots of {} released while loading between slots {} and {}, reading them again", day, startSlot, endSlot);
+            }
+            shard.loaded.set(maskLow, maskHigh);
+        } finally {
+            shard.loadLock.unlock();
+        }
+    }
+
+    /**
+     * Read the bookings overlapping the given slots of the day and set their slots, unless a release started since the
+     * query. A booking is deleted from the database before its slots are released, the rows read may still hold it
+     * and would book its slots again.
+     *
+     * @param day       the booking day
+     * @param shard     the day shard
+     * @param startSlot the inclusive start slot
+     * @param endSlot   the exclusive end slot
+     * @return true if the rows were set, false if they have to be read again
+     */
+    private boolean load(LocalDate day, DayShard shard, int startSlot, int endSlot) {
+        long releasesStarted = shard.releasesStarted.get();
+        List<BookedSlotView> bookedSlots = bookedRoomRepository.findBookedSlots(day, SlotBitmap.timeOf(startSlot), SlotBitmap.timeOf(endSlot));
+        // The write lock waits for the releases under way and keeps new ones out while the rows are set
+        shard.countersLock.writeLock().lock();
+        try {
+            if (shard.releasesStarted.get() != releasesStarted) {
+                return false;
+            }
+            // Group the booked slots per room in a single pass
+            for (BookedSlotView bookedSlot : bookedSlots) {
+                int bookedStartSlot = SlotBitmap.slotOf(bookedSlot.getStartTime());
+                int bookedEndSlot = SlotBitmap.slotCeil(bookedSlot.getEndTime());
+                this.set(day, shard, bookedSlot.getRoomName(), SlotBitmap.lowMask(bookedStartSlot, bookedEndSlot),
+                        SlotBitmap.highMask(bookedStartSlot, bookedEndSlot), false);
+            }
+        } finally {
+            shard.countersLock.writeLock().unlock();
+        }
+        log.debug("Loaded {} booked slots of {} between slots {} and {}", bookedSlots.size(), day, startSlot, endSlot);
+        return true;
+    }
+
+    /**
+     * Check if the bookings overlapping the given slots of the day have already been read from the database
+     *
+     * @param day       the booking day
+     * @param startSlot the inclusive start slot
+     * @param endSlot   the exclusive end slot
+     * @return true if the slots can be served from memory
+     */
+    public boolean isLoaded(LocalDate day, int startSlot, int endSlot) {
+        DayShard shard = days.get(day);
+        return shard != null && shard.loaded.covers(SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot));
+    }
+
+    /**
+     * Check that none of the given slots of the room is booked
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the requested slots
+     * @param maskHigh the high word mask of the requested slots
+     * @return true if the room is free for all the requested slots
+     */
+    public boolean isAvailable(LocalDate day, String roomName, long maskLow, long maskHigh) {
+        SlotBitmap bitmap = this.find(day, roomName);
+        return bitmap == null || !bitmap.intersects(maskLow, maskHigh);
+    }
+
+    /**
+     * Check if the slot of the room is booked
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param slot     the slot index
+     * @return true if the slot is booked
+     */
+    public boolean isBooked(LocalDate day, String roomName, int slot) {
+        SlotBitmap bitmap = this.find(day, roomName);
+        return bitmap != null && bitmap.isSet(slot);
+    }
+
+    /**
+     * Get the given low word slots of the room that are not booked
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the requested slots
+     * @return the free slots of the low word mask
+     */
+    public long freeLow(LocalDate day, String roomName, long maskLow) {
+        SlotBitmap bitmap = this.find(day, roomName);
+        return bitmap == null ? maskLow : bitmap.freeLow(maskLow);
+    }
+
+    /**
+     * Get the given high word slots of the room that are not booked
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskHigh the high word mask of the requested slots
+     * @return the free slots of the high word mask
+     */
+    public long freeHigh(LocalDate day, String roomName, long maskHigh) {
+        SlotBitmap bitmap = this.find(day, roomName);
+        return bitmap == null ? maskHigh : bitmap.freeHigh(maskHigh);
+    }
+
+    /**
+     * Reserve the given slots of the room if none of them is booked yet
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the requested slots
+     * @param maskHigh the high word mask of the requested slots
+     * @return true if the slots were free and are now reserved for the caller
+     */
+    public boolean tryReserve(LocalDate day, String roomName, long maskLow, long maskHigh) {
+        DayShard shard = days.computeIfAbsent(day, key -> new DayShard());
+        shard.countersLock.readLock().lock();
+        try {
+            if (!shard.bitmap(roomName).trySet(maskLow, maskHigh)) {
+                return false;
+            }
+            FreeRoomCounters counters = shard.counters;
+            if (counters != null) {
+                counters.booked(roomName, maskLow, maskHigh);
+            }
+        } finally {
+            shard.countersLock.readLock().unlock();
+        }
+        this.changed(day, roomName);
+        return true;
+    }
+
+    /**
+     * Release the given slots of the room
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the released slots
+     * @param maskHigh the high word mask of the released slots
+     */
+    public void release(LocalDate day, String roomName, long maskLow, long maskHigh) {
+        DayShard shard = days.get(day);
+        if (shard == null) {
+            return;
+        }
+        SlotBitmap bitmap = shard.rooms.get(roomName);
+        if (bitmap == null) {
+            // Nothing to clear, but a load reading the day may still have seen the released booking
+            shard.releasesStarted.incrementAndGet();
+            shard.releasesFinished.incrementAndGet();
+            return;
+        }
+        long freedLow;
+        long freedHigh;
+        shard.countersLock.readLock().lock();
+        shard.releasesStarted.incrementAndGet();
+        try {
+            // Read and clear the booked slots as one step under the monitor of the bitmap
+            synchronized (bitmap) {
+                freedLow = maskLow & ~bitmap.freeLow(maskLow);
+                freedHigh = maskHigh & ~bitmap.freeHigh(maskHigh);
+                bitmap.clear(maskLow, maskHigh);
+            }
+            FreeRoomCounters counters = shard.counters;
+            if (counters != null) {
+                counters.freed(roomName, freedLow, freedHigh);
+            }
+        } finally {
+            shard.releasesFinished.incrementAndGet();
+            shard.countersLock.readLock().unlock();
+        }
+        if ((freedLow | freedHigh) != 0) {
+            this.changed(day, roomName);
+        }
+    }
+
+    /**
+     * Mark the given slots of the room as booked
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the booked slots
+     * @param maskHigh the high word mask of the booked slots
+     */
+    public void markBooked(LocalDate day, String roomName, long maskLow, long maskHigh) {
+        this.set(day, days.computeIfAbsent(day, key -> new DayShard()), roomName, maskLow, maskHigh, true);
+    }
+
+    /**
+     * Read the given slots of the room again from the database, once they were changed by another node or a booking
+     * of this node was refused by the database. Only days already in memory are refreshed, the other days are read
+     * on first use anyway.
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the changed slots
+     * @param maskHigh the high word mask of the changed slots
+     */
+    public void refresh(LocalDate day, String roomName, long maskLow, long maskHigh) {
+        DayShard shard = days.get(day);
+        if (shard == null || (maskLow | maskHigh) == 0) {
+            return;
+        }
+        int startSlot = SlotBitmap.nextSlot(maskLow, maskHigh, 0);
+        int endSlot = maskHigh != 0 ? 128 - Long.numberOfLeadingZeros(maskHigh) : 64 - Long.numberOfLeadingZeros(maskLow);
+        long bookedLow = 0L;
+        long bookedHigh = 0L;
+        for (BookedRoomEntity booking : bookedRoomRepository.findOverlappingBookings(day, roomName, SlotBitmap.timeOf(startSlot), SlotBitmap.timeOf(endSlot))) {
+            int bookedStartSlot = SlotBitmap.slotOf(booking.getStartTime());
+            int bookedEndSlot = SlotBitmap.slotCeil(booking.getEndTime());
+            bookedLow |= SlotBitmap.lowMask(bookedStartSlot, bookedEndSlot);
+            bookedHigh |= SlotBitmap.highMask(bookedStartSlot, bookedEndSlot);
+        }
+        this.replace(day, shard, roomName, maskLow, maskHigh, bookedLow, bookedHigh);
+    }
+
+    /**
+     * Get the booked slots of the room on the given day
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @return the booked slots of the room, none if the day is not in memory
+     */
+    public RoomSlots roomSlots(LocalDate day, String roomName) {
+        SlotBitmap bitmap = this.find(day, roomName);
+        return bitmap == null ? new RoomSlots(roomName, 0L, 0L) : roomSlots(roomName, bitmap);
+    }
+
+    /**
+     * Copy the slots of the days in memory from the given day onwards, for a snapshot of the calendar
+     *
+     * @param fromDay the first day to copy
+     * @return the slots of each day, in no particular order
+     */
+    public List<DaySlots> daySlots(LocalDate fromDay) {
+        List<DaySlots> daySlots = new ArrayList<>();
+        days.forEach((day, shard) -> {
+            if (day.isBefore(fromDay)) {
+                return;
+            }
+            long loadedLow;
+            long loadedHigh;
+            synchronized (shard.loaded) {
+                loadedLow = ~shard.loaded.freeLow(-1L);
+                loadedHigh = ~shard.loaded.freeHigh(-1L);
+            }
+            List<RoomSlots> rooms = new ArrayList<>(shard.rooms.size());
+            shard.rooms.forEach((roomName, bitmap) -> rooms.add(roomSlots(roomName, bitmap)));
+            daySlots.add(new DaySlots(day, loadedLow, loadedHigh, rooms));
+        });
+        return daySlots;
+    }
+
+    /**
+     * Restore a day from a snapshot. The booked slots of its rooms are replaced and its windows read from the
+     * database are not read again.
+     *
+     * @param daySlots the slots of the day
+     */
+    public void restore(DaySlots daySlots) {
+        DayShard shard = days.computeIfAbsent(daySlots.bookingDate(), key -> new DayShard());
+        for (RoomSlots roomSlots : daySlots.rooms()) {
+            this.replace(daySlots.bookingDate(), shard, roomSlots.roomName(), -1L, -1L, roomSlots.maskLow(), roomSlots.maskHigh());
+        }
+        shard.loadLock.lock();
+        try {
+            shard.loaded.set(daySlots.loadedLow(), daySlots.loadedHigh());
+        } finally {
+            shard.loadLock.unlock();
+        }
+    }
+
+    /**
+     * Check a restored day against the database. The bookings of its loaded windows are read again and replace the
+     * restored slots, the slots outside the loaded windows are cleared until they are loaded. A snapshot or a journal can
+     * hold a reservation whose booking was never written, no booking would ever release its slots.
+     *
+     * @param day the booking day
+     */
+    public void reconcile(LocalDate day) {
+        DayShard shard = days.get(day);
+        if (shard == null) {
+            return;
+        }
+        shard.loadLock.lock();
+        try {
+            long loadedLow = ~shard.loaded.freeLow(-1L);
+            long loadedHigh = ~shard.loaded.freeHigh(-1L);
+            Map<String, long[]> bookedSlots = new HashMap<>();
+            if ((loadedLow | loadedHigh) != 0) {
+                int startSlot = SlotBitmap.nextSlot(loadedLow, loadedHigh, 0);
+                int endSlot = loadedHigh != 0 ? 128 - Long.numberOfLeadingZeros(loadedHigh) : 64 - Long.numberOfLeadingZeros(loadedLow);
+                for (BookedSlotView bookedSlot : bookedRoomRepository.findBookedSlots(day, SlotBitmap.timeOf(startSlot), SlotBitmap.timeOf(endSlot))) {
+                    int bookedStartSlot = SlotBitmap.slotOf(bookedSlot.getStartTime());
+                    int bookedEndSlot = SlotBitmap.slotCeil(bookedSlot.getEndTime());
+                    long[] masks = bookedSlots.computeIfAbsent(bookedSlot.getRoomName(), key -> new long[2]);
+                    masks[0] |= SlotBitmap.lowMask(bookedStartSlot, bookedEndSlot) & loadedLow;
+                    masks[1] |= SlotBitmap.highMask(bookedStartSlot, bookedEndSlot) & loadedHigh;
+                }
+            }
+            Set<String> roomNames = new HashSet<>(shard.rooms.keySet());
+            roomNames.addAll(bookedSlots.keySet());
+            for (String roomName : roomNames) {
+                long[] masks = bookedSlots.getOrDefault(roomName, new long[2]);
+                this.replace(day, shard, roomName, -1L, -1L, masks[0], masks[1]);
+            }
+        } finally {
+            shard.loadLock.unlock();
+        }
+    }
+
+    /**
+     * Restore the booked slots of a room, replacing the slots it had
+     *
+     * @param day       the booking day
+     * @param roomSlots the booked slots of the room
+     */
+    public void restore(LocalDate day, RoomSlots roomSlots) {
+        this.replace(day, days.computeIfAbsent(day, key -> new DayShard()), roomSlots.roomName(), -1L, -1L, roomSlots.maskLow(), roomSlots.maskHigh());
+    }
+
+    /**
+     * Get the fewest free rooms that can fit the given number of persons over the given slots of the day, from the
+     * free room counters of the day. A zero means no room can be booked for the whole range. A day that is not in
+     * memory is answered without creating its shard.
+     *
+     * @param day           the booking day
+     * @param capacityIndex the conference rooms ordered by capacity
+     * @param persons       the number of persons
+     * @param maskLow       the low word mask of the requested slots
+     * @param maskHigh      the high word mask of the requested slots
+     * @return the lowest free room count of the requested slots
+     */
+    public int minFreeRooms(LocalDate day, RoomCapacityIndex capacityIndex, int persons, long maskLow, long maskHigh) {
+        DayShard shard = days.get(day);
+        if (shard == null) {
+            // Nothing is booked on a day that is not in memory, every room that fits is free
+            return (maskLow | maskHigh) == 0 || persons > capacityIndex.maxCapacity() ? 0 : capacityIndex.size() - capacityIndex.ceilingIndex(persons);
+        }
+        return this.counters(shard, capacityIndex).minFreeRooms(persons, maskLow, maskHigh);
+    }
+
+    /**
+     * Check from the free room counters of the day that a slot of the range has no free room that fits the given
+     * number of persons. A release frees the bitmap of its room before the counters, a zero count read while a
+     * release is under way may miss the freed room and is not trusted: the rooms have to be looked at instead.
+     *
+     * @param day           the booking day
+     * @param capacityIndex the conference rooms ordered by capacity
+     * @param persons       the number of persons
+     * @param maskLow       the low word mask of the requested slots
+     * @param maskHigh      the high word mask of the requested slots
+     * @return true if no room can be booked for the whole range, false if one may be
+     */
+    public boolean isFull(LocalDate day, RoomCapacityIndex capacityIndex, int persons, long maskLow, long maskHigh) {
+        DayShard shard = days.get(day);
+        if (shard == null) {
+            return this.minFreeRooms(day, capacityIndex, persons, maskLow, maskHigh) == 0;
+        }
+        long releasesFinished = shard.releasesFinished.get();
+        int minFreeRooms = this.counters(shard, capacityIndex).minFreeRooms(persons, maskLow, maskHigh);
+        // Every release started by now had finished before the counters were read
+        return minFreeRooms == 0 && shard.releasesStarted.get() == releasesFinished;
+    }
+
+    /**
+     * Drop the shards of the days before the given day
+     *
+     * @param day the first day to keep
+     * @return the number of evicted days
+     */
+    public int evictBefore(LocalDate day) {
+        int size = days.size();
+        days.keySet().removeIf(shardDay -> shardDay.isBefore(day));
+        return size - days.size();
+    }
+
+    /**
+     * Set the given slots of the room as booked, updating the counters with the slots that were free
+     *
+     * @param day      the booking day
+     * @param shard    the day shard
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the booked slots
+     * @param maskHigh the high word mask of the booked slots
+     * @param notify   false for slots read from the database, the change listeners only see the changes made since
+     */
+    private void set(LocalDate day, DayShard shard, String roomName, long maskLow, long maskHigh, boolean notify) {
+        SlotBitmap bitmap = shard.bitmap(roomName);
+        long bookedLow;
+        long bookedHigh;
+        shard.countersLock.readLock().lock();
+        try {
+            // Read and set the free slots as one step under the monitor of the bitmap
+            synchronized (bitmap) {
+                bookedLow = bitmap.freeLow(maskLow);
+                bookedHigh = bitmap.freeHigh(maskHigh);
+                bitmap.set(maskLow, maskHigh);
+            }
+            FreeRoomCounters counters = shard.counters;
+            if (counters != null) {
+                counters.booked(roomName, bookedLow, bookedHigh);
+            }
+        } finally {
+            shard.countersLock.readLock().unlock();
+        }
+        if (notify && (bookedLow | bookedHigh) != 0) {
+            this.changed(day, roomName);
+        }
+    }
+
+    /**
+     * Replace the given slots of the room with the booked slots, updating the counters with the slots that changed
+     *
+     * @param day        the booking day
+     * @param shard      the day shard
+     * @param roomName   the room name
+     * @param maskLow    the low word mask of the replaced slots
+     * @param maskHigh   the high word mask of the replaced slots
+     * @param bookedLow  the low word mask of the booked slots
+     * @param bookedHigh the high word mask of the booked slots
+     */
+    private void replace(LocalDate day, DayShard shard, String roomName, long maskLow, long maskHigh, long bookedLow, long bookedHigh) {
+        SlotBitmap bitmap = shard.bitmap(roomName);
+        long freeLow;
+        long freeHigh;
+        shard.countersLock.readLock().lock();
+        shard.releasesStarted.incrementAndGet();
+        try {
+            // Swap the slots to the given state as one step under the monitor of the bitmap
+            synchronized (bitmap) {
+                freeLow = bitmap.freeLow(maskLow);
+                freeHigh = bitmap.freeHigh(maskHigh);
+                bitmap.clear(maskLow & ~bookedLow, maskHigh & ~bookedHigh);
+                bitmap.set(maskLow & bookedLow, maskHigh & bookedHigh);
+            }
+            FreeRoomCounters counters = shard.counters;
+            if (counters != null) {
+                counters.booked(roomName, freeLow & bookedLow, freeHigh & bookedHigh);
+                counters.freed(roomName, maskLow & ~freeLow & ~bookedLow, maskHigh & ~freeHigh & ~bookedHigh);
+            }
+        } finally {
+            shard.releasesFinished.incrementAndGet();
+            shard.countersLock.readLock().unlock();
+        }
+        // Slots that were free and are now booked, or were booked and are now free
+        if (((freeLow & bookedLow) | (maskLow & ~freeLow & ~bookedLow) | (freeHigh & bookedHigh) | (maskHigh & ~freeHigh & ~bookedHigh)) != 0) {
+            this.changed(day, roomName);
+        }
+    }
+
+    private void changed(LocalDate day, String roomName) {
+        for (RoomChangeListener changeListener : changeListeners) {
+            changeListener.roomChanged(day, roomName);
+        }
+    }
+
+    /**
+     * Get the free room counters of the shard for the given rooms, building them from the room bitmaps when the shard
+     * has none yet or the room capacities changed. Changes of the bitmaps wait while the counters are built.
+     *
+     * @param shard         the day shard
+     * @param capacityIndex the conference rooms ordered by capacity
+     * @return the free room counters
+     */
+    private FreeRoomCounters counters(DayShard shard, RoomCapacityIndex capacityIndex) {
+        FreeRoomCounters counters = shard.counters;
+        if (counters != null && counters.getCapacityIndex().equals(capacityIndex)) {
+            return counters;
+        }
+        shard.countersLock.writeLock().lock();
+        try {
+            counters = shard.counters;
+            if (counters == null || !counters.getCapacityIndex().equals(capacityIndex)) {
+                counters = new FreeRoomCounters(capacityIndex);
+                for (Map.Entry<String, SlotBitmap> room : shard.rooms.entrySet()) {
+                    counters.booked(room.getKey(), ~room.getValue().freeLow(-1L), ~room.getValue().freeHigh(-1L));
+                }
+                shard.counters = counters;
+            }
+            return counters;
+        } finally {
+            shard.countersLock.writeLock().unlock();
+        }
+    }
+
+    private static RoomSlots roomSlots(String roomName, SlotBitmap bitmap) {
+        synchronized (bitmap) {
+            return new RoomSlots(roomName, ~bitmap.freeLow(-1L), ~bitmap.freeHigh(-1L));
+        }
+    }
+
+    private SlotBitmap find(LocalDate day, String roomName) {
+        DayShard shard = days.get(day);
+        return shard == null ? null : shard.rooms.get(roomName);
+    }
+
+    /**
+     * The slot bitmaps of all the rooms for one day, along with the slots already read from the database and the free
+     * room counters of the day. Bitmap changes hold the read lock of the counters, so they can be rebuilt consistently.
+     */
+    private static final class DayShard {
+
+        private final Map<String, SlotBitmap> rooms = new ConcurrentHashMap<>();
+        private final SlotBitmap loaded = new SlotBitmap();
+        private final Lock loadLock = new ReentrantLock();
+        private final ReadWriteLock countersLock = new ReentrantReadWriteLock();
+        private volatile FreeRoomCounters counters;
+        // Counted around the bitmap and counter changes of the releases, which free slots: a zero free room count or rows
+        // read from the database while the count moves may be stale
+        private final AtomicLong releasesStarted = new AtomicLong();
+        private final AtomicLong releasesFinished = new AtomicLong();
+
+        private SlotBitmap bitmap(String roomName) {
+            return rooms.computeIfAbsent(roomName, key -> new SlotBitmap());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.mashreq.booking.availability;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable index of the conference rooms ordered by capacity, backed by sorted primitive arrays.
+ * Rooms with the same capacity keep the order in which they were given.
+ *
+ * @author janv@mashreq.com
+ */
+public final class RoomCapacityIndex {
+
+    private final int[] capacities;
+    private final String[] roomNames;
+
+    private RoomCapacityIndex(int[] capacities, String[] roomNames) {
+        this.capacities = capacities;
+        this.roomNames = roomNames;
+    }
+
+    /**
+     * Build the index from the given conference rooms
+     *
+     * @param conferenceRooms the list of conference rooms
+     * @return the room capacity index
+     */
+    public static RoomCapacityIndex of(List<RoomInfo> conferenceRooms) {
+        List<RoomInfo> sortedRooms = conferenceRooms.stream()
+                .sorted(Comparator.comparingInt(RoomInfo::capacity))
+                .toList();
+        int[] capacities = new int[sortedRooms.size()];
+        String[] roomNames = new String[sortedRooms.size()];
+        for (int i = 0; i < sortedRooms.size(); i++) {
+            capacities[i] = sortedRooms.get(i).capacity();
+            roomNames[i] = sortedRooms.get(i).name();
+        }
+        return new RoomCapacityIndex(capacities, roomNames);
+    }
+
+    /**
+     * Get the position of the smallest room that can fit the given number of persons
+     *
+     * @param persons the number of persons
+     * @return the position of the first fitting room, or {@link #size()} if no room fits
+     */
+    public int ceilingIndex(int persons) {
+        int low = 0;
+        int high = capacities.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (capacities[mid] < persons) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the largest room capacity
+     *
+     * @return the max room capacity, or 0 if there are no rooms
+     */
+    public int maxCapacity() {
+        return capacities.length == 0 ? 0 : capacities[capacities.length - 1];
+    }
+
+    public int size() {
+        return capacities.length;
+    }
+
+    public int capacityAt(int position) {
+        return capacities[position];
+    }
+
+    public String roomAt(int position) {
+        return roomNames[position];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof RoomCapacityIndex index
+                && Arrays.equals(capacities, index.capacities) && Arrays.equals(roomNames, index.roomNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(capacities) + Arrays.hashCode(roomNames);
+    }
+}
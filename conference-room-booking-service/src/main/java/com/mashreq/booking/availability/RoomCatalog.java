@@ -0,0 +1,120 @@
+package com.mashreq.booking.availability;
+
+import com.mashreq.booking.repo.ConferenceRoomRepository;
+import com.mashreq.booking.repo.MaintenanceTimeRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds an immutable snapshot of the conference rooms and the maintenance windows. The snapshot is read from the
+ * database on first use and swapped atomically after a catalog change has been committed or when the refresh
+ * interval elapses.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomCatalog implements MeterBinder {
+
+    private static final String REQUESTS_METRIC = "booking.catalog.requests";
+
+    private final ConferenceRoomRepository conferenceRoomRepository;
+    private final MaintenanceTimeRepository maintenanceTimeRepository;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    /**
+     * Get the current catalog snapshot
+     *
+     * @return the catalog snapshot
+     */
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot.get();
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+        misses.incrementAndGet();
+        return this.reload();
+    }
+
+    /**
+     * Check if a catalog snapshot has already been loaded
+     *
+     * @return true if the snapshot can be served from memory
+     */
+    public boolean isLoaded() {
+        return snapshot.get() != null;
+    }
+
+    /**
+     * Get the capacity index of the conference rooms
+     *
+     * @return the room capacity index
+     */
+    public RoomCapacityIndex getCapacityIndex() {
+        return this.getSnapshot().capacityIndex();
+    }
+
+    /**
+     * Reload the snapshot once a catalog change has been committed
+     *
+     * @param event the catalog changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        log.info("Catalog changed, reloading the room catalog");
+        this.reload();
+    }
+
+    /**
+     * Reload the snapshot on the configured refresh interval
+     */
+    @Scheduled(initialDelayString = "${booking.catalog.refresh-interval}", fixedDelayString = "${booking.catalog.refresh-interval}")
+    public void refresh() {
+        this.reload();
+    }
+
+    /**
+     * Read the conference rooms and the maintenance windows and swap the snapshot
+     *
+     * @return the new catalog snapshot
+     */
+    public synchronized CatalogSnapshot reload() {
+        List<RoomInfo> rooms = conferenceRoomRepository.findAll().stream()
+                .map(room -> new RoomInfo(room.getName(), room.getCapacity()))
+                .toList();
+        List<MaintenanceWindow> maintenanceWindows = maintenanceTimeRepository.findAll().stream()
+                .map(maintenanceTime -> MaintenanceWindow.of(maintenanceTime.getStartTime(), maintenanceTime.getEndTime()))
+                .toList();
+        CatalogSnapshot reloaded = CatalogSnapshot.of(rooms, maintenanceWindows);
+        snapshot.set(reloaded);
+        reloads.incrementAndGet();
+        log.debug("Room catalog reloaded with {} rooms and {} maintenance windows", rooms.size(), maintenanceWindows.size());
+        return reloaded;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(REQUESTS_METRIC, hits, AtomicLong::get).tag("result", "hit")
+                .description("Room catalog reads served from the snapshot").register(registry);
+        FunctionCounter.builder(REQUESTS_METRIC, misses, AtomicLong::get).tag("result", "miss")
+                .description("Room catalog reads that had to load the snapshot").register(registry);
+        FunctionCounter.builder("booking.catalog.reloads", reloads, AtomicLong::get)
+                .description("Room catalog snapshot reloads").register(registry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.mashreq.booking.availability;
+
+import java.time.LocalDate;
+
+/**
+ * Listener of the changes of the booked slots of a room in memory.
+ *
+ * @author janv@mashreq.com
+ */
+@FunctionalInterface
+public interface RoomChangeListener {
+
+    /**
+     * Called once the booked slots of the room changed
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     */
+    void roomChanged(LocalDate day, String roomName);
+}
@@ -0,0 +1,11 @@
+package com.mashreq.booking.availability;
+
+/**
+ * Immutable view of a conference room.
+ *
+ * @param name     the room name
+ * @param capacity the room capacity
+ * @author janv@mashreq.com
+ */
+public record RoomInfo(String name, int capacity) {
+}
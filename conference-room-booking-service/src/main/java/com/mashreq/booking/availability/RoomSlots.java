@@ -0,0 +1,12 @@
+package com.mashreq.booking.availability;
+
+/**
+ * The booked slots of a room on one day.
+ *
+ * @param roomName the room name
+ * @param maskLow  the low word mask of the booked slots
+ * @param maskHigh the high word mask of the booked slots
+ * @author janv@mashreq.com
+ */
+public record RoomSlots(String roomName, long maskLow, long maskHigh) {
+}
@@ -0,0 +1,286 @@
+package com.mashreq.booking.availability;
+
+import com.mashreq.booking.constants.AppConstants;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * A 96-bit bitmap of the 15-minute slots of a single day, backed by two longs.
+ * Slots 0-63 live in the low word and slots 64-95 in the high word.
+ *
+ * @author janv@mashreq.com
+ */
+public final class SlotBitmap {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 96;
+    private static final int WORD_SIZE = Long.SIZE;
+    private static final String[] SLOT_LABELS = new String[SLOTS_PER_DAY];
+
+    static {
+        for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+            LocalTime slotStart = timeOf(slot);
+            SLOT_LABELS[slot] = String.format(AppConstants.TIME_RANGE_FORMATTER, slotStart, slotStart.plusMinutes(SLOT_MINUTES));
+        }
+    }
+
+    private long low;
+    private long high;
+
+    /**
+     * Get the slot that contains the given time
+     *
+     * @param time the time
+     * @return the slot index from 0 to 95
+     */
+    public static int slotOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    /**
+     * Get the first slot starting at or after the given time, used as an exclusive end slot
+     *
+     * @param time the time
+     * @return the slot index from 0 to 96
+     */
+    public static int slotCeil(LocalTime time) {
+        int minuteOfDay = time.getHour() * 60 + time.getMinute();
+        int slot = minuteOfDay / SLOT_MINUTES;
+        return (minuteOfDay % SLOT_MINUTES == 0 && time.getSecond() == 0 && time.getNano() == 0) ? slot : slot + 1;
+    }
+
+    /**
+     * Get the start time of the given slot
+     *
+     * @param slot the slot index from 0 to 96
+     * @return the start time of the slot, or {@link LocalTime#MAX} for the end of the day
+     */
+    public static LocalTime timeOf(int slot) {
+        return slot >= SLOTS_PER_DAY ? LocalTime.MAX : LocalTime.of(slot * SLOT_MINUTES / 60, slot * SLOT_MINUTES % 60);
+    }
+
+    /**
+     * Get the display label of the given slot, formatted once for the whole day
+     *
+     * @param slot the slot index from 0 to 95
+     * @return the slot label such as {@code 08:00 - 08:15}
+     */
+    public static String labelOf(int slot) {
+        return SLOT_LABELS[slot];
+    }
+
+    /**
+     * Get the display label of the given slot range
+     *
+     * @param startSlot the inclusive start slot
+     * @param endSlot   the exclusive end slot
+     * @return the range label such as {@code 08:00 - 09:30}
+     */
+    public static String labelOf(int startSlot, int endSlot) {
+        return endSlot - startSlot == 1 ? SLOT_LABELS[startSlot]
+                : String.format(AppConstants.TIME_RANGE_FORMATTER, timeOf(startSlot), timeOf(endSlot - 1).plusMinutes(SLOT_MINUTES));
+    }
+
+    /**
+     * Get the display labels of the contiguous slot ranges set in the given masks
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @return the range labels such as {@code 08:00 - 09:30}, in slot order
+     */
+    public static List<String> rangeLabelsOf(long maskLow, long maskHigh) {
+        List<String> rangeLabels = new ArrayList<>();
+        for (int slot = nextSlot(maskLow, maskHigh, 0); slot >= 0; ) {
+            int rangeEnd = nextClearSlot(maskLow, maskHigh, slot);
+            rangeLabels.add(labelOf(slot, rangeEnd));
+            slot = nextSlot(maskLow, maskHigh, rangeEnd);
+        }
+        return rangeLabels;
+    }
+
+    /**
+     * Encode the given masks as Base64 of 12 little-endian bytes, slot n being bit n % 8 of byte n / 8
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @return the encoded bitmap
+     */
+    public static String encode(long maskLow, long maskHigh) {
+        ByteBuffer buffer = ByteBuffer.allocate(SLOTS_PER_DAY / Byte.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(maskLow).putInt((int) maskHigh);
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    /**
+     * Get the low word mask of the slot range
+     *
+     * @param startSlot the inclusive start slot
+     * @param endSlot   the exclusive end slot
+     * @return the mask of slots 0-63 in the range
+     */
+    public static long lowMask(int startSlot, int endSlot) {
+        return wordMask(startSlot, Math.min(endSlot, WORD_SIZE));
+    }
+
+    /**
+     * Get the high word mask of the slot range
+     *
+     * @param startSlot the inclusive start slot
+     * @param endSlot   the exclusive end slot
+     * @return the mask of slots 64-95 in the range
+     */
+    public static long highMask(int startSlot, int endSlot) {
+        return wordMask(Math.max(startSlot, WORD_SIZE) - WORD_SIZE, endSlot - WORD_SIZE);
+    }
+
+    /**
+     * Check if the slot is set in the given masks
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @param slot     the slot index
+     * @return true if the slot is set
+     */
+    public static boolean contains(long maskLow, long maskHigh, int slot) {
+        return slot < WORD_SIZE ? (maskLow & (1L << slot)) != 0 : (maskHigh & (1L << (slot - WORD_SIZE))) != 0;
+    }
+
+    /**
+     * Get the first slot set in the given masks at or after the given slot
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @param fromSlot the slot to start from
+     * @return the next set slot, or -1 if there is none
+     */
+    public static int nextSlot(long maskLow, long maskHigh, int fromSlot) {
+        if (fromSlot < WORD_SIZE) {
+            long bits = maskLow & (-1L << fromSlot);
+            if (bits != 0) {
+                return Long.numberOfTrailingZeros(bits);
+            }
+            fromSlot = WORD_SIZE;
+        }
+        if (fromSlot >= SLOTS_PER_DAY) {
+            return -1;
+        }
+        long bits = maskHigh & (-1L << (fromSlot - WORD_SIZE));
+        return bits == 0 ? -1 : WORD_SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Get the first slot not set in the given masks at or after the given slot
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @param fromSlot the slot to start from
+     * @return the next clear slot, or {@link #SLOTS_PER_DAY} if there is none
+     */
+    public static int nextClearSlot(long maskLow, long maskHigh, int fromSlot) {
+        int slot = nextSlot(~maskLow, ~maskHigh, fromSlot);
+        return slot < 0 ? SLOTS_PER_DAY : Math.min(slot, SLOTS_PER_DAY);
+    }
+
+    private static long wordMask(int from, int to) {
+        if (to <= from) {
+            return 0L;
+        }
+        int bits = to - from;
+        return (bits == WORD_SIZE ? -1L : (1L << bits) - 1) << from;
+    }
+
+    /**
+     * Check if any of the given slots is set
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @return true if at least one slot is set
+     */
+    public synchronized boolean intersects(long maskLow, long maskHigh) {
+        return ((low & maskLow) | (high & maskHigh)) != 0;
+    }
+
+    /**
+     * Check if all the given slots are set
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @return true if every slot of the masks is set
+     */
+    public synchronized boolean covers(long maskLow, long maskHigh) {
+        return (low & maskLow) == maskLow && (high & maskHigh) == maskHigh;
+    }
+
+    /**
+     * Check if the given slot is set
+     *
+     * @param slot the slot index
+     * @return true if the slot is set
+     */
+    public synchronized boolean isSet(int slot) {
+        return contains(low, high, slot);
+    }
+
+    /**
+     * Get the given low word slots that are not set
+     *
+     * @param maskLow the low word mask
+     * @return the free slots of the low word mask
+     */
+    public synchronized long freeLow(long maskLow) {
+        return maskLow & ~low;
+    }
+
+    /**
+     * Get the given high word slots that are not set
+     *
+     * @param maskHigh the high word mask
+     * @return the free slots of the high word mask
+     */
+    public synchronized long freeHigh(long maskHigh) {
+        return maskHigh & ~high;
+    }
+
+    /**
+     * Set the given slots
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     */
+    public synchronized void set(long maskLow, long maskHigh) {
+        low |= maskLow;
+        high |= maskHigh;
+    }
+
+    /**
+     * Set the given slots only if none of them is set yet, as a single atomic step
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     * @return true if the slots were free and are now set
+     */
+    public synchronized boolean trySet(long maskLow, long maskHigh) {
+        if (((low & maskLow) | (high & maskHigh)) != 0) {
+            return false;
+        }
+        low |= maskLow;
+        high |= maskHigh;
+        return true;
+    }
+
+    /**
+     * Clear the given slots
+     *
+     * @param maskLow  the low word mask
+     * @param maskHigh the high word mask
+     */
+    public synchronized void clear(long maskLow, long maskHigh) {
+        low &= ~maskLow;
+        high &= ~maskHigh;
+    }
+}
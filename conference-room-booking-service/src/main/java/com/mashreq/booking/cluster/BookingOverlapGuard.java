@@ -0,0 +1,110 @@
+package com.mashreq.booking.cluster;
+
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.ConferenceRoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Makes the database the judge of overlapping bookings when several nodes share it. The in-memory availability of a
+ * node can miss a booking another node made since its last poll, so in cluster mode the rows of the booked rooms are
+ * locked and checked for overlaps in the same transaction that writes the booking.
+ * <p>
+ * A single node sees every booking in memory first, it only writes.
+ * <p>
+ * The rows written and released are handed to the change recorder in the same transaction, so the cluster is told of
+ * every committed booking even when the node stops right after the commit.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@Slf4j
+public class BookingOverlapGuard {
+
+    private final ConferenceRoomRepository conferenceRoomRepository;
+    private final BookedRoomRepository bookedRoomRepository;
+    private final boolean enabled;
+    private volatile BiConsumer<List<BookedRoomEntity>, List<BookedRoomEntity>> changeRecorder = (written, released) -> {
+    };
+
+    public BookingOverlapGuard(ConferenceRoomRepository conferenceRoomRepository, BookedRoomRepository bookedRoomRepository,
+                               @Value("${booking.cluster.enabled}") boolean enabled) {
+        this.conferenceRoomRepository = conferenceRoomRepository;
+        this.bookedRoomRepository = bookedRoomRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Set what records the changed rows in the transaction of each write
+     *
+     * @param changeRecorder called with the rows written and the rows released, before the transaction commits
+     */
+    public void setChangeRecorder(BiConsumer<List<BookedRoomEntity>, List<BookedRoomEntity>> changeRecorder) {
+        this.changeRecorder = changeRecorder;
+    }
+
+    /**
+     * Write the bookings unless another booking of the database overlaps one of them
+     *
+     * @param bookings the bookings about to be written
+     * @param write    writes the bookings
+     * @param <T>      the result of the write
+     * @return the result of the write
+     */
+    @Transactional
+    public <T> T write(List<BookedRoomEntity> bookings, Supplier<T> write) {
+        return this.writeChecked(bookings, List.of(), write);
+    }
+
+    /**
+     * Write the bookings unless another booking of the database overlaps one of them, and release the given rows in
+     * the same transaction
+     *
+     * @param bookings the bookings about to be written
+     * @param released the booking rows the write deletes or moves away from their slots
+     * @param write    writes the bookings and releases the rows
+     * @param <T>      the result of the write
+     * @return the result of the write
+     */
+    @Transactional
+    public <T> T write(List<BookedRoomEntity> bookings, List<BookedRoomEntity> released, Supplier<T> write) {
+        return this.writeChecked(bookings, released, write);
+    }
+
+    private <T> T writeChecked(List<BookedRoomEntity> bookings, List<BookedRoomEntity> released, Supplier<T> write) {
+        if (enabled) {
+            // Lock the rooms in name order, so two nodes writing bookings of the same rooms cannot deadlock
+            bookings.stream().map(BookedRoomEntity::getRoomName).distinct().sorted().forEach(conferenceRoomRepository::lockByName);
+            for (BookedRoomEntity booking : bookings) {
+                if (bookedRoomRepository.existsOverlappingBooking(booking.getBookingDate(), booking.getRoomName(), booking.getStartTime(),
+                        booking.getEndTime(), booking.getBookingReference())) {
+                    log.debug("Conference room {} was booked on another node for {} {} - {}", booking.getRoomName(),
+                            booking.getBookingDate(), booking.getStartTime(), booking.getEndTime());
+                    throw new AppException(AppErrorCode.BOOKING_CONFLICT);
+                }
+            }
+        }
+        T result = write.get();
+        changeRecorder.accept(bookings, released);
+        return result;
+    }
+
+    /**
+     * Check if a write failed because the slots were already booked in the database
+     *
+     * @param exception the failure of the write
+     * @return true if the in-memory slots of the booking are stale
+     */
+    public boolean isConflict(RuntimeException exception) {
+        return exception instanceof AppException appException && AppErrorCode.BOOKING_CONFLICT.getErrorCode().equals(appException.getErrorCode());
+    }
+}
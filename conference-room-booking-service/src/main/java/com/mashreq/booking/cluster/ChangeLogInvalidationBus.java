@@ -0,0 +1,162 @@
+package com.mashreq.booking.cluster;
+
+import com.mashreq.booking.entity.BookingChangeLogEntity;
+import com.mashreq.booking.repo.BookingChangeLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Cluster bus over the shared database. Changes are written to the BOOKING_CHANGE_LOG table and every node polls the
+ * rows written since its last poll, so no broker is needed besides the database the nodes share.
+ * <p>
+ * The availability changes are written in the transaction of the booking, as an outbox: they commit with the booking or
+ * not at all. Catalog changes are written once committed, a change lost by a stopping node is picked up by the periodic
+ * catalog refresh of the other nodes.
+ * <p>
+ * The ids of the rows are given at insert time, a row can therefore commit after a row with a higher id was already
+ * read, a long import chunk or batch booking commits its rows well after the bookings made meanwhile. The ids skipped
+ * by a poll are kept as gaps and read again on each poll until their row shows up, or until the gap timeout has passed
+ * for the ids of rolled back transactions, which never show up.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@ConditionalOnExpression("${booking.cluster.enabled} and '${booking.cluster.bus}' == 'change-log'")
+@Slf4j
+public class ChangeLogInvalidationBus implements ClusterInvalidationBus {
+
+    private static final int POLL_SIZE = 500;
+    private static final int MAX_GAPS = 10_000;
+
+    private final BookingChangeLogRepository bookingChangeLogRepository;
+    private final Clock clock;
+    private final Duration retention;
+    private final Duration gapTimeout;
+
+    private final List<Consumer<List<ClusterChange>>> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * The ids skipped below the last id read, with the time they were first skipped
+     */
+    private final NavigableMap<Long, Instant> gaps = new TreeMap<>();
+    private long lastId = -1L;
+
+    public ChangeLogInvalidationBus(BookingChangeLogRepository bookingChangeLogRepository, Clock clock,
+                                    @Value("${booking.cluster.change-log-retention}") Duration retention,
+                                    @Value("${booking.cluster.change-log-gap-timeout}") Duration gapTimeout) {
+        this.bookingChangeLogRepository = bookingChangeLogRepository;
+        this.clock = clock;
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+    }
+
+    @Override
+    public void publish(ClusterChange change) {
+        if (change.isCatalogChange()) {
+            bookingChangeLogRepository.save(this.toEntity(change));
+        }
+        // The availability changes were written with the booking
+    }
+
+    @Override
+    public void publishInTransaction(List<ClusterChange> changes) {
+        bookingChangeLogRepository.saveAll(changes.stream().map(this::toEntity).toList());
+    }
+
+    @Override
+    public void subscribe(Consumer<List<ClusterChange>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Hand the changes of the cluster written since the last call to the listeners
+     */
+    @Scheduled(fixedDelayString = "${booking.cluster.poll-interval}")
+    public void sync() {
+        this.poll();
+    }
+
+    /**
+     * Delete the changes every node has read long ago
+     */
+    @Scheduled(initialDelayString = "${booking.cluster.change-log-retention}", fixedDelayString = "${booking.cluster.change-log-retention}")
+    public void purge() {
+        int purged = bookingChangeLogRepository.deleteCreatedBefore(LocalDateTime.now(clock).minus(retention));
+        log.debug("Purged {} rows of the booking change log", purged);
+    }
+
+    private BookingChangeLogEntity toEntity(ClusterChange change) {
+        BookingChangeLogEntity bookingChangeLogEntity = new BookingChangeLogEntity();
+        bookingChangeLogEntity.setNodeId(change.nodeId());
+        bookingChangeLogEntity.setBookingDate(change.bookingDate());
+        bookingChangeLogEntity.setRoomName(change.roomName());
+        bookingChangeLogEntity.setMaskLow(change.maskLow());
+        bookingChangeLogEntity.setMaskHigh(change.maskHigh());
+        bookingChangeLogEntity.setReleasedReference(change.releasedReference());
+        bookingChangeLogEntity.setCreatedAt(LocalDateTime.now(clock));
+        return bookingChangeLogEntity;
+    }
+
+    private void poll() {
+        if (lastId < 0) {
+            // A starting node reads its state from the bookings, only the changes made from now on matter
+            lastId = bookingChangeLogRepository.findMaxId();
+            return;
+        }
+        this.pollGaps();
+        List<BookingChangeLogEntity> rows;
+        do {
+            rows = bookingChangeLogRepository.findByIdGreaterThanOrderById(lastId, PageRequest.of(0, POLL_SIZE));
+            Instant now = clock.instant();
+            for (BookingChangeLogEntity row : rows) {
+                if (row.getId() - lastId - 1 > MAX_GAPS - gaps.size()) {
+                    log.warn("More than {} booking change log ids are not committed yet, the ones after are not waited for", MAX_GAPS);
+                }
+                for (long id = lastId + 1; id < row.getId() && gaps.size() < MAX_GAPS; id++) {
+                    gaps.put(id, now);
+                }
+                lastId = row.getId();
+            }
+            this.deliver(rows);
+        } while (rows.size() == POLL_SIZE);
+    }
+
+    /**
+     * Read the rows of the skipped ids that have committed since, and give up on the ids older than the gap timeout
+     */
+    private void pollGaps() {
+        Instant expired = clock.instant().minus(gapTimeout);
+        if (gaps.values().removeIf(skipped -> skipped.isBefore(expired))) {
+            log.debug("Gave up on the booking change log ids not committed within {}", gapTimeout);
+        }
+        List<Long> ids = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < ids.size(); from += POLL_SIZE) {
+            List<BookingChangeLogEntity> rows = bookingChangeLogRepository.findByIdInOrderById(ids.subList(from, Math.min(from + POLL_SIZE, ids.size())));
+            rows.forEach(row -> gaps.remove(row.getId()));
+            this.deliver(rows);
+        }
+    }
+
+    private void deliver(List<BookingChangeLogEntity> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<ClusterChange> changes = rows.stream().map(row -> new ClusterChange(row.getNodeId(), row.getBookingDate(), row.getRoomName(),
+                row.getMaskLow(), row.getMaskHigh(), row.getReleasedReference())).toList();
+        listeners.forEach(listener -> listener.accept(changes));
+    }
+}
@@ -0,0 +1,64 @@
+package com.mashreq.booking.cluster;
+
+import java.time.LocalDate;
+
+/**
+ * A change made on one node that the other nodes must see. An availability change names the booked or released slots
+ * of a room, a catalog change has no day and no room. Slots released by a cancelled or moved booking name the booking,
+ * so the other nodes stop replaying it to the retries of its idempotency keys.
+ *
+ * @param nodeId            the id of the node that made the change
+ * @param bookingDate       the booking day, null for a catalog change
+ * @param roomName          the room name, null for a catalog change
+ * @param maskLow           the low word mask of the changed slots
+ * @param maskHigh          the high word mask of the changed slots
+ * @param releasedReference the reference of the booking that released the slots, null otherwise
+ * @author janv@mashreq.com
+ */
+public record ClusterChange(String nodeId, LocalDate bookingDate, String roomName, long maskLow, long maskHigh,
+                            String releasedReference) {
+
+    /**
+     * Create the change of the slots of a room
+     *
+     * @param nodeId      the id of the node that made the change
+     * @param bookingDate the booking day
+     * @param roomName    the room name
+     * @param maskLow     the low word mask of the changed slots
+     * @param maskHigh    the high word mask of the changed slots
+     * @return the cluster change
+     */
+    public static ClusterChange availability(String nodeId, LocalDate bookingDate, String roomName, long maskLow, long maskHigh) {
+        return new ClusterChange(nodeId, bookingDate, roomName, maskLow, maskHigh, null);
+    }
+
+    /**
+     * Create the change of the slots a cancelled or moved booking released
+     *
+     * @param nodeId           the id of the node that made the change
+     * @param bookingDate      the booking day
+     * @param roomName         the room name
+     * @param maskLow          the low word mask of the released slots
+     * @param maskHigh         the high word mask of the released slots
+     * @param bookingReference the reference of the booking
+     * @return the cluster change
+     */
+    public static ClusterChange released(String nodeId, LocalDate bookingDate, String roomName, long maskLow, long maskHigh,
+                                         String bookingReference) {
+        return new ClusterChange(nodeId, bookingDate, roomName, maskLow, maskHigh, bookingReference);
+    }
+
+    /**
+     * Create the change of the conference rooms or the maintenance windows
+     *
+     * @param nodeId the id of the node that made the change
+     * @return the cluster change
+     */
+    public static ClusterChange catalog(String nodeId) {
+        return new ClusterChange(nodeId, null, null, 0L, 0L, null);
+    }
+
+    public boolean isCatalogChange() {
+        return bookingDate == null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.mashreq.booking.cluster;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries the changes of each node to every node of the cluster, the node that made a change included
+ *
+ * @author janv@mashreq.com
+ */
+public interface ClusterInvalidationBus {
+
+    /**
+     * Send a committed change to the cluster, without waiting for the other nodes
+     *
+     * @param change the cluster change
+     */
+    void publish(ClusterChange change);
+
+    /**
+     * Write the availability changes of a booking in the transaction that books it. A bus over the shared database
+     * sends them once the transaction commits and skips the availability changes published afterwards, so a node
+     * stopping right after the commit does not lose them. Other buses only send what is published.
+     *
+     * @param changes the availability changes of the transaction
+     */
+    default void publishInTransaction(List<ClusterChange> changes) {
+    }
+
+    /**
+     * Receive the changes of the cluster, in batches and in the order they were made
+     *
+     * @param listener the listener of the changes
+     */
+    void subscribe(Consumer<List<ClusterChange>> listener);
+}
@@ -0,0 +1,171 @@
+package com.mashreq.booking.cluster;
+
+import com.mashreq.booking.availability.CatalogChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.idempotency.IdempotencyCache;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the in-memory state of this node coherent with the other nodes of the cluster.
+ * <p>
+ * The changes of this node are published on the {@link ClusterInvalidationBus}, the rows written by the
+ * {@link BookingOverlapGuard} in the transaction of the booking and the events once committed. The changes of the other
+ * nodes refresh the changed slots of each room from the database, coalesced per room and day, and a catalog change
+ * reloads the catalog. They are then published as local events, so the availability stream and the waitlist of this
+ * node see them too. Reads keep being served from memory, the database is only read for the slots that changed. A
+ * booking cancelled or moved on another node is evicted from the idempotency cache of this node once its change is
+ * applied, so the retries of its keys read it again.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@ConditionalOnProperty(name = "booking.cluster.enabled", havingValue = "true")
+@Slf4j
+public class ClusterSync {
+
+    private final ClusterInvalidationBus clusterInvalidationBus;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdempotencyCache idempotencyCache;
+    @Getter
+    private final String nodeId;
+
+    /**
+     * Set while the changes of other nodes are published locally, so they are not sent back to the cluster
+     */
+    private final ThreadLocal<Boolean> applying = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public ClusterSync(ClusterInvalidationBus clusterInvalidationBus, RoomAvailabilityEngine roomAvailabilityEngine,
+                       ApplicationEventPublisher eventPublisher, BookingOverlapGuard bookingOverlapGuard,
+                       IdempotencyCache idempotencyCache, @Value("${booking.cluster.node-id}") String nodeId) {
+        this.clusterInvalidationBus = clusterInvalidationBus;
+        this.roomAvailabilityEngine = roomAvailabilityEngine;
+        this.eventPublisher = eventPublisher;
+        this.idempotencyCache = idempotencyCache;
+        this.nodeId = nodeId;
+        clusterInvalidationBus.subscribe(this::apply);
+        bookingOverlapGuard.setChangeRecorder(this::record);
+        log.info("Cluster node {} started", nodeId);
+    }
+
+    /**
+     * Send the committed slot changes of this node to the cluster
+     *
+     * @param event the room availability changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(RoomAvailabilityChangedEvent event) {
+        if (!applying.get()) {
+            clusterInvalidationBus.publish(ClusterChange.availability(nodeId, event.bookingDate(), event.roomName(), event.maskLow(), event.maskHigh()));
+        }
+    }
+
+    /**
+     * Write the slots of the rows a booking writes or releases in its transaction
+     *
+     * @param written  the booking rows written
+     * @param released the booking rows deleted or moved away from their slots
+     */
+    void record(List<BookedRoomEntity> written, List<BookedRoomEntity> released) {
+        if (written.isEmpty() && released.isEmpty()) {
+            return;
+        }
+        List<ClusterChange> changes = new ArrayList<>(written.size() + released.size());
+        for (BookedRoomEntity row : written) {
+            int startSlot = SlotBitmap.slotOf(row.getStartTime());
+            int endSlot = SlotBitmap.slotCeil(row.getEndTime());
+            changes.add(ClusterChange.availability(nodeId, row.getBookingDate(), row.getRoomName(),
+                    SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot)));
+        }
+        for (BookedRoomEntity row : released) {
+            int startSlot = SlotBitmap.slotOf(row.getStartTime());
+            int endSlot = SlotBitmap.slotCeil(row.getEndTime());
+            changes.add(ClusterChange.released(nodeId, row.getBookingDate(), row.getRoomName(),
+                    SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot), row.getBookingReference()));
+        }
+        clusterInvalidationBus.publishInTransaction(changes);
+    }
+
+    /**
+     * Send the committed catalog changes of this node to the cluster
+     *
+     * @param event the catalog changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!applying.get()) {
+            clusterInvalidationBus.publish(ClusterChange.catalog(nodeId));
+        }
+    }
+
+    /**
+     * Apply the changes of the other nodes
+     *
+     * @param changes the cluster changes, in the order they were made
+     */
+    void apply(List<ClusterChange> changes) {
+        boolean catalogChanged = false;
+        Map<RoomDay, long[]> changedSlots = new LinkedHashMap<>();
+        Set<String> releasedReferences = new LinkedHashSet<>();
+        for (ClusterChange change : changes) {
+            if (nodeId.equals(change.nodeId())) {
+                continue;
+            }
+            if (change.isCatalogChange()) {
+                catalogChanged = true;
+            } else {
+                long[] masks = changedSlots.computeIfAbsent(new RoomDay(change.bookingDate(), change.roomName()), key -> new long[2]);
+                masks[0] |= change.maskLow();
+                masks[1] |= change.maskHigh();
+                if (change.releasedReference() != null) {
+                    releasedReferences.add(change.releasedReference());
+                }
+            }
+        }
+        if (!catalogChanged && changedSlots.isEmpty()) {
+            return;
+        }
+
+        applying.set(Boolean.TRUE);
+        try {
+            if (catalogChanged) {
+                log.info("Catalog changed on another node, reloading the room catalog");
+                eventPublisher.publishEvent(new CatalogChangedEvent(this));
+            }
+            changedSlots.forEach((roomDay, masks) -> {
+                roomAvailabilityEngine.refresh(roomDay.bookingDate(), roomDay.roomName(), masks[0], masks[1]);
+                eventPublisher.publishEvent(new RoomAvailabilityChangedEvent(roomDay.bookingDate(), roomDay.roomName(), masks[0], masks[1]));
+            });
+            releasedReferences.forEach(idempotencyCache::evict);
+            log.debug("Applied {} room changes of other nodes", changedSlots.size());
+        } finally {
+            applying.remove();
+        }
+    }
+
+    /**
+     * The slots of a room on one day
+     *
+     * @param bookingDate the booking day
+     * @param roomName    the room name
+     */
+    private record RoomDay(LocalDate bookingDate, String roomName) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.mashreq.booking.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for the cluster bus within a single process, each change is handed to the listeners as soon as it is
+ * published. Nodes sharing one instance see each other's changes, which is enough for tests and local runs.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@ConditionalOnExpression("${booking.cluster.enabled} and '${booking.cluster.bus}' == 'in-process'")
+public class InProcessInvalidationBus implements ClusterInvalidationBus {
+
+    private final List<Consumer<List<ClusterChange>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ClusterChange change) {
+        List<ClusterChange> changes = List.of(change);
+        listeners.forEach(listener -> listener.accept(changes));
+    }
+
+    @Override
+    public void subscribe(Consumer<List<ClusterChange>> listener) {
+        listeners.add(listener);
+    }
+}
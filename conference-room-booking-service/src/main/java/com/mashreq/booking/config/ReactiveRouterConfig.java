@@ -0,0 +1,45 @@
+package com.mashreq.booking.config;
+
+import com.mashreq.booking.controller.ReactiveBookingHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Routes of the booking API when the application runs with the {@code reactive} profile,
+ * which sets {@code spring.main.web-application-type=reactive}.
+ *
+ * @author janv@mashreq.com
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRouterConfig {
+
+    /**
+     * Booking routes, on the same paths as the servlet controller
+     *
+     * @param reactiveBookingHandler the reactive booking handler
+     * @return the router function
+     */
+    @Bean
+    public RouterFunction<ServerResponse> bookingRoutes(ReactiveBookingHandler reactiveBookingHandler) {
+        return RouterFunctions.route()
+                .path("/v1/conference/room", builder -> builder
+                        .POST("/book/batch", reactiveBookingHandler::bookRooms)
+                        .POST("/book", reactiveBookingHandler::bookRoom)
+                        .DELETE("/book/{bookingReference}", reactiveBookingHandler::cancelBooking)
+                        .PUT("/book/{bookingReference}", reactiveBookingHandler::rescheduleBooking)
+                        .POST("/view", reactiveBookingHandler::viewAvailableRooms)
+                        .POST("/availability", reactiveBookingHandler::checkAvailability)
+                        .POST("/waitlist", reactiveBookingHandler::joinWaitlist)
+                        .GET("/waitlist/{ticketId}", reactiveBookingHandler::getWaitlistTicket)
+                        .DELETE("/waitlist/{ticketId}", reactiveBookingHandler::leaveWaitlist)
+                        .GET("/stream", reactiveBookingHandler::streamAvailability)
+                        .GET("/export/{table}", reactiveBookingHandler::exportRows)
+                        .POST("/import/{table}", reactiveBookingHandler::importRows))
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.mashreq.booking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @author janv@mashreq.com
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -10,6 +10,9 @@ public class AppConstants {
     }
 
     public static final String TIME_RANGE_FORMATTER = "%s - %s";
-    public static final String DASH_SPLITTER = "-";
     public static final String DEFAULT_USER_NAME = "Guest";
+    public static final String BATCH_ITEM_ERROR_FORMATTER = "Booking request %d: %s";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final int IDEMPOTENCY_KEY_MAX_LENGTH = 64;
+    public static final String EXPORT_FETCH_SIZE = "1000";
 }
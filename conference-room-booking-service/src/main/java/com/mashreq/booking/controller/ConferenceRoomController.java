@@ -1,39 +1,77 @@
 package com.mashreq.booking.controller;
 
+import com.mashreq.booking.constants.AppConstants;
+import com.mashreq.booking.enums.TransferFormat;
+import com.mashreq.booking.enums.TransferTable;
+import com.mashreq.booking.enums.ViewFormat;
+import com.mashreq.booking.model.AvailabilityResponse;
+import com.mashreq.booking.model.BatchBookingRequest;
+import com.mashreq.booking.model.BatchBookingResponse;
 import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.BookingResponse;
+import com.mashreq.booking.model.ImportResponse;
 import com.mashreq.booking.model.ViewRoomRequest;
+import com.mashreq.booking.model.WaitlistResponse;
 import com.mashreq.booking.service.BookingService;
+import com.mashreq.booking.stream.AvailabilityStream;
+import com.mashreq.booking.stream.AvailabilitySubscriber;
+import com.mashreq.booking.transfer.BulkTransfer;
 import com.mashreq.booking.util.CommonUtil;
+import com.mashreq.booking.waitlist.Waitlist;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.awt.print.Book;
+import java.io.InputStream;
+import java.time.LocalDate;
 
 
 /**
  * @author janv@mashreq.com
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Validated
 @Slf4j
 @RequestMapping("/v1/conference/room")
 public class ConferenceRoomController {
 
     private final BookingService bookingService;
+    private final AvailabilityStream availabilityStream;
+    private final Waitlist waitlist;
+    private final BulkTransfer bulkTransfer;
 
-    public ConferenceRoomController(BookingService bookingService) {
+    public ConferenceRoomController(BookingService bookingService, AvailabilityStream availabilityStream, Waitlist waitlist,
+                                    BulkTransfer bulkTransfer) {
         this.bookingService = bookingService;
+        this.availabilityStream = availabilityStream;
+        this.waitlist = waitlist;
+        this.bulkTransfer = bulkTransfer;
     }
 
     @Operation(summary = "Book conference room by time range and capacity")
@@ -43,9 +81,81 @@ public class ConferenceRoomController {
             @ApiResponse(responseCode = "400", description = "Invalid request received",
                     content = @Content)})
     @PostMapping("/book")
-    public ResponseEntity<Object> bookRoom(@Valid @RequestBody BookingRequest bookingRequest) {
+    public ResponseEntity<Object> bookRoom(@Valid @RequestBody BookingRequest bookingRequest,
+                                           @Parameter(description = "Key of the client request, a retry with the same key gets the original booking")
+                                           @RequestHeader(name = AppConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Book conference room request {}", bookingRequest);
-        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bookingService.bookConferenceRoom(bookingRequest)));
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bookingService.bookConferenceRoom(bookingRequest, idempotencyKey)));
+    }
+
+    @Operation(summary = "Cancel a conference room booking by its booking reference")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully cancelled the booking",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BookingResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request received",
+                    content = @Content)})
+    @DeleteMapping("/book/{bookingReference}")
+    public ResponseEntity<Object> cancelBooking(@PathVariable("bookingReference") String bookingReference) {
+        log.info("Cancel booking request {}", bookingReference);
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bookingService.cancelBooking(bookingReference)));
+    }
+
+    @Operation(summary = "Move a conference room booking to another time range, day or capacity by its booking reference")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully moved the booking",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BookingResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request received",
+                    content = @Content)})
+    @PutMapping("/book/{bookingReference}")
+    public ResponseEntity<Object> rescheduleBooking(@PathVariable("bookingReference") String bookingReference,
+                                                    @Valid @RequestBody BookingRequest bookingRequest) {
+        log.info("Reschedule booking {} request {}", bookingReference, bookingRequest);
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bookingService.rescheduleBooking(bookingReference, bookingRequest)));
+    }
+
+    @Operation(summary = "Book conference rooms for a batch of requests, all of them or none")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully booked all conference rooms",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BatchBookingResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request received",
+                    content = @Content)})
+    @PostMapping("/book/batch")
+    public ResponseEntity<Object> bookRooms(@Valid @RequestBody BatchBookingRequest batchBookingRequest) {
+        log.info("Book conference rooms batch request of {} bookings", batchBookingRequest.getBookings().size());
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bookingService.bookConferenceRooms(batchBookingRequest)));
+    }
+
+    @Operation(summary = "Book conference room, or wait on the waitlist until a room frees up when the time range is fully booked")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully booked or queued the request",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = WaitlistResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request received",
+                    content = @Content)})
+    @PostMapping("/waitlist")
+    public ResponseEntity<Object> joinWaitlist(@Valid @RequestBody BookingRequest bookingRequest,
+                                               @Parameter(description = "Priority of the ticket, from 0 up to the configured max priority, higher is booked first")
+                                               @RequestParam(name = "priority", defaultValue = "0") int priority) {
+        log.info("Waitlist request {} with priority {}", bookingRequest, priority);
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(waitlist.join(bookingRequest, priority)));
+    }
+
+    @Operation(summary = "Get the status of a waitlist ticket, along with its booking once a room was booked")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully fetched the waitlist ticket",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = WaitlistResponse.class))})})
+    @GetMapping("/waitlist/{ticketId}")
+    public ResponseEntity<Object> getWaitlistTicket(@PathVariable("ticketId") String ticketId) {
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(waitlist.getTicket(ticketId)));
+    }
+
+    @Operation(summary = "Leave the waitlist")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully left the waitlist",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = WaitlistResponse.class))})})
+    @DeleteMapping("/waitlist/{ticketId}")
+    public ResponseEntity<Object> leaveWaitlist(@PathVariable("ticketId") String ticketId) {
+        log.info("Leave waitlist request {}", ticketId);
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(waitlist.leave(ticketId)));
     }
 
     @Operation(summary = "View available conference rooms by time range")
@@ -55,8 +165,81 @@ public class ConferenceRoomController {
             @ApiResponse(responseCode = "400", description = "Invalid request received",
                     content = @Content)})
     @PostMapping("/view")
-    public ResponseEntity<Object> viewAvailableRooms(@Valid @RequestBody ViewRoomRequest viewRoomRequest) {
-        log.info("View available rooms request {}", viewRoomRequest);
-        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bookingService.findAvailableRooms(viewRoomRequest)));
+    public ResponseEntity<Object> viewAvailableRooms(@Valid @RequestBody ViewRoomRequest viewRoomRequest,
+                                                     @Parameter(description = "SLOTS, RANGES or BITMAP")
+                                                     @RequestParam(name = "format", defaultValue = "SLOTS") ViewFormat viewFormat) {
+        log.info("View available rooms request {} in {} format", viewRoomRequest, viewFormat);
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bookingService.findAvailableRooms(viewRoomRequest, viewFormat)));
+    }
+
+    @Operation(summary = "Check if a conference room for the persons is free for the whole time range")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully checked the availability",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = AvailabilityResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request received",
+                    content = @Content)})
+    @PostMapping("/availability")
+    public ResponseEntity<Object> checkAvailability(@Valid @RequestBody BookingRequest bookingRequest) {
+        log.debug("Check availability request {}", bookingRequest);
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bookingService.checkAvailability(bookingRequest)));
+    }
+
+    @Operation(summary = "Stream the availability changes of the conference rooms as server-sent events")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "availability events with the booked and free ranges of a room, "
+            + "resync events when the client should view the rooms again",
+            content = {@Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)})})
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@Parameter(description = "The day to follow, all days if not given")
+                                         @RequestParam(name = "bookingDate", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bookingDate) {
+        log.info("Availability stream request for {}", bookingDate);
+        SseEmitter emitter = new SseEmitter(availabilityStream.getTimeout().toMillis());
+        AvailabilitySubscriber subscriber = availabilityStream.subscribe(bookingDate, emitter);
+        emitter.onCompletion(() -> availabilityStream.unsubscribe(subscriber));
+        emitter.onTimeout(() -> availabilityStream.unsubscribe(subscriber));
+        emitter.onError(e -> availabilityStream.unsubscribe(subscriber));
+        return emitter;
+    }
+
+    @Operation(summary = "Export the rooms, maintenance windows or bookings, streamed as they are read from the database")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "The rows of the table, one per line",
+            content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Invalid request received",
+                    content = @Content)})
+    @GetMapping("/export/{table}")
+    public ResponseEntity<StreamingResponseBody> exportRows(@Parameter(description = "rooms, maintenance or bookings")
+                                                            @PathVariable("table") String table,
+                                                            @Parameter(description = "NDJSON or CSV")
+                                                            @RequestParam(name = "format", defaultValue = "NDJSON") TransferFormat format,
+                                                            @Parameter(description = "The first day of the exported bookings")
+                                                            @RequestParam(name = "from", required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @Parameter(description = "The last day of the exported bookings")
+                                                            @RequestParam(name = "to", required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        TransferTable transferTable = TransferTable.fromPath(table);
+        log.info("Export {} request in {} format", transferTable.getPath(), format);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(transferTable.getPath() + "." + format.getExtension()).build().toString())
+                .body(outputStream -> bulkTransfer.export(transferTable, format, from, to, outputStream));
+    }
+
+    @Operation(summary = "Import rooms, maintenance windows or bookings, read and inserted in chunks")
+    @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "Successfully imported the valid rows",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ImportResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request received",
+                    content = @Content)})
+    @PostMapping("/import/{table}")
+    public ResponseEntity<Object> importRows(@Parameter(description = "rooms, maintenance or bookings")
+                                             @PathVariable("table") String table,
+                                             @Parameter(description = "NDJSON or CSV")
+                                             @RequestParam(name = "format", defaultValue = "NDJSON") TransferFormat format,
+                                             InputStream inputStream) {
+        TransferTable transferTable = TransferTable.fromPath(table);
+        log.info("Import {} request in {} format", transferTable.getPath(), format);
+        return ResponseEntity.ok(CommonUtil.buildSuccessResponse(bulkTransfer.importRows(transferTable, format, inputStream)));
     }
 }
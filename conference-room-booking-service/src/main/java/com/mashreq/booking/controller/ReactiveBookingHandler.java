@@ -0,0 +1,477 @@
+package com.mashreq.booking.controller;
+
+import com.mashreq.booking.constants.AppConstants;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.ResponseStatus;
+import com.mashreq.booking.enums.TransferFormat;
+import com.mashreq.booking.enums.TransferTable;
+import com.mashreq.booking.enums.ViewFormat;
+import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.metrics.BookingMetrics;
+import com.mashreq.booking.metrics.QueryCountInspector;
+import com.mashreq.booking.model.BatchBookingRequest;
+import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.ImportResponse;
+import com.mashreq.booking.model.Response;
+import com.mashreq.booking.model.ViewRoomRequest;
+import com.mashreq.booking.service.BookingService;
+import com.mashreq.booking.stream.AvailabilitySink;
+import com.mashreq.booking.stream.AvailabilityStream;
+import com.mashreq.booking.stream.AvailabilitySubscriber;
+import com.mashreq.booking.transfer.BulkTransfer;
+import com.mashreq.booking.util.CommonUtil;
+import com.mashreq.booking.waitlist.Waitlist;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+/**
+ * WebFlux handlers of the booking API, served when the application runs as a reactive web application.
+ * The requests and responses are the same as {@link ConferenceRoomController}.
+ * <p>
+ * Views are answered from the in-memory availability on the request thread once the time range is loaded, so waiting
+ * pollers hold no thread. Bookings and first reads of a time range go through JPA and run on the bounded elastic scheduler.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveBookingHandler {
+
+    private static final String FORMAT_PARAMETER = "format";
+    private static final String BOOKING_DATE_PARAMETER = "bookingDate";
+    private static final String BOOKING_REFERENCE_VARIABLE = "bookingReference";
+    private static final String TICKET_ID_VARIABLE = "ticketId";
+    private static final String PRIORITY_PARAMETER = "priority";
+    private static final String TABLE_VARIABLE = "table";
+    private static final String FROM_PARAMETER = "from";
+    private static final String TO_PARAMETER = "to";
+    private static final int PIPE_SIZE = 64 * 1024;
+
+    private final BookingService bookingService;
+    private final Validator validator;
+    private final AvailabilityStream availabilityStream;
+    private final BookingMetrics bookingMetrics;
+    private final Waitlist waitlist;
+    private final BulkTransfer bulkTransfer;
+
+    /**
+     * Book conference room by time range and capacity
+     *
+     * @param request the server request
+     * @return the booking response
+     */
+    public Mono<ServerResponse> bookRoom(ServerRequest request) {
+        return this.readBody(request, BookingRequest.class)
+                .doOnNext(bookingRequest -> log.info("Book conference room request {}", bookingRequest))
+                .flatMap(bookingRequest -> this.blocking(request, () -> bookingService.bookConferenceRoom(bookingRequest,
+                        request.headers().firstHeader(AppConstants.IDEMPOTENCY_KEY_HEADER))))
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Cancel a conference room booking by its booking reference
+     *
+     * @param request the server request
+     * @return the cancelled booking
+     */
+    public Mono<ServerResponse> cancelBooking(ServerRequest request) {
+        String bookingReference = request.pathVariable(BOOKING_REFERENCE_VARIABLE);
+        log.info("Cancel booking request {}", bookingReference);
+        return this.blocking(request, () -> bookingService.cancelBooking(bookingReference))
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Move a conference room booking to another time range, day or capacity by its booking reference
+     *
+     * @param request the server request
+     * @return the moved booking
+     */
+    public Mono<ServerResponse> rescheduleBooking(ServerRequest request) {
+        String bookingReference = request.pathVariable(BOOKING_REFERENCE_VARIABLE);
+        return this.readBody(request, BookingRequest.class)
+                .doOnNext(bookingRequest -> log.info("Reschedule booking {} request {}", bookingReference, bookingRequest))
+                .flatMap(bookingRequest -> this.blocking(request, () -> bookingService.rescheduleBooking(bookingReference, bookingRequest)))
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Book conference rooms for a batch of requests, all of them or none
+     *
+     * @param request the server request
+     * @return the batch booking response
+     */
+    public Mono<ServerResponse> bookRooms(ServerRequest request) {
+        return this.readBody(request, BatchBookingRequest.class)
+                .doOnNext(batchBookingRequest -> log.info("Book conference rooms batch request of {} bookings", batchBookingRequest.getBookings().size()))
+                .flatMap(batchBookingRequest -> this.blocking(request, () -> bookingService.bookConferenceRooms(batchBookingRequest)))
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Book conference room, or wait on the waitlist until a room frees up when the time range is fully booked
+     *
+     * @param request the server request
+     * @return the waitlist response
+     */
+    public Mono<ServerResponse> joinWaitlist(ServerRequest request) {
+        return this.readBody(request, BookingRequest.class)
+                .flatMap(bookingRequest -> {
+                    int priority = this.priority(request);
+                    log.info("Waitlist request {} with priority {}", bookingRequest, priority);
+                    return this.blocking(request, () -> waitlist.join(bookingRequest, priority));
+                })
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Get the status of a waitlist ticket, answered from memory
+     *
+     * @param request the server request
+     * @return the waitlist response
+     */
+    public Mono<ServerResponse> getWaitlistTicket(ServerRequest request) {
+        return Mono.fromCallable(() -> waitlist.getTicket(request.pathVariable(TICKET_ID_VARIABLE)))
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Leave the waitlist, answered from memory
+     *
+     * @param request the server request
+     * @return the waitlist response
+     */
+    public Mono<ServerResponse> leaveWaitlist(ServerRequest request) {
+        String ticketId = request.pathVariable(TICKET_ID_VARIABLE);
+        log.info("Leave waitlist request {}", ticketId);
+        return Mono.fromCallable(() -> waitlist.leave(ticketId))
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * View available conference rooms by time range
+     *
+     * @param request the server request
+     * @return the view room response
+     */
+    public Mono<ServerResponse> viewAvailableRooms(ServerRequest request) {
+        return Mono.fromCallable(() -> this.viewFormat(request))
+                .zipWith(this.readBody(request, ViewRoomRequest.class))
+                .flatMap(formatAndRequest -> {
+                    ViewFormat viewFormat = formatAndRequest.getT1();
+                    ViewRoomRequest viewRoomRequest = formatAndRequest.getT2();
+                    log.debug("View available rooms request {} in {} format", viewRoomRequest, viewFormat);
+                    Callable<Object> view = () -> bookingService.findAvailableRooms(viewRoomRequest, viewFormat);
+                    return this.inMemoryOrBlocking(request, viewRoomRequest.getBookingDate(), viewRoomRequest.getStartTime(),
+                            viewRoomRequest.getEndTime(), view);
+                })
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Check if a conference room for the persons is free for the whole time range
+     *
+     * @param request the server request
+     * @return the availability response
+     */
+    public Mono<ServerResponse> checkAvailability(ServerRequest request) {
+        return this.readBody(request, BookingRequest.class)
+                .flatMap(bookingRequest -> {
+                    log.debug("Check availability request {}", bookingRequest);
+                    return this.inMemoryOrBlocking(request, bookingRequest.getBookingDate(), bookingRequest.getStartTime(),
+                            bookingRequest.getEndTime(), () -> bookingService.checkAvailability(bookingRequest));
+                })
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Stream the availability changes of the conference rooms as server-sent events.
+     * Events are only taken from the subscriber buffer as the client requests them, so a slow client gets coalesced changes.
+     *
+     * @param request the server request
+     * @return the event stream response
+     */
+    public Mono<ServerResponse> streamAvailability(ServerRequest request) {
+        return Mono.fromCallable(() -> this.bookingDate(request))
+                .flatMap(requestedDate -> {
+                    LocalDate bookingDate = requestedDate.orElse(null);
+                    log.info("Availability stream request for {}", bookingDate);
+                    Flux<ServerSentEvent<Object>> events = Flux.<ServerSentEvent<Object>>create(sink -> {
+                        AvailabilitySubscriber subscriber = availabilityStream.subscribe(bookingDate, this.availabilitySink(sink));
+                        sink.onRequest(requested -> availabilityStream.resume(subscriber));
+                        sink.onDispose(() -> availabilityStream.unsubscribe(subscriber));
+                    }).take(availabilityStream.getTimeout());
+                    return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(BodyInserters.fromServerSentEvents(events));
+                })
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Export the rooms, maintenance windows or bookings. The export runs on the bounded elastic scheduler and writes
+     * into a pipe the response reads from as the client takes the data, a slow client holds back the export rather
+     * than buffering it.
+     *
+     * @param request the server request
+     * @return the streamed rows
+     */
+    public Mono<ServerResponse> exportRows(ServerRequest request) {
+        return Mono.fromCallable(() -> TransferTable.fromPath(request.pathVariable(TABLE_VARIABLE)))
+                .flatMap(table -> {
+                    TransferFormat format = this.transferFormat(request);
+                    LocalDate from = this.dateParameter(request, FROM_PARAMETER).orElse(null);
+                    LocalDate to = this.dateParameter(request, TO_PARAMETER).orElse(null);
+                    log.info("Export {} request in {} format", table.getPath(), format);
+                    PipedOutputStream outputStream = new PipedOutputStream();
+                    PipedInputStream inputStream = this.pipe(outputStream);
+                    Mono<DataBuffer> export = Mono.<DataBuffer>fromCallable(() -> {
+                        try (outputStream) {
+                            bulkTransfer.export(table, format, from, to, outputStream);
+                        }
+                        return null;
+                    }).subscribeOn(Schedulers.boundedElastic());
+                    // A failed export fails the response rather than ending it as if all the rows were sent
+                    Flux<DataBuffer> rows = DataBufferUtils.readInputStream(() -> inputStream, DefaultDataBufferFactory.sharedInstance, PIPE_SIZE)
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .mergeWith(export);
+                    return ServerResponse.ok().contentType(format.getMediaType())
+                            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                    .filename(table.getPath() + "." + format.getExtension()).build().toString())
+                            .body(BodyInserters.fromDataBuffers(rows));
+                })
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    /**
+     * Import rooms, maintenance windows or bookings. The request body is written into a pipe the import reads from on
+     * the bounded elastic scheduler, so the body is never held in memory.
+     *
+     * @param request the server request
+     * @return the import response
+     */
+    public Mono<ServerResponse> importRows(ServerRequest request) {
+        return Mono.fromCallable(() -> TransferTable.fromPath(request.pathVariable(TABLE_VARIABLE)))
+                .flatMap(table -> {
+                    TransferFormat format = this.transferFormat(request);
+                    log.info("Import {} request in {} format", table.getPath(), format);
+                    PipedOutputStream outputStream = new PipedOutputStream();
+                    PipedInputStream inputStream = this.pipe(outputStream);
+                    Mono<Boolean> upload = DataBufferUtils.write(request.bodyToFlux(DataBuffer.class).publishOn(Schedulers.boundedElastic()), outputStream)
+                            .doOnNext(DataBufferUtils::release)
+                            // An import that stopped reading closed the pipe, its response tells why
+                            .onErrorResume(IOException.class, e -> Mono.empty())
+                            .doFinally(signal -> this.closeQuietly(outputStream))
+                            .then(Mono.just(Boolean.TRUE));
+                    Mono<ImportResponse> imported = this.blocking(request, () -> {
+                        try (inputStream) {
+                            return bulkTransfer.importRows(table, format, inputStream);
+                        }
+                    });
+                    return Mono.zip(imported, upload, (importResponse, uploaded) -> importResponse);
+                })
+                .flatMap(this::success)
+                .onErrorResume(exception -> this.error(exception, request));
+    }
+
+    private AvailabilitySink availabilitySink(FluxSink<ServerSentEvent<Object>> sink) {
+        return new AvailabilitySink() {
+            @Override
+            public boolean isReady() {
+                return !sink.isCancelled() && sink.requestedFromDownstream() > 0;
+            }
+
+            @Override
+            public void send(String eventName, Object data) {
+                sink.next(ServerSentEvent.builder(data).event(eventName).build());
+            }
+
+            @Override
+            public void complete() {
+                sink.complete();
+            }
+        };
+    }
+
+    private Optional<LocalDate> bookingDate(ServerRequest request) {
+        return this.dateParameter(request, BOOKING_DATE_PARAMETER);
+    }
+
+    private Optional<LocalDate> dateParameter(ServerRequest request, String name) {
+        try {
+            return request.queryParam(name).map(LocalDate::parse);
+        } catch (DateTimeParseException e) {
+            throw new AppException(AppErrorCode.INVALID_REQUEST_PARAMETER, name + " Parameter Invalid");
+        }
+    }
+
+    private int priority(ServerRequest request) {
+        try {
+            return request.queryParam(PRIORITY_PARAMETER).map(Integer::parseInt).orElse(0);
+        } catch (NumberFormatException e) {
+            throw new AppException(AppErrorCode.INVALID_REQUEST_PARAMETER, PRIORITY_PARAMETER + " Parameter Invalid");
+        }
+    }
+
+    private <T> Mono<T> readBody(ServerRequest request, Class<T> bodyType) {
+        return request.bodyToMono(bodyType)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is missing")))
+                .doOnNext(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        throw new ConstraintViolationException(violations);
+                    }
+                });
+    }
+
+    private ViewFormat viewFormat(ServerRequest request) {
+        String format = request.queryParam(FORMAT_PARAMETER).orElse(ViewFormat.SLOTS.name());
+        try {
+            return ViewFormat.valueOf(format);
+        } catch (IllegalArgumentException e) {
+            throw new AppException(AppErrorCode.INVALID_REQUEST_PARAMETER, FORMAT_PARAMETER + " Parameter Invalid");
+        }
+    }
+
+    private TransferFormat transferFormat(ServerRequest request) {
+        String format = request.queryParam(FORMAT_PARAMETER).orElse(TransferFormat.NDJSON.name());
+        try {
+            return TransferFormat.valueOf(format);
+        } catch (IllegalArgumentException e) {
+            throw new AppException(AppErrorCode.INVALID_REQUEST_PARAMETER, FORMAT_PARAMETER + " Parameter Invalid");
+        }
+    }
+
+    private PipedInputStream pipe(PipedOutputStream outputStream) {
+        try {
+            return new PipedInputStream(outputStream, PIPE_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeQuietly(PipedOutputStream outputStream) {
+        try {
+            outputStream.close();
+        } catch (IOException e) {
+            log.debug("Could not close the import pipe: {}", e.getMessage());
+        }
+    }
+
+    private <T> Mono<T> inMemoryOrBlocking(ServerRequest request, LocalDate bookingDate, LocalTime startTime, LocalTime endTime,
+                                           Callable<T> call) {
+        // Served on the request thread when nothing has to be read from the database
+        return bookingService.isAvailabilityLoaded(bookingDate, startTime, endTime) ? Mono.fromCallable(call) : this.blocking(request, call);
+    }
+
+    private <T> Mono<T> blocking(ServerRequest request, Callable<T> call) {
+        return Mono.fromCallable(() -> {
+            // The whole call runs on one worker thread, so its statements can be counted there
+            QueryCountInspector.begin();
+            try {
+                return call.call();
+            } finally {
+                bookingMetrics.recordQueries(request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE)
+                        .map(Object::toString).orElse("UNKNOWN"), QueryCountInspector.end());
+            }
+        }).subscribeOn(Schedulers.boundedElastic())
+                // Write the response off the worker, an error signal disposes the worker task with an interrupt
+                // which would abort a response still being written on it
+                .publishOn(Schedulers.parallel());
+    }
+
+    private Mono<ServerResponse> success(Object data) {
+        return ServerResponse.ok().bodyValue(CommonUtil.buildSuccessResponse(data));
+    }
+
+    /**
+     * Build the same error responses as {@link com.mashreq.booking.exception.AppExceptionHandler}
+     *
+     * @param exception the exception
+     * @param request   the server request
+     * @return the error response
+     */
+    private Mono<ServerResponse> error(Throwable exception, ServerRequest request) {
+        Response.ResponseBuilder errorResponse = Response.builder().status(ResponseStatus.ERROR).uriPath(request.path());
+        HttpStatus httpStatus = HttpStatus.OK;
+        if (exception instanceof AppException appException) {
+            String errorDetails = appException.getErrorDetails();
+            if (StringUtils.isNotBlank(appException.getMessageId())) {
+                errorDetails = errorDetails + ". Message ID " + appException.getMessageId();
+            }
+            errorResponse.errorCode(appException.getErrorCode()).errorDetails(errorDetails).message(appException.getMessage());
+            if (AppErrorCode.INVALID_REQUEST_PARAMETER.getErrorCode().equals(appException.getErrorCode())) {
+                httpStatus = HttpStatus.BAD_REQUEST;
+            }
+        } else if (exception instanceof ConstraintViolationException violationException) {
+            errorResponse.errorCode(AppErrorCode.INVALID_REQUEST.name()).errorDetails(this.violationDetails(violationException)).message("Validation Failed");
+        } else if (exception instanceof ServerWebInputException) {
+            errorResponse.errorCode(AppErrorCode.INTERFACE_ERROR_INVALID_PARAMETER_VALUES.name()).errorDetails(exception.getMessage()).message("Message Not Readable");
+        } else {
+            errorResponse.errorCode(AppErrorCode.SYSTEM_ERROR.name()).message(exception.getMessage());
+        }
+        Response response = errorResponse.build();
+        bookingMetrics.recordError(response.getErrorCode());
+        if (AppErrorCode.isSystemError(response.getErrorCode())) {
+            log.error("Error Response {}", response, exception);
+        } else {
+            log.debug("Error Response {} for path {}: {}", response.getErrorCode(), response.getUriPath(), response.getErrorDetails());
+        }
+        return ServerResponse.status(httpStatus).bodyValue(response);
+    }
+
+    private String violationDetails(ConstraintViolationException exception) {
+        // Field errors first, falling back to the class level errors, as the servlet stack reports them
+        String fieldErrors = exception.getConstraintViolations().stream()
+                .filter(violation -> StringUtils.isNotEmpty(violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ":" + violation.getMessage())
+                .collect(Collectors.joining(";"));
+        return StringUtils.isNotBlank(fieldErrors) ? fieldErrors : exception.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining(";"));
+    }
+}
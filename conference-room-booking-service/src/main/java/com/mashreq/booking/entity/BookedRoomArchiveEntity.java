@@ -0,0 +1,52 @@
+package com.mashreq.booking.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Bookings of past days moved out of BOOKED_ROOM, keeping their original id
+ *
+ * @author janv@mashreq.com
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "BOOKED_ROOM_ARCHIVE", indexes = @Index(name = "IDX_BOOKED_ROOM_ARCHIVE_DATE", columnList = "BOOKING_DATE"))
+public class BookedRoomArchiveEntity {
+
+    @Id
+    private Long id;
+
+    @Column(name = "BOOKING_DATE", nullable = false)
+    private LocalDate bookingDate;
+
+    @Column(name = "ROOM_NAME")
+    private String roomName;
+
+    @Column(name = "START_TIME", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "END_TIME", nullable = false)
+    private LocalTime endTime;
+
+    @Column(name = "NUMBER_OF_PERSONS")
+    private Integer numberOfPersons;
+
+    @Column(name = "BOOKING_REFERENCE")
+    private String bookingReference;
+
+    @Column(name = "BOOKED_BY")
+    private String bookedBy;
+
+    @Column(name = "BOOKING_DATE_TIME")
+    private LocalDateTime bookingDateTime;
+}
@@ -5,11 +5,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 /**
  * @author janv@mashreq.com
@@ -17,21 +21,26 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "BOOKED_ROOM")
+@Table(name = "BOOKED_ROOM", indexes = {@Index(name = "IDX_BOOKED_ROOM_DATE_ROOM_TIME", columnList = "BOOKING_DATE, ROOM_NAME, START_TIME, END_TIME"),
+        @Index(name = "IDX_BOOKED_ROOM_REFERENCE", columnList = "BOOKING_REFERENCE")})
 public class BookedRoomEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booked_room_seq")
+    @SequenceGenerator(name = "booked_room_seq", sequenceName = "BOOKED_ROOM_SEQ", allocationSize = 50)
     private Long id;
 
+    @Column(name = "BOOKING_DATE", nullable = false)
+    private LocalDate bookingDate;
+
     @Column(name = "ROOM_NAME")
     private String roomName;
 
-    @Column(name = "START_TIME", length = 6, nullable = false)
-    private String startTime;
+    @Column(name = "START_TIME", nullable = false)
+    private LocalTime startTime;
 
-    @Column(name = "END_TIME", length = 6, nullable = false)
-    private String endTime;
+    @Column(name = "END_TIME", nullable = false)
+    private LocalTime endTime;
 
     @Column(name = "NUMBER_OF_PERSONS")
     private Integer numberOfPersons;
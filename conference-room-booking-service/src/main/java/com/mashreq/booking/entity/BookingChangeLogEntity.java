@@ -0,0 +1,57 @@
+package com.mashreq.booking.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A change made by one node of the cluster, read by the other nodes to refresh their in-memory state
+ *
+ * @author janv@mashreq.com
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "BOOKING_CHANGE_LOG", indexes = @Index(name = "IDX_BOOKING_CHANGE_LOG_CREATED_AT", columnList = "CREATED_AT"))
+public class BookingChangeLogEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "NODE_ID", length = 64, nullable = false)
+    private String nodeId;
+
+    /**
+     * The booking day, null for a catalog change
+     */
+    @Column(name = "BOOKING_DATE")
+    private LocalDate bookingDate;
+
+    @Column(name = "ROOM_NAME")
+    private String roomName;
+
+    @Column(name = "MASK_LOW", nullable = false)
+    private long maskLow;
+
+    @Column(name = "MASK_HIGH", nullable = false)
+    private long maskHigh;
+
+    /**
+     * The reference of the booking that released the slots, null otherwise
+     */
+    @Column(name = "RELEASED_REFERENCE")
+    private String releasedReference;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package com.mashreq.booking.entity;
+
+import com.mashreq.booking.availability.CatalogChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publishes a {@link CatalogChangedEvent} whenever a catalog entity is written.
+ *
+ * @author janv@mashreq.com
+ */
+public class CatalogEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CatalogEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(entity));
+    }
+}
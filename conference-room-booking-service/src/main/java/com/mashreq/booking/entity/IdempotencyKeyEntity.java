@@ -0,0 +1,54 @@
+package com.mashreq.booking.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An idempotency key of a client, unique per client, with the fingerprint of its booking request and the reference of the booking it made.
+ * The key outlives the booking rows, so a retry after a cancel or a move replays the booking as it is now.
+ *
+ * @author janv@mashreq.com
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "IDEMPOTENCY_KEY", indexes = {@Index(name = "IDX_IDEMPOTENCY_KEY_REFERENCE", columnList = "BOOKING_REFERENCE"),
+        @Index(name = "IDX_IDEMPOTENCY_KEY_CREATED_AT", columnList = "CREATED_AT")},
+        uniqueConstraints = @UniqueConstraint(name = "UK_IDEMPOTENCY_CLIENT_KEY", columnNames = {"CLIENT", "IDEMPOTENCY_KEY"}))
+public class IdempotencyKeyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The user name of the booking request
+     */
+    @Column(name = "CLIENT", nullable = false)
+    private String client;
+
+    @Column(name = "IDEMPOTENCY_KEY", length = 64, nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * The SHA-256 of the booking request, in hex
+     */
+    @Column(name = "REQUEST_FINGERPRINT", length = 64, nullable = false)
+    private String requestFingerprint;
+
+    @Column(name = "BOOKING_REFERENCE", nullable = false)
+    private String bookingReference;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+}
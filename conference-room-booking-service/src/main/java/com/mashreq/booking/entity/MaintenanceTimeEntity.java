@@ -2,6 +2,7 @@ package com.mashreq.booking.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -10,6 +11,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalTime;
+
 /**
  * @author janv@mashreq.com
  */
@@ -17,6 +20,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Table(name = "MAINTENANCE_TIME")
 public class MaintenanceTimeEntity {
 
@@ -24,9 +28,9 @@ public class MaintenanceTimeEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "START_TIME")
-    private String startTime;
+    @Column(name = "START_TIME", nullable = false)
+    private LocalTime startTime;
 
-    @Column(name = "END_TIME")
-    private String endTime;
+    @Column(name = "END_TIME", nullable = false)
+    private LocalTime endTime;
 }
@@ -9,6 +9,13 @@ public enum AppErrorCode {
     NO_ROOMS_FOUND("ERROR-0001", "No available rooms found for the given time range"),
     MAX_CAPACITY("ERROR-0002", "The requested number of attendees is greater than the available room capacity"),
     ROOM_MAINTENANCE_TIME("ERROR-0003", "Conference room is temporarily unavailable during this time. Please book room after maintenance timings."),
+    IDEMPOTENCY_KEY_REUSED("ERROR-0004", "The idempotency key was already used for a different booking request"),
+    BOOKING_NOT_FOUND("ERROR-0005", "No booking found for the given booking reference"),
+    WAITLIST_FULL("ERROR-0006", "The waitlist is full, please try again later"),
+    WAITLIST_TICKET_NOT_FOUND("ERROR-0007", "No waitlist ticket found for the given ticket id"),
+    BOOKING_CONFLICT("ERROR-0008", "The time range was just booked through another instance, please try again"),
+    INVALID_IMPORT_FILE("ERROR-0009", "The import file could not be read, check the format and the header row"),
+    BOOKING_CANCELLED("ERROR-0010", "The booking made under the idempotency key was cancelled"),
     INVALID_REQUEST("INVALID-REQ-0001", "Invalid value found in the request"),
     INVALID_REQUEST_PARAMETER("INVALID-REQ-0001", "Invalid request parameter"),
     INVALID_REQUEST_HEADER_PARAMETER("INVALID-REQ-0002", "Invalid request header parameter"),
@@ -29,4 +36,14 @@ public enum AppErrorCode {
     public String getErrorMessage() {
         return this.errorMessage;
     }
+
+    /**
+     * Check if the error code of a response is a system error rather than a business or request error
+     *
+     * @param errorCode the error code or the name of the error code
+     * @return true for a system error
+     */
+    public static boolean isSystemError(String errorCode) {
+        return SYSTEM_ERROR.errorCode.equals(errorCode) || SYSTEM_ERROR.name().equals(errorCode);
+    }
 }
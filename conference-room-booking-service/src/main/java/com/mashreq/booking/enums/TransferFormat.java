@@ -0,0 +1,27 @@
+package com.mashreq.booking.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+/**
+ * Format of the rows of a bulk export or import
+ *
+ * @author janv@mashreq.com
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TransferFormat {
+
+    /**
+     * One JSON object per line
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    /**
+     * A header row with the column names, then one comma separated row per line
+     */
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+}
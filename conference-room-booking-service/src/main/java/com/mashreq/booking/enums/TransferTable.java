@@ -0,0 +1,45 @@
+package com.mashreq.booking.enums;
+
+import com.mashreq.booking.exception.AppException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Tables that can be exported and imported in bulk, by their path name
+ *
+ * @author janv@mashreq.com
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TransferTable {
+
+    /**
+     * The CONFERENCE_ROOMS table
+     */
+    ROOMS("rooms"),
+    /**
+     * The MAINTENANCE_TIME table
+     */
+    MAINTENANCE("maintenance"),
+    /**
+     * The BOOKED_ROOM table
+     */
+    BOOKINGS("bookings");
+
+    private final String path;
+
+    /**
+     * Get the table of the given path name
+     *
+     * @param path the path name
+     * @return the table
+     */
+    public static TransferTable fromPath(String path) {
+        for (TransferTable table : values()) {
+            if (table.path.equals(path)) {
+                return table;
+            }
+        }
+        throw new AppException(AppErrorCode.INVALID_REQUEST_PARAMETER, "table Parameter Invalid");
+    }
+}
@@ -0,0 +1,22 @@
+package com.mashreq.booking.enums;
+
+/**
+ * Format of the free times returned per room by the view endpoint
+ *
+ * @author janv@mashreq.com
+ */
+public enum ViewFormat {
+
+    /**
+     * One label per free 15-minute slot
+     */
+    SLOTS,
+    /**
+     * One label per run of contiguous free slots
+     */
+    RANGES,
+    /**
+     * Base64 encoded 96-bit bitmap of the free slots
+     */
+    BITMAP;
+}
@@ -0,0 +1,30 @@
+package com.mashreq.booking.enums;
+
+/**
+ * Status of a waitlist ticket
+ *
+ * @author janv@mashreq.com
+ */
+public enum WaitlistStatus {
+
+    /**
+     * Queued until a room frees up for the whole time range
+     */
+    WAITING,
+    /**
+     * A room is being booked for the ticket, it goes back to waiting if none can be booked after all
+     */
+    PROMOTING,
+    /**
+     * A room was booked for the ticket
+     */
+    BOOKED,
+    /**
+     * The client left the waitlist, a booking made for the ticket meanwhile is cancelled
+     */
+    CANCELLED,
+    /**
+     * The time range started before a room freed up
+     */
+    EXPIRED;
+}
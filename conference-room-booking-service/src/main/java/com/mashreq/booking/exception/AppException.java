@@ -7,6 +7,9 @@ import lombok.EqualsAndHashCode;
 
 /**
  * The type App exception.
+ * <p>
+ * Business errors raised from an {@link AppErrorCode} alone are expected outcomes such as a fully booked time range,
+ * so they skip filling in the stack trace. Only system errors and wrapped exceptions keep it.
  *
  * @author janv @mashreq.com
  */
@@ -52,7 +55,7 @@ public class AppException extends RuntimeException {
     }
 
     public AppException(AppErrorCode appErrorCode, String message) {
-        super(message);
+        super(message, null, false, appErrorCode == AppErrorCode.SYSTEM_ERROR);
         this.errorCode = appErrorCode.getErrorCode();
         this.errorDetails = message;
     }
@@ -70,7 +73,7 @@ public class AppException extends RuntimeException {
     }
 
     public AppException(AppErrorCode appErrorCode) {
-        super(appErrorCode.getErrorMessage());
+        super(appErrorCode.getErrorMessage(), null, false, appErrorCode == AppErrorCode.SYSTEM_ERROR);
         this.errorCode = appErrorCode.getErrorCode();
         this.errorDetails = appErrorCode.getErrorMessage();
     }
@@ -3,13 +3,14 @@ package com.mashreq.booking.exception;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import com.mashreq.booking.enums.AppErrorCode;
 import com.mashreq.booking.enums.ResponseStatus;
+import com.mashreq.booking.metrics.BookingMetrics;
 import com.mashreq.booking.model.Response;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
@@ -27,8 +28,6 @@ import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.sql.SQLException;
 import java.util.stream.Collectors;
 
@@ -38,9 +37,16 @@ import java.util.stream.Collectors;
  * @author janv @mashreq.com
  */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class AppExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private final BookingMetrics bookingMetrics;
+
+    public AppExceptionHandler(BookingMetrics bookingMetrics) {
+        this.bookingMetrics = bookingMetrics;
+    }
+
     /**
      * Handle custom exception response entity.
      *
@@ -120,28 +126,26 @@ public class AppExceptionHandler extends ResponseEntityExceptionHandler {
 
     private ResponseEntity<Object> buildErrorResponse(Throwable exception, String errorId, String errorDetails, WebRequest request, String type) {
         String path = ((ServletWebRequest) request).getRequest().getRequestURI();
-        log.error("{} caught. Building Error Response for path {}", type, path);
+        log.debug("{} caught. Building Error Response for path {}", type, path);
         Response errorResponse = Response.builder().status(ResponseStatus.ERROR).errorCode(errorId).uriPath(path).errorDetails(errorDetails).message(this.getErrorMessage(exception)).build();
+        bookingMetrics.recordError(errorId);
         this.writeToLogfile(errorResponse, exception);
         return new ResponseEntity(errorResponse, HttpStatus.OK);
     }
 
 
     /**
-     * Write to logfile.
+     * Write to logfile. Only system errors are logged at error level with their stack trace, business and request
+     * errors are routine outcomes counted in the metrics and only logged at debug level.
      *
      * @param errorResponse the error response
      * @param ex            the ex
      */
     public void writeToLogfile(Response errorResponse, Throwable ex) {
-        log.error("Error Response {}", errorResponse.toString());
-        if (ex != null) {
-          /*  if (ex instanceof AppException) {
-                ex = ex.getCause();
-            }*/
-            StringWriter stack = new StringWriter();
-            ex.printStackTrace(new PrintWriter(stack));
-            log.error("Caught exception {}", ExceptionUtils.getMessage(ex));
+        if (AppErrorCode.isSystemError(errorResponse.getErrorCode())) {
+            log.error("Error Response {}", errorResponse, ex);
+        } else {
+            log.debug("Error Response {} for path {}: {}", errorResponse.getErrorCode(), errorResponse.getUriPath(), errorResponse.getErrorDetails());
         }
     }
 
@@ -0,0 +1,220 @@
+package com.mashreq.booking.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mashreq.booking.constants.AppConstants;
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.entity.IdempotencyKeyEntity;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.BookingResponse;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the booking made under an {@code Idempotency-Key}, so a client retrying a booking gets the original room
+ * instead of a second one.
+ * <p>
+ * Keys are scoped to the client, the user name of the booking request, the one the booking is saved under. Two clients
+ * picking the same key neither replay nor block each other's bookings.
+ * <p>
+ * Recent keys live in a bounded TTL cache. A retry arriving while the first request is still running waits for its
+ * outcome instead of booking again. The key is also saved in the IDEMPOTENCY_KEY table under a unique constraint, with
+ * a fingerprint of the request and the booking reference, in the transaction of the booking. That covers keys evicted
+ * from the cache, restarts and other nodes, and outlives the booking rows: a retry replays the booking as it is now,
+ * moved or cancelled. Failed bookings are not remembered, so they can be retried.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@Slf4j
+public class IdempotencyCache {
+
+    private final BookedRoomRepository bookedRoomRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Clock clock;
+    private final Cache<ClientKey, IdempotentBooking> bookings;
+
+    public IdempotencyCache(BookedRoomRepository bookedRoomRepository, IdempotencyKeyRepository idempotencyKeyRepository, Clock clock,
+                            @Value("${booking.idempotency.ttl}") Duration ttl,
+                            @Value("${booking.idempotency.max-size}") long maxSize) {
+        this.bookedRoomRepository = bookedRoomRepository;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.clock = clock;
+        this.bookings = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).build();
+    }
+
+    /**
+     * Run the booking once per idempotency key and replay its response for the same key
+     *
+     * @param idempotencyKey the idempotency key of the client
+     * @param bookingRequest the booking request
+     * @param booking        books the room, saving the idempotency key in the same transaction
+     * @return the booking response, the original one for a replayed key
+     */
+    public BookingResponse execute(String idempotencyKey, BookingRequest bookingRequest, Supplier<BookingResponse> booking) {
+        if (idempotencyKey.length() > AppConstants.IDEMPOTENCY_KEY_MAX_LENGTH) {
+            throw new AppException(AppErrorCode.INVALID_REQUEST_HEADER_PARAMETER,
+                    AppConstants.IDEMPOTENCY_KEY_HEADER + " Header longer than " + AppConstants.IDEMPOTENCY_KEY_MAX_LENGTH + " characters");
+        }
+        ClientKey clientKey = new ClientKey(clientOf(bookingRequest), idempotencyKey);
+        IdempotentBooking pending = new IdempotentBooking(bookingRequest, new CompletableFuture<>());
+        IdempotentBooking existing = bookings.asMap().putIfAbsent(clientKey, pending);
+        if (existing != null) {
+            log.debug("Replaying the booking of idempotency key {}", clientKey);
+            this.checkSameRequest(existing.bookingRequest(), bookingRequest);
+            return this.await(existing.response());
+        }
+
+        try {
+            BookingResponse bookingResponse = this.findSaved(clientKey, bookingRequest)
+                    .orElseGet(() -> this.bookOrFindSaved(clientKey, bookingRequest, booking));
+            pending.response().complete(bookingResponse);
+            return bookingResponse;
+        } catch (RuntimeException e) {
+            bookings.asMap().remove(clientKey, pending);
+            pending.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Save the idempotency key of a booking under its client. Called in the transaction that saves the booking, a key
+     * saved by another request of the client first fails it with a unique constraint violation.
+     *
+     * @param idempotencyKey   the idempotency key of the client
+     * @param bookingRequest   the booking request
+     * @param bookingReference the reference of the booking
+     */
+    public void save(String idempotencyKey, BookingRequest bookingRequest, String bookingReference) {
+        IdempotencyKeyEntity idempotencyKeyEntity = new IdempotencyKeyEntity();
+        idempotencyKeyEntity.setClient(clientOf(bookingRequest));
+        idempotencyKeyEntity.setIdempotencyKey(idempotencyKey);
+        idempotencyKeyEntity.setRequestFingerprint(fingerprint(bookingRequest));
+        idempotencyKeyEntity.setBookingReference(bookingReference);
+        idempotencyKeyEntity.setCreatedAt(LocalDateTime.now(clock));
+        idempotencyKeyRepository.save(idempotencyKeyEntity);
+    }
+
+    /**
+     * Forget the cached responses of the booking once it was moved or cancelled, on this node or another, so a replay
+     * reads the booking again
+     *
+     * @param bookingReference the booking reference
+     */
+    public void evict(String bookingReference) {
+        for (IdempotencyKeyEntity idempotencyKeyEntity : idempotencyKeyRepository.findByBookingReference(bookingReference)) {
+            bookings.invalidate(new ClientKey(idempotencyKeyEntity.getClient(), idempotencyKeyEntity.getIdempotencyKey()));
+        }
+    }
+
+    private BookingResponse bookOrFindSaved(ClientKey clientKey, BookingRequest bookingRequest, Supplier<BookingResponse> booking) {
+        try {
+            return booking.get();
+        } catch (DataIntegrityViolationException e) {
+            // Another node saved a booking under the same key first
+            return this.findSaved(clientKey, bookingRequest).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<BookingResponse> findSaved(ClientKey clientKey, BookingRequest bookingRequest) {
+        return idempotencyKeyRepository.findByClientAndIdempotencyKey(clientKey.client(), clientKey.idempotencyKey()).map(idempotencyKeyEntity -> {
+            if (!idempotencyKeyEntity.getRequestFingerprint().equals(fingerprint(bookingRequest))) {
+                throw new AppException(AppErrorCode.IDEMPOTENCY_KEY_REUSED);
+            }
+            List<BookedRoomEntity> bookedRoomEntities = bookedRoomRepository.findByBookingReferenceOrderByStartTime(idempotencyKeyEntity.getBookingReference());
+            if (bookedRoomEntities.isEmpty()) {
+                log.debug("The booking {} of idempotency key {} was cancelled", idempotencyKeyEntity.getBookingReference(), clientKey);
+                throw new AppException(AppErrorCode.BOOKING_CANCELLED);
+            }
+            log.debug("Replaying the saved booking {} of idempotency key {}", idempotencyKeyEntity.getBookingReference(), clientKey);
+            // Rows left from bookings saved one row per slot are consecutive slots of the same room
+            BookedRoomEntity first = bookedRoomEntities.get(0);
+            BookedRoomEntity last = bookedRoomEntities.get(bookedRoomEntities.size() - 1);
+            return new BookingResponse(first.getRoomName(), first.getStartTime(), last.getEndTime(), first.getBookingDate(),
+                    first.getBookingReference());
+        });
+    }
+
+    private void checkSameRequest(BookingRequest original, BookingRequest bookingRequest) {
+        if (!Objects.equals(original, bookingRequest)) {
+            throw new AppException(AppErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+    }
+
+    /**
+     * Get the client of the booking request, the user the booking is saved under
+     *
+     * @param bookingRequest the booking request
+     * @return the user name, the guest user when none is given
+     */
+    private static String clientOf(BookingRequest bookingRequest) {
+        return StringUtils.defaultIfBlank(bookingRequest.getUserName(), AppConstants.DEFAULT_USER_NAME);
+    }
+
+    /**
+     * Get the fingerprint of the booking request, the same for the retries of a request
+     *
+     * @param bookingRequest the booking request
+     * @return the SHA-256 of the request fields, in hex
+     */
+    private static String fingerprint(BookingRequest bookingRequest) {
+        String request = bookingRequest.getPersons() + "|" + bookingRequest.getBookingDate() + "|" + bookingRequest.getStartTime()
+                + "|" + bookingRequest.getEndTime() + "|" + bookingRequest.getUserName();
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private BookingResponse await(CompletableFuture<BookingResponse> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            // The first request failed, its retries fail the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A booking request under an idempotency key, with its response once booked
+     *
+     * @param bookingRequest the booking request
+     * @param response       the booking response
+     */
+    private record IdempotentBooking(BookingRequest bookingRequest, CompletableFuture<BookingResponse> response) {
+    }
+
+    /**
+     * An idempotency key of a client
+     *
+     * @param client         the client of the key
+     * @param idempotencyKey the idempotency key
+     */
+    private record ClientKey(String client, String idempotencyKey) {
+    }
+}
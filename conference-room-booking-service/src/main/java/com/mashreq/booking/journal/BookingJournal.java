@@ -0,0 +1,304 @@
+package com.mashreq.booking.journal;
+
+import com.mashreq.booking.availability.DaySlots;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.journal.JournalFormat.JournalRecord;
+import com.mashreq.booking.journal.JournalFormat.Snapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the in-memory availability across restarts, so a restarted instance does not read its days from the
+ * BOOKED_ROOM table again.
+ * <p>
+ * Each change of the booked slots of a room in memory appends the slots the room now has to an append-only journal
+ * file. A snapshot
+ * of all the days from today onwards is written periodically and on shutdown, after which the journal moves on to a
+ * new generation and the older generations are deleted. On startup the latest snapshot is restored and only the
+ * journal generations written since are replayed, so the restart time depends on the days ahead rather than on the
+ * booking history. A journal record holds the whole state of its room, replaying it twice or on top of a newer
+ * snapshot gives the same result.
+ * <p>
+ * A reservation is journaled before its booking is written to the database and a cancellation after it is deleted, so
+ * a crash at any point can leave slots booked that the database does not hold, but never the reverse. Each restored
+ * day is therefore checked against the bookings of the database with one query before it is served, which drops such
+ * slots. The journal only knows the bookings made through this instance, the database must not be shared with other
+ * instances and must outlive the process.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@ConditionalOnExpression("${booking.journal.enabled} and !${booking.cluster.enabled}")
+@Slf4j
+public class BookingJournal {
+
+    static final String SNAPSHOT_FILE = "availability.snapshot";
+    private static final Pattern JOURNAL_FILE = Pattern.compile("journal-(\\d+)\\.log");
+
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final Clock clock;
+    private final Path directory;
+    private final boolean forceWrites;
+
+    // An explicit lock rather than a monitor, a virtual thread waiting on the file writes must not pin its carrier
+    private final Lock writeLock = new ReentrantLock();
+    private final Lock snapshotLock = new ReentrantLock();
+    private FileChannel journal;
+    private long generation;
+    private boolean failed;
+
+    public BookingJournal(RoomAvailabilityEngine roomAvailabilityEngine, Clock clock,
+                          @Value("${booking.journal.directory}") Path directory,
+                          @Value("${booking.journal.force-writes}") boolean forceWrites) {
+        this.roomAvailabilityEngine = roomAvailabilityEngine;
+        this.clock = clock;
+        this.directory = directory;
+        this.forceWrites = forceWrites;
+    }
+
+    /**
+     * Restore the availability from the latest snapshot and the journal written since, then start a new journal
+     * generation. Runs before the server accepts requests.
+     *
+     * @throws IOException if the journal directory cannot be used
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        long startTime = System.currentTimeMillis();
+        LocalDate today = LocalDate.now(clock);
+        Snapshot snapshot = this.readSnapshot();
+        long lastGeneration = 0L;
+        Set<LocalDate> restoredDays = new TreeSet<>();
+        int records = 0;
+        if (snapshot != null) {
+            for (DaySlots daySlots : snapshot.days()) {
+                if (!daySlots.bookingDate().isBefore(today)) {
+                    roomAvailabilityEngine.restore(daySlots);
+                    restoredDays.add(daySlots.bookingDate());
+                }
+            }
+            lastGeneration = snapshot.generation();
+        }
+        for (long journalGeneration : this.journalGenerations()) {
+            if (snapshot != null && journalGeneration >= snapshot.generation()) {
+                for (JournalRecord record : this.readJournal(journalGeneration)) {
+                    if (!record.bookingDate().isBefore(today)) {
+                        roomAvailabilityEngine.restore(record.bookingDate(), record.roomSlots());
+                        restoredDays.add(record.bookingDate());
+                        records++;
+                    }
+                }
+            }
+            lastGeneration = Math.max(lastGeneration, journalGeneration);
+        }
+        // Reservations whose booking was never written are only in memory, the database has the last word
+        restoredDays.forEach(roomAvailabilityEngine::reconcile);
+        if (snapshot != null) {
+            log.info("Restored {} days from the availability snapshot and {} journal records in {} ms", restoredDays.size(), records,
+                    System.currentTimeMillis() - startTime);
+        } else {
+            log.info("No availability snapshot to restore, the days will be read from the database");
+        }
+        writeLock.lock();
+        try {
+            generation = lastGeneration;
+            this.roll();
+        } finally {
+            writeLock.unlock();
+        }
+        roomAvailabilityEngine.addChangeListener(this::append);
+        // Anchor the new journal generation, the journal is of no use without a snapshot to replay it on
+        this.snapshot();
+    }
+
+    /**
+     * Append the booked slots the room has after a change
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     */
+    void append(LocalDate day, String roomName) {
+        writeLock.lock();
+        try {
+            if (failed) {
+                return;
+            }
+            // Read under the write lock, so the last record of a room always holds its latest booked slots
+            ByteBuffer record = JournalFormat.encodeRecord(day, roomAvailabilityEngine.roomSlots(day, roomName));
+            while (record.hasRemaining()) {
+                journal.write(record);
+            }
+            if (forceWrites) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            // Until the next snapshot the journal misses this change, a restart must read the database instead
+            log.error("Could not write the booking journal, falling back to the database on restart until the next snapshot", e);
+            failed = true;
+            this.deleteQuietly(directory.resolve(SNAPSHOT_FILE));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Write a snapshot of the days from today onwards and drop the journal generations it covers
+     */
+    @Scheduled(initialDelayString = "${booking.journal.snapshot-interval}", fixedDelayString = "${booking.journal.snapshot-interval}")
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            this.writeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Write a last snapshot, so the next start has no journal to replay
+     */
+    @PreDestroy
+    public void close() {
+        this.snapshot();
+        writeLock.lock();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close the booking journal: {}", e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeSnapshot() {
+        long snapshotGeneration;
+        writeLock.lock();
+        try {
+            // The engine holds every change journaled so far, the new generation only needs the changes made from now on
+            this.roll();
+            snapshotGeneration = generation;
+            failed = false;
+        } catch (IOException e) {
+            log.error("Could not start a new booking journal generation", e);
+            return;
+        } finally {
+            writeLock.unlock();
+        }
+        List<DaySlots> days = roomAvailabilityEngine.daySlots(LocalDate.now(clock));
+        try {
+            Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+            Path tempFile = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(JournalFormat.encodeSnapshot(new Snapshot(snapshotGeneration, days)));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            writeLock.lock();
+            try {
+                if (failed) {
+                    // A change of the new generation could not be journaled, the snapshot would not be complete
+                    this.deleteQuietly(tempFile);
+                    return;
+                }
+                Files.move(tempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                writeLock.unlock();
+            }
+            for (long journalGeneration : this.journalGenerations()) {
+                if (journalGeneration < snapshotGeneration) {
+                    this.deleteQuietly(this.journalFile(journalGeneration));
+                }
+            }
+            log.debug("Wrote the availability snapshot of {} days at journal generation {}", days.size(), snapshotGeneration);
+        } catch (IOException e) {
+            // The previous snapshot and the journal generations after it are still there
+            log.error("Could not write the availability snapshot", e);
+        }
+    }
+
+    private void roll() throws IOException {
+        FileChannel next = FileChannel.open(this.journalFile(generation + 1), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (journal != null) {
+            journal.close();
+        }
+        journal = next;
+        generation++;
+    }
+
+    private Snapshot readSnapshot() {
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+        try {
+            return JournalFormat.decodeSnapshot(Files.readAllBytes(snapshotFile));
+        } catch (IOException e) {
+            log.warn("Ignoring the availability snapshot, the days will be read from the database: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private List<JournalRecord> readJournal(long journalGeneration) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(this.journalFile(journalGeneration), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int end = JournalFormat.decodeRecords(buffer, records);
+            if (end < channel.size()) {
+                // The tail of a write cut short by a crash, every change before it is complete
+                log.warn("Ignoring {} bytes at the end of journal generation {}", channel.size() - end, journalGeneration);
+            }
+        }
+        return records;
+    }
+
+    private List<Long> journalGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> JOURNAL_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path journalFile(long journalGeneration) {
+        return directory.resolve("journal-" + journalGeneration + ".log");
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
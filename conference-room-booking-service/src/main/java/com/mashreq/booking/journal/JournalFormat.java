@@ -0,0 +1,187 @@
+package com.mashreq.booking.journal;
+
+import com.mashreq.booking.availability.DaySlots;
+import com.mashreq.booking.availability.RoomSlots;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of the booking journal and of the availability snapshots, all big-endian.
+ * <p>
+ * A journal record is the length and the CRC-32 of its payload, followed by the payload: the epoch day, the low and
+ * high words of the booked slots and the room name. A snapshot starts with a magic number, the version and the
+ * journal generation it was taken at, followed by the days and ends with the CRC-32 of everything before it.
+ *
+ * @author janv@mashreq.com
+ */
+final class JournalFormat {
+
+    static final int SNAPSHOT_MAGIC = 0x424B534E;
+    static final int SNAPSHOT_VERSION = 1;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = 3 * Long.BYTES + Short.BYTES + 0xFFFF;
+
+    private JournalFormat() {
+    }
+
+    /**
+     * A journal record, the booked slots of a room on a day once a change of the room was committed
+     *
+     * @param bookingDate the booking day
+     * @param roomSlots   the booked slots of the room
+     */
+    record JournalRecord(LocalDate bookingDate, RoomSlots roomSlots) {
+    }
+
+    /**
+     * A snapshot of the availability
+     *
+     * @param generation the first journal generation to replay on top of the snapshot
+     * @param days       the slots of each day
+     */
+    record Snapshot(long generation, List<DaySlots> days) {
+    }
+
+    /**
+     * Encode a journal record
+     *
+     * @param bookingDate the booking day
+     * @param roomSlots   the booked slots of the room
+     * @return the record, ready to be written
+     */
+    static ByteBuffer encodeRecord(LocalDate bookingDate, RoomSlots roomSlots) {
+        byte[] roomName = roomSlots.roomName().getBytes(StandardCharsets.UTF_8);
+        int payloadSize = 3 * Long.BYTES + Short.BYTES + roomName.length;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadSize);
+        buffer.putInt(payloadSize).putInt(0)
+                .putLong(bookingDate.toEpochDay()).putLong(roomSlots.maskLow()).putLong(roomSlots.maskHigh())
+                .putShort((short) roomName.length).put(roomName);
+        buffer.putInt(Integer.BYTES, crc(buffer.array(), RECORD_HEADER_SIZE, payloadSize));
+        return buffer.flip();
+    }
+
+    /**
+     * Decode the journal records of the buffer, up to the first record that is torn or corrupt
+     *
+     * @param buffer  the journal content
+     * @param records receives the records
+     * @return the position after the last valid record
+     */
+    static int decodeRecords(ByteBuffer buffer, List<JournalRecord> records) {
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int start = buffer.position();
+            int payloadSize = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (payloadSize <= 0 || payloadSize > MAX_RECORD_SIZE || payloadSize > buffer.remaining()) {
+                return start;
+            }
+            byte[] payload = new byte[payloadSize];
+            buffer.get(payload);
+            if (crc(payload, 0, payloadSize) != checksum) {
+                return start;
+            }
+            ByteBuffer record = ByteBuffer.wrap(payload);
+            try {
+                LocalDate bookingDate = LocalDate.ofEpochDay(record.getLong());
+                long maskLow = record.getLong();
+                long maskHigh = record.getLong();
+                records.add(new JournalRecord(bookingDate, new RoomSlots(readName(record), maskLow, maskHigh)));
+            } catch (BufferUnderflowException e) {
+                return start;
+            }
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Encode a snapshot
+     *
+     * @param snapshot the snapshot
+     * @return the snapshot bytes
+     */
+    static byte[] encodeSnapshot(Snapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(snapshot.generation());
+            out.writeInt(snapshot.days().size());
+            for (DaySlots day : snapshot.days()) {
+                out.writeLong(day.bookingDate().toEpochDay());
+                out.writeLong(day.loadedLow());
+                out.writeLong(day.loadedHigh());
+                out.writeInt(day.rooms().size());
+                for (RoomSlots room : day.rooms()) {
+                    byte[] roomName = room.roomName().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(roomName.length);
+                    out.write(roomName);
+                    out.writeLong(room.maskLow());
+                    out.writeLong(room.maskHigh());
+                }
+            }
+            out.writeInt(crc(bytes.toByteArray(), 0, bytes.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a snapshot
+     *
+     * @param bytes the snapshot bytes
+     * @return the snapshot
+     * @throws IOException if the snapshot is not a complete snapshot of this version
+     */
+    static Snapshot decodeSnapshot(byte[] bytes) throws IOException {
+        if (bytes.length < Integer.BYTES || crc(bytes, 0, bytes.length - Integer.BYTES) != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+            throw new IOException("Corrupt availability snapshot");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, bytes.length - Integer.BYTES);
+        if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported availability snapshot");
+        }
+        try {
+            long generation = buffer.getLong();
+            int dayCount = buffer.getInt();
+            List<DaySlots> days = new ArrayList<>(dayCount);
+            for (int i = 0; i < dayCount; i++) {
+                LocalDate bookingDate = LocalDate.ofEpochDay(buffer.getLong());
+                long loadedLow = buffer.getLong();
+                long loadedHigh = buffer.getLong();
+                int roomCount = buffer.getInt();
+                List<RoomSlots> rooms = new ArrayList<>(roomCount);
+                for (int j = 0; j < roomCount; j++) {
+                    String roomName = readName(buffer);
+                    rooms.add(new RoomSlots(roomName, buffer.getLong(), buffer.getLong()));
+                }
+                days.add(new DaySlots(bookingDate, loadedLow, loadedHigh, rooms));
+            }
+            return new Snapshot(generation, days);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated availability snapshot", e);
+        }
+    }
+
+    private static String readName(ByteBuffer buffer) {
+        byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
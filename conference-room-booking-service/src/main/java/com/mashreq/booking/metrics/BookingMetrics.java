@@ -0,0 +1,154 @@
+package com.mashreq.booking.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the booking hot paths. The stage timers and the booking histograms are registered up front, the error
+ * counters and the query histograms on first use of their tag, so recording them on the request path is a map lookup
+ * and an atomic update.
+ * <ul>
+ *     <li>{@code booking.stage} timers per operation and stage</li>
+ *     <li>{@code booking.errors} counters per error code returned to the clients</li>
+ *     <li>{@code booking.rooms.scanned} and {@code booking.slots.written} histograms per booking</li>
+ *     <li>{@code booking.db.queries} histogram of the SQL statements run per request</li>
+ * </ul>
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+public class BookingMetrics {
+
+    private static final String STAGE_METRIC = "booking.stage";
+    private static final String ERRORS_METRIC = "booking.errors";
+    private static final String QUERIES_METRIC = "booking.db.queries";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Operation, Map<Stage, Timer>> stageTimers = new EnumMap<>(Operation.class);
+    private final DistributionSummary roomsScanned;
+    private final DistributionSummary slotsWritten;
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> queryHistograms = new ConcurrentHashMap<>();
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Operation operation : Operation.values()) {
+            Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+            for (Stage stage : operation.stages) {
+                timers.put(stage, Timer.builder(STAGE_METRIC)
+                        .description("Time spent in each stage of the booking operations")
+                        .tag("operation", operation.name().toLowerCase())
+                        .tag("stage", stage.name().toLowerCase())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            stageTimers.put(operation, timers);
+        }
+        this.roomsScanned = DistributionSummary.builder("booking.rooms.scanned")
+                .description("Conference rooms tried per booking request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.slotsWritten = DistributionSummary.builder("booking.slots.written")
+                .description("Slots reserved per booking")
+                .baseUnit("slots")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start timing a stage
+     *
+     * @return the start time in nanoseconds
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the time spent in a stage since the given start, and get the start of the next stage
+     *
+     * @param operation  the booking operation
+     * @param stage      the stage of the operation
+     * @param startNanos the start time in nanoseconds
+     * @return the current time in nanoseconds
+     */
+    public long record(Operation operation, Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        stageTimers.get(operation).get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Record the number of rooms tried for a booking request
+     *
+     * @param rooms the number of rooms tried
+     */
+    public void recordRoomsScanned(int rooms) {
+        roomsScanned.record(rooms);
+    }
+
+    /**
+     * Record the slots of a saved booking
+     *
+     * @param slots the number of slots
+     */
+    public void recordSlotsWritten(int slots) {
+        slotsWritten.record(slots);
+    }
+
+    /**
+     * Count an error returned to a client
+     *
+     * @param errorCode the error code of the response
+     */
+    public void recordError(String errorCode) {
+        errorCounters.computeIfAbsent(errorCode, code -> Counter.builder(ERRORS_METRIC).description("Error responses per error code")
+                .tag("code", code)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * Record the SQL statements run for a request
+     *
+     * @param uri     the request path
+     * @param queries the number of statements
+     */
+    public void recordQueries(String uri, int queries) {
+        // The request paths are the mapped patterns, so there is one histogram per endpoint
+        queryHistograms.computeIfAbsent(uri, path -> DistributionSummary.builder(QUERIES_METRIC).description("SQL statements run per request")
+                .tag("uri", path)
+                .publishPercentileHistogram()
+                .register(meterRegistry)).record(queries);
+    }
+
+    /**
+     * The timed booking operations, along with their stages
+     */
+    public enum Operation {
+        BOOK(Stage.CATALOG, Stage.RESERVE, Stage.SAVE),
+        BATCH(Stage.CATALOG, Stage.RESERVE, Stage.SAVE),
+        VIEW(Stage.CATALOG, Stage.LOAD, Stage.RENDER);
+
+        private final List<Stage> stages;
+
+        Operation(Stage... stages) {
+            this.stages = List.of(stages);
+        }
+    }
+
+    /**
+     * The timed stages of the booking operations
+     */
+    public enum Stage {
+        CATALOG, LOAD, RESERVE, SAVE, RENDER
+    }
+}
@@ -0,0 +1,41 @@
+package com.mashreq.booking.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #begin()} and {@link #end()}.
+ * A JDBC batch is prepared once, so it counts as a single statement.
+ *
+ * @author janv@mashreq.com
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> QUERY_COUNT = new ThreadLocal<>();
+
+    /**
+     * Start counting the statements of the current thread
+     */
+    public static void begin() {
+        QUERY_COUNT.set(new int[1]);
+    }
+
+    /**
+     * Stop counting the statements of the current thread
+     *
+     * @return the number of statements since {@link #begin()}
+     */
+    public static int end() {
+        int[] queryCount = QUERY_COUNT.get();
+        QUERY_COUNT.remove();
+        return queryCount == null ? 0 : queryCount[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] queryCount = QUERY_COUNT.get();
+        if (queryCount != null) {
+            queryCount[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mashreq.booking.migration;
+
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Converts bookings stored with one row per 15-minute slot into one row per booking.
+ * Contiguous rows of the same booking reference and room are merged into the first row of the run.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "booking.migration.merge-slot-rows", havingValue = "true")
+public class SlotRowMigration {
+
+    private final BookedRoomRepository bookedRoomRepository;
+
+    /**
+     * Merge the per-slot booking rows
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrate() {
+        List<BookedRoomEntity> bookedRooms = bookedRoomRepository.findAll(Sort.by("bookingReference", "roomName", "startTime"));
+        List<BookedRoomEntity> mergedRows = new ArrayList<>();
+        List<BookedRoomEntity> obsoleteRows = new ArrayList<>();
+        BookedRoomEntity current = null;
+        for (BookedRoomEntity bookedRoom : bookedRooms) {
+            if (current != null && isContinuation(current, bookedRoom)) {
+                current.setEndTime(bookedRoom.getEndTime());
+                obsoleteRows.add(bookedRoom);
+                if (mergedRows.isEmpty() || mergedRows.get(mergedRows.size() - 1) != current) {
+                    mergedRows.add(current);
+                }
+            } else {
+                current = bookedRoom;
+            }
+        }
+        bookedRoomRepository.saveAll(mergedRows);
+        bookedRoomRepository.deleteAllInBatch(obsoleteRows);
+        log.info("Merged {} per-slot booking rows into {} booking rows", obsoleteRows.size() + mergedRows.size(), mergedRows.size());
+    }
+
+    /**
+     * Check if the row continues the booking of the current row
+     *
+     * @param current    the current merged row
+     * @param bookedRoom the next row
+     * @return true if the row belongs to the same booking and starts when the current row ends
+     */
+    private boolean isContinuation(BookedRoomEntity current, BookedRoomEntity bookedRoom) {
+        return current.getBookingReference() != null
+                && Objects.equals(current.getBookingReference(), bookedRoom.getBookingReference())
+                && Objects.equals(current.getRoomName(), bookedRoom.getRoomName())
+                && Objects.equals(current.getEndTime(), bookedRoom.getStartTime());
+    }
+}
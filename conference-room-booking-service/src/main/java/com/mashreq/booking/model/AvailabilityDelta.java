@@ -0,0 +1,25 @@
+package com.mashreq.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The changed slots of a room, split into the ranges now booked and the ranges now free.
+ *
+ * @author janv@mashreq.com
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityDelta implements Serializable {
+
+    private LocalDate bookingDate;
+    private String room;
+    private List<String> booked;
+    private List<String> free;
+}
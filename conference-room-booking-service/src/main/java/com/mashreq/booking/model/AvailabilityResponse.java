@@ -0,0 +1,38 @@
+package com.mashreq.booking.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * @author janv@mashreq.com
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2817406521133750384L;
+
+    private LocalDate bookingDate;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime endTime;
+
+    private int persons;
+
+    /**
+     * Whether a room for the persons is free for the whole time range
+     */
+    private boolean available;
+}
@@ -0,0 +1,24 @@
+package com.mashreq.booking.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author janv@mashreq.com
+ */
+@Data
+public class BatchBookingRequest implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2871457311586235463L;
+
+    @NotEmpty
+    @Size(max = 100)
+    private List<@Valid BookingRequest> bookings;
+}
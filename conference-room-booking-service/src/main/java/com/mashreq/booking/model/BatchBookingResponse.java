@@ -0,0 +1,26 @@
+package com.mashreq.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author janv@mashreq.com
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchBookingResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -3925404126187530251L;
+
+    /**
+     * The booking of each request, in the order of the requests
+     */
+    private List<BookingResponse> bookings;
+}
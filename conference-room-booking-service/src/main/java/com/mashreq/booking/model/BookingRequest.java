@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.time.LocalTime;
 
 /**
@@ -20,6 +21,11 @@ public class BookingRequest implements Serializable {
 
     private int persons;
 
+    /**
+     * The day of the booking, today when not given
+     */
+    private LocalDate bookingDate;
+
     @NotNull
     private LocalTime startTime;
 
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.time.LocalTime;
 
 /**
@@ -23,4 +24,11 @@ public class BookingResponse implements Serializable {
 
     @JsonFormat(pattern = "HH:mm")
     private LocalTime endTime;
+
+    private LocalDate bookingDate;
+
+    /**
+     * The reference to cancel or reschedule the booking with
+     */
+    private String bookingReference;
 }
@@ -0,0 +1,32 @@
+package com.mashreq.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author janv@mashreq.com
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 4420926383640412283L;
+
+    private String table;
+
+    private long imported;
+
+    private long rejected;
+
+    /**
+     * Why the first rejected rows were rejected, with their line numbers
+     */
+    private List<String> errors;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.time.LocalTime;
 
 /**
@@ -18,6 +19,11 @@ public class ViewRoomRequest implements Serializable {
     @Serial
     private static final long serialVersionUID = -5155381267741980831L;
 
+    /**
+     * The day to view, today when not given
+     */
+    private LocalDate bookingDate;
+
     @NotNull
     private LocalTime startTime;
 
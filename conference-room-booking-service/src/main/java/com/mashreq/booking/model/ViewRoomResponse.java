@@ -1,11 +1,13 @@
 package com.mashreq.booking.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -18,11 +20,14 @@ public class ViewRoomResponse implements Serializable {
     @Serial
     private static final long serialVersionUID = -7611348432115128911L;
 
+    private LocalDate bookingDate;
+
     private List<RoomDetails> availableRooms;
 
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class RoomDetails implements Serializable {
 
         @Serial
@@ -31,5 +36,14 @@ public class ViewRoomResponse implements Serializable {
         private String room;
         private int capacity;
         private List<String> time;
+        private List<String> ranges;
+        /**
+         * Base64 encoded 12 bytes of free slots, slot n being bit n % 8 of byte n / 8
+         */
+        private String bitmap;
+
+        public RoomDetails(String room, int capacity, List<String> time) {
+            this(room, capacity, time, null, null);
+        }
     }
 }
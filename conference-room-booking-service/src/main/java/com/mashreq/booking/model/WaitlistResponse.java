@@ -0,0 +1,48 @@
+package com.mashreq.booking.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.mashreq.booking.enums.WaitlistStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * @author janv@mashreq.com
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitlistResponse implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -3326250117496712201L;
+
+    /**
+     * The ticket to follow the waitlist with, not set when a room was booked right away
+     */
+    private String ticketId;
+
+    private WaitlistStatus status;
+
+    private int priority;
+
+    private LocalDate bookingDate;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime endTime;
+
+    private int persons;
+
+    /**
+     * The booking of the ticket once a room was booked for it
+     */
+    private BookingResponse booking;
+}
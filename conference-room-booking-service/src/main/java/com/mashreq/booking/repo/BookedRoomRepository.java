@@ -1,18 +1,101 @@
 package com.mashreq.booking.repo;
 
+import com.mashreq.booking.constants.AppConstants;
 import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.transfer.BookingRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author janv@mashreq.com
  */
 public interface BookedRoomRepository extends JpaRepository<BookedRoomEntity, Long> {
 
-    @Query(value = "select c from BookedRoomEntity c where c.startTime BETWEEN :startTime and :endTime")
-    List<BookedRoomEntity> getBookedRoomByTime(String startTime, String endTime);
+    @Query(value = "select c.roomName as roomName, c.startTime as startTime, c.endTime as endTime from BookedRoomEntity c "
+            + "where c.bookingDate = :bookingDate and c.startTime < :endTime and c.endTime > :startTime")
+    List<BookedSlotView> findBookedSlots(LocalDate bookingDate, LocalTime startTime, LocalTime endTime);
 
-    List<BookedRoomEntity> findByRoomName(String roomName);
+    @Query(value = "select c from BookedRoomEntity c where c.bookingDate = :bookingDate and c.roomName = :roomName "
+            + "and c.startTime < :endTime and c.endTime > :startTime")
+    List<BookedRoomEntity> findOverlappingBookings(LocalDate bookingDate, String roomName, LocalTime startTime, LocalTime endTime);
+
+    /**
+     * Check if a booking other than the given one holds any of the slots of the room
+     *
+     * @param bookingDate      the booking day
+     * @param roomName         the room name
+     * @param startTime        the start of the time range
+     * @param endTime          the end of the time range
+     * @param bookingReference the reference of the booking being saved
+     * @return true if another booking overlaps the time range
+     */
+    @Query(value = "select count(c) > 0 from BookedRoomEntity c where c.bookingDate = :bookingDate and c.roomName = :roomName "
+            + "and c.startTime < :endTime and c.endTime > :startTime and (c.bookingReference is null or c.bookingReference <> :bookingReference)")
+    boolean existsOverlappingBooking(LocalDate bookingDate, String roomName, LocalTime startTime, LocalTime endTime, String bookingReference);
+
+    List<BookedRoomEntity> findByBookingReferenceOrderByStartTime(String bookingReference);
+
+    boolean existsByBookingReference(String bookingReference);
+
+    /**
+     * Delete the booking row only while it still holds the given slots, so that a row changed or deleted by a
+     * concurrent request is left alone
+     *
+     * @param booking the booking row as read
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from BookedRoomEntity c where c.id = :#{#booking.id} and c.bookingDate = :#{#booking.bookingDate} "
+            + "and c.roomName = :#{#booking.roomName} and c.startTime = :#{#booking.startTime} and c.endTime = :#{#booking.endTime}")
+    int deleteBooking(BookedRoomEntity booking);
+
+    /**
+     * Move the booking row to the slots of the moved booking, only while it still holds the slots it was read with
+     *
+     * @param booking the booking row as read
+     * @param moved   the new day, room, time range and number of persons of the booking
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update BookedRoomEntity c set c.bookingDate = :#{#moved.bookingDate}, c.roomName = :#{#moved.roomName}, "
+            + "c.startTime = :#{#moved.startTime}, c.endTime = :#{#moved.endTime}, c.numberOfPersons = :#{#moved.numberOfPersons} "
+            + "where c.id = :#{#booking.id} and c.bookingDate = :#{#booking.bookingDate} and c.roomName = :#{#booking.roomName} "
+            + "and c.startTime = :#{#booking.startTime} and c.endTime = :#{#booking.endTime}")
+    int moveBooking(BookedRoomEntity booking, BookedRoomEntity moved);
+
+    /**
+     * Stream the bookings of the days in range as export rows, fetched from the database a batch at a time. The rows
+     * follow the date, room and time index, so the database does not sort them.
+     *
+     * @param from the first booking day
+     * @param to   the last booking day
+     * @return the booking rows, to be closed by the caller
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.EXPORT_FETCH_SIZE))
+    @Query(value = "select new com.mashreq.booking.transfer.BookingRow(c.bookingReference, c.bookingDate, c.roomName, c.startTime, c.endTime, "
+            + "c.numberOfPersons, c.bookedBy, c.bookingDateTime) from BookedRoomEntity c where c.bookingDate between :from and :to "
+            + "order by c.bookingDate, c.roomName, c.startTime")
+    Stream<BookingRow> streamBookingRows(LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = "insert into BookedRoomArchiveEntity (id, bookingDate, roomName, startTime, endTime, numberOfPersons, bookingReference, bookedBy, bookingDateTime) "
+            + "select c.id, c.bookingDate, c.roomName, c.startTime, c.endTime, c.numberOfPersons, c.bookingReference, c.bookedBy, c.bookingDateTime "
+            + "from BookedRoomEntity c where c.bookingDate < :bookingDate")
+    int archiveBookingsBefore(LocalDate bookingDate);
+
+    @Modifying
+    @Query(value = "delete from BookedRoomEntity c where c.bookingDate < :bookingDate")
+    int deleteBookingsBefore(LocalDate bookingDate);
 }
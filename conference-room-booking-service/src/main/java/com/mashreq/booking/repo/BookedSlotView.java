@@ -0,0 +1,17 @@
+package com.mashreq.booking.repo;
+
+import java.time.LocalTime;
+
+/**
+ * Projection of a booked room to the room and the booked time range only.
+ *
+ * @author janv@mashreq.com
+ */
+public interface BookedSlotView {
+
+    String getRoomName();
+
+    LocalTime getStartTime();
+
+    LocalTime getEndTime();
+}
@@ -0,0 +1,30 @@
+package com.mashreq.booking.repo;
+
+import com.mashreq.booking.entity.BookingChangeLogEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author janv@mashreq.com
+ */
+public interface BookingChangeLogRepository extends JpaRepository<BookingChangeLogEntity, Long> {
+
+    List<BookingChangeLogEntity> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<BookingChangeLogEntity> findByIdInOrderById(Collection<Long> ids);
+
+    @Query(value = "select coalesce(max(c.id), 0) from BookingChangeLogEntity c")
+    long findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from BookingChangeLogEntity c where c.createdAt < :createdAt")
+    int deleteCreatedBefore(LocalDateTime createdAt);
+}
@@ -1,10 +1,42 @@
 package com.mashreq.booking.repo;
 
+import com.mashreq.booking.constants.AppConstants;
 import com.mashreq.booking.entity.ConferenceRoomsEntity;
+import com.mashreq.booking.transfer.RoomRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author janv@mashreq.com
  */
 public interface ConferenceRoomRepository extends JpaRepository<ConferenceRoomsEntity, Long> {
+
+    /**
+     * Lock the row of the conference room until the end of the transaction, so bookings of the room on every node
+     * are checked and saved one after the other
+     *
+     * @param name the room name
+     * @return the locked room
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select c from ConferenceRoomsEntity c where c.name = :name")
+    List<ConferenceRoomsEntity> lockByName(String name);
+
+    /**
+     * Stream the conference rooms as export rows, fetched from the database a batch at a time. The rows are not
+     * managed entities, so the persistence context does not grow with them.
+     *
+     * @return the room rows in id order, to be closed by the caller
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.EXPORT_FETCH_SIZE))
+    @Query(value = "select new com.mashreq.booking.transfer.RoomRow(c.name, c.capacity) from ConferenceRoomsEntity c order by c.id")
+    Stream<RoomRow> streamRoomRows();
 }
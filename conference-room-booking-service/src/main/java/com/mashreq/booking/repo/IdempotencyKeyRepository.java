@@ -0,0 +1,24 @@
+package com.mashreq.booking.repo;
+
+import com.mashreq.booking.entity.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author janv@mashreq.com
+ */
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, Long> {
+
+    Optional<IdempotencyKeyEntity> findByClientAndIdempotencyKey(String client, String idempotencyKey);
+
+    List<IdempotencyKeyEntity> findByBookingReference(String bookingReference);
+
+    @Modifying
+    @Query(value = "delete from IdempotencyKeyEntity k where k.createdAt < :createdAt")
+    int deleteCreatedBefore(LocalDateTime createdAt);
+}
@@ -1,10 +1,27 @@
 package com.mashreq.booking.repo;
 
+import com.mashreq.booking.constants.AppConstants;
 import com.mashreq.booking.entity.MaintenanceTimeEntity;
+import com.mashreq.booking.transfer.MaintenanceRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.stream.Stream;
 
 /**
  * @author janv@mashreq.com
  */
 public interface MaintenanceTimeRepository extends JpaRepository<MaintenanceTimeEntity, Long> {
+
+    /**
+     * Stream the maintenance windows as export rows, fetched from the database a batch at a time
+     *
+     * @return the maintenance rows in id order, to be closed by the caller
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.EXPORT_FETCH_SIZE))
+    @Query(value = "select new com.mashreq.booking.transfer.MaintenanceRow(c.startTime, c.endTime) from MaintenanceTimeEntity c order by c.id")
+    Stream<MaintenanceRow> streamMaintenanceRows();
 }
@@ -1,10 +1,17 @@
 package com.mashreq.booking.service;
 
+import com.mashreq.booking.enums.ViewFormat;
+import com.mashreq.booking.model.AvailabilityResponse;
+import com.mashreq.booking.model.BatchBookingRequest;
+import com.mashreq.booking.model.BatchBookingResponse;
 import com.mashreq.booking.model.BookingRequest;
 import com.mashreq.booking.model.BookingResponse;
 import com.mashreq.booking.model.ViewRoomRequest;
 import com.mashreq.booking.model.ViewRoomResponse;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 /**
  * The interface Booking service.
  *
@@ -20,12 +27,66 @@ public interface BookingService {
      */
     BookingResponse bookConferenceRoom(BookingRequest bookingRequest);
 
+    /**
+     * Saves a booking request once per idempotency key, a request repeating a key gets the original booking back.
+     *
+     * @param bookingRequest the booking request
+     * @param idempotencyKey the idempotency key of the client, optional
+     * @return the booking response
+     */
+    BookingResponse bookConferenceRoom(BookingRequest bookingRequest, String idempotencyKey);
+
+    /**
+     * Cancel the booking of the given reference and release its slots
+     *
+     * @param bookingReference the booking reference
+     * @return the cancelled booking
+     */
+    BookingResponse cancelBooking(String bookingReference);
+
+    /**
+     * Move the booking of the given reference to the day, time range and number of persons of the request.
+     * The booking keeps its old slots when the move fails.
+     *
+     * @param bookingReference the booking reference
+     * @param bookingRequest   the new booking request
+     * @return the moved booking
+     */
+    BookingResponse rescheduleBooking(String bookingReference, BookingRequest bookingRequest);
+
+    /**
+     * Books all the requests together against a single availability snapshot, or none of them.
+     *
+     * @param batchBookingRequest the batch booking request
+     * @return the booking of each request, in the order of the requests
+     */
+    BatchBookingResponse bookConferenceRooms(BatchBookingRequest batchBookingRequest);
+
     /**
      * Find available rooms view room response by the given time range
      *
      * @param viewRoomRequest the view room request
+     * @param viewFormat      the format of the free times of each room
      * @return the view room response
      */
-    ViewRoomResponse findAvailableRooms(ViewRoomRequest viewRoomRequest);
+    ViewRoomResponse findAvailableRooms(ViewRoomRequest viewRoomRequest, ViewFormat viewFormat);
+
+    /**
+     * Check if a room for the persons of the request is free for its whole time range, without booking it
+     *
+     * @param bookingRequest the booking request
+     * @return the availability response
+     */
+    AvailabilityResponse checkAvailability(BookingRequest bookingRequest);
+
+    /**
+     * Check if the available rooms of the given time range can be found in memory, without reading the database
+     *
+     * @param bookingDate the booking date, today when null
+     * @param startTime   the start time
+     * @param endTime     the end time
+     * @return true if the room catalog and the bookings of the time range are already loaded
+     */
+    boolean isAvailabilityLoaded(LocalDate bookingDate, LocalTime startTime, LocalTime endTime);
 
 }
@@ -1,32 +1,46 @@
 package com.mashreq.booking.service.impl;
 
+import com.mashreq.booking.availability.CatalogSnapshot;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.RoomCapacityIndex;
+import com.mashreq.booking.availability.RoomCatalog;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomInfo;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.cluster.BookingOverlapGuard;
 import com.mashreq.booking.constants.AppConstants;
 import com.mashreq.booking.entity.BookedRoomEntity;
-import com.mashreq.booking.entity.ConferenceRoomsEntity;
-import com.mashreq.booking.entity.MaintenanceTimeEntity;
 import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.ViewFormat;
 import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.idempotency.IdempotencyCache;
+import com.mashreq.booking.metrics.BookingMetrics;
+import com.mashreq.booking.metrics.BookingMetrics.Operation;
+import com.mashreq.booking.metrics.BookingMetrics.Stage;
+import com.mashreq.booking.model.AvailabilityResponse;
+import com.mashreq.booking.model.BatchBookingRequest;
+import com.mashreq.booking.model.BatchBookingResponse;
 import com.mashreq.booking.model.BookingRequest;
 import com.mashreq.booking.model.BookingResponse;
 import com.mashreq.booking.model.ViewRoomRequest;
 import com.mashreq.booking.model.ViewRoomResponse;
 import com.mashreq.booking.repo.BookedRoomRepository;
-import com.mashreq.booking.repo.ConferenceRoomRepository;
-import com.mashreq.booking.repo.MaintenanceTimeRepository;
 import com.mashreq.booking.service.BookingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 
 /**
@@ -37,9 +51,14 @@ import java.util.UUID;
 @Slf4j
 public class BookingServiceImpl implements BookingService {
 
-    private final ConferenceRoomRepository conferenceRoomRepository;
     private final BookedRoomRepository bookedRoomRepository;
-    private final MaintenanceTimeRepository maintenanceTimeRepository;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final RoomCatalog roomCatalog;
+    private final Clock clock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingMetrics bookingMetrics;
+    private final IdempotencyCache idempotencyCache;
+    private final BookingOverlapGuard bookingOverlapGuard;
 
     /**
      * Saves a booking request to the system, recording details such as booking time, duration and user name.
@@ -49,222 +68,540 @@ public class BookingServiceImpl implements BookingService {
      */
     @Override
     public BookingResponse bookConferenceRoom(BookingRequest bookingRequest) {
+        return this.book(bookingRequest, null);
+    }
 
-        this.validateRequestTimeForMaintenance(bookingRequest);
-
-        List<ConferenceRoomsEntity> conferenceRooms = conferenceRoomRepository.findAll();
-        String idealConferenceRoom = getIdealConferenceRoom(conferenceRooms, bookingRequest);
-        if (StringUtils.isBlank(idealConferenceRoom)) {
-            log.error("No ideal conference room found for the given request");
-            throw new AppException(AppErrorCode.NO_ROOMS_FOUND);
+    /**
+     * Saves a booking request once per idempotency key, a request repeating a key gets the original booking back
+     * without selecting and saving a room again.
+     *
+     * @param bookingRequest the booking request
+     * @param idempotencyKey the idempotency key of the client, optional
+     * @return the booking response
+     */
+    @Override
+    public BookingResponse bookConferenceRoom(BookingRequest bookingRequest, String idempotencyKey) {
+        if (StringUtils.isBlank(idempotencyKey)) {
+            return this.bookConferenceRoom(bookingRequest);
         }
+        return idempotencyCache.execute(idempotencyKey, bookingRequest,
+                () -> this.book(bookingRequest, idempotencyKey));
+    }
 
-        LocalTime requestStartTime = bookingRequest.getStartTime();
-        LocalTime requestEndTime = bookingRequest.getEndTime();
-        List<String> availableRoomTimes = generateBookingTimes(requestStartTime, requestEndTime);
+    /**
+     * Reserve the ideal conference room for the request and save the booking
+     *
+     * @param bookingRequest the booking request
+     * @param idempotencyKey the idempotency key saved with the booking, optional
+     * @return the booking response
+     */
+    private BookingResponse book(BookingRequest bookingRequest, String idempotencyKey) {
+        long stageStart = bookingMetrics.start();
+        CatalogSnapshot catalog = roomCatalog.getSnapshot();
+        stageStart = bookingMetrics.record(Operation.BOOK, Stage.CATALOG, stageStart);
+        RoomReservation reservation = this.reserveConferenceRoom(catalog, bookingRequest, null);
+        stageStart = bookingMetrics.record(Operation.BOOK, Stage.RESERVE, stageStart);
+        BookedRoomEntity bookedRoomEntity = this.buildBookingDetails(reservation, UUID.randomUUID().toString());
+        try {
+            bookingOverlapGuard.write(List.of(bookedRoomEntity), () -> {
+                if (idempotencyKey != null) {
+                    idempotencyCache.save(idempotencyKey, bookingRequest, bookedRoomEntity.getBookingReference());
+                }
+                return bookedRoomRepository.save(bookedRoomEntity);
+            });
+            log.info("Conference room {} successfully booked under reference id {}", reservation.room(), bookedRoomEntity.getBookingReference());
+        } catch (RuntimeException e) {
+            // Give the slots back so that a failed insert does not leave the room blocked
+            this.giveBack(reservation, e);
+            throw e;
+        }
+        bookingMetrics.record(Operation.BOOK, Stage.SAVE, stageStart);
+        bookingMetrics.recordSlotsWritten(reservation.slotCount());
+        this.publishChange(reservation.bookingDay(), reservation.room(), reservation.maskLow(), reservation.maskHigh());
+        return reservation.toBookingResponse(bookedRoomEntity.getBookingReference());
+    }
 
-        this.saveBookingDetails(bookingRequest, idealConferenceRoom, availableRoomTimes);
-        return new BookingResponse(idealConferenceRoom, requestStartTime, requestEndTime);
+    /**
+     * Cancel the booking of the given reference. Only the slots of the booking rows are released, in memory as well as
+     * in the database, so nothing has to be read again.
+     *
+     * @param bookingReference the booking reference
+     * @return the cancelled booking
+     */
+    @Override
+    public BookingResponse cancelBooking(String bookingReference) {
+        List<BookedRoomEntity> bookedRoomEntities = this.findBooking(bookingReference);
+        boolean cancelled = false;
+        for (BookedRoomEntity bookedRoomEntity : bookedRoomEntities) {
+            // A row changed or deleted in the meantime keeps its slots, they belong to that other request now
+            if (bookingOverlapGuard.write(List.of(), List.of(bookedRoomEntity), () -> bookedRoomRepository.deleteBooking(bookedRoomEntity)) == 1) {
+                this.releaseBooked(bookedRoomEntity, null);
+                cancelled = true;
+            }
+        }
+        if (!cancelled) {
+            throw new AppException(AppErrorCode.BOOKING_NOT_FOUND);
+        }
+        idempotencyCache.evict(bookingReference);
+        log.info("Booking {} cancelled", bookingReference);
+        return this.toBookingResponse(bookedRoomEntities.get(0));
     }
 
     /**
-     * Validate the booking time range do not overlap with the maintenance timings
+     * Move the booking of the given reference to the day, time range and number of persons of the request, in the
+     * ideal conference room for them. The new slots are reserved and saved before the old ones are released, so the
+     * booking keeps its old slots when the move fails. Slots shared by the old and the new time range of the same room
+     * stay reserved throughout.
      *
-     * @param bookingRequest the booking request
+     * @param bookingReference the booking reference
+     * @param bookingRequest   the new booking request
+     * @return the moved booking
      */
-    private void validateRequestTimeForMaintenance(BookingRequest bookingRequest) {
-        List<MaintenanceTimeEntity> maintenanceTimeEntities = maintenanceTimeRepository.findAll();
-        for (MaintenanceTimeEntity maintenanceTime : maintenanceTimeEntities) {
-            LocalTime requestStartTime = bookingRequest.getStartTime();
-            LocalTime requestEndTime = bookingRequest.getEndTime();
-            LocalTime maintenanceStartTime = LocalTime.parse(maintenanceTime.getStartTime());
-            LocalTime maintenanceEndTime = LocalTime.parse(maintenanceTime.getEndTime());
-            if (isTimeCrossing(requestStartTime, requestEndTime, maintenanceStartTime, maintenanceEndTime)) {
-                log.error("Requested time range overlaps with the maintenance time");
-                throw new AppException(AppErrorCode.ROOM_MAINTENANCE_TIME);
+    @Override
+    public BookingResponse rescheduleBooking(String bookingReference, BookingRequest bookingRequest) {
+        List<BookedRoomEntity> bookedRoomEntities = this.findBooking(bookingReference);
+        BookedRoomEntity current = bookedRoomEntities.get(0);
+        HeldSlots heldSlots = HeldSlots.of(bookedRoomEntities);
+        RoomReservation reservation = this.reserveConferenceRoom(roomCatalog.getSnapshot(), bookingRequest, heldSlots);
+        try {
+            BookedRoomEntity moved = this.buildBookingDetails(reservation, bookingReference);
+            if (bookingOverlapGuard.write(List.of(moved), List.of(current), () -> bookedRoomRepository.moveBooking(current, moved)) == 0) {
+                throw new AppException(AppErrorCode.BOOKING_NOT_FOUND);
             }
+        } catch (RuntimeException e) {
+            this.giveBack(reservation, e);
+            throw e;
         }
+        this.releaseBooked(current, reservation);
+        // Rows left from bookings saved one row per slot are merged into the moved row
+        for (BookedRoomEntity bookedRoomEntity : bookedRoomEntities.subList(1, bookedRoomEntities.size())) {
+            if (bookingOverlapGuard.write(List.of(), List.of(bookedRoomEntity), () -> bookedRoomRepository.deleteBooking(bookedRoomEntity)) == 1) {
+                this.releaseBooked(bookedRoomEntity, reservation);
+            }
+        }
+        this.publishChange(reservation.bookingDay(), reservation.room(), reservation.maskLow(), reservation.maskHigh());
+        idempotencyCache.evict(bookingReference);
+        log.info("Booking {} moved to conference room {}", bookingReference, reservation.room());
+        return reservation.toBookingResponse(bookingReference);
     }
 
     /**
-     * Validate the given time if it crosses the time range
+     * Find the rows of the booking of the given reference
      *
-     * @param start1 the request start time
-     * @param end1   the request end time
-     * @param start2 the start time to check
-     * @param end2   the end time to check
-     * @return true if time crosses the time range
+     * @param bookingReference the booking reference
+     * @return the booking rows, ordered by start time
      */
-    private boolean isTimeCrossing(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        return start1.isBefore(end2) && end1.isAfter(start2);
+    private List<BookedRoomEntity> findBooking(String bookingReference) {
+        List<BookedRoomEntity> bookedRoomEntities = bookedRoomRepository.findByBookingReferenceOrderByStartTime(bookingReference);
+        if (bookedRoomEntities.isEmpty()) {
+            log.debug("No booking found under reference id {}", bookingReference);
+            throw new AppException(AppErrorCode.BOOKING_NOT_FOUND);
+        }
+        return bookedRoomEntities;
     }
 
     /**
-     * Get the ideal conference room based on the given number of people, time range and availability of the room
+     * Release the slots of a deleted or moved booking row, except the ones the row was moved to
      *
-     * @param conferenceRooms the list of conference rooms
-     * @param bookingRequest  the booking request
-     * @return the ideal conference room
+     * @param bookedRoomEntity the booking row
+     * @param movedTo          the reservation the row was moved to, null for a cancelled row
      */
-    private String getIdealConferenceRoom(List<ConferenceRoomsEntity> conferenceRooms, BookingRequest bookingRequest) {
-        String idealRoom = null;
-        int minCapacityDifference = getMaxRoomCapacity(conferenceRooms);
-        int requestedPersonCount = bookingRequest.getPersons();
-        // Validate that requested person count can fit the largest room
-        if (requestedPersonCount > minCapacityDifference) {
-            log.error("Requested number of persons is greater than the largest room capacity");
-            throw new AppException(AppErrorCode.MAX_CAPACITY);
+    private void releaseBooked(BookedRoomEntity bookedRoomEntity, RoomReservation movedTo) {
+        int startSlot = SlotBitmap.slotOf(bookedRoomEntity.getStartTime());
+        int endSlot = SlotBitmap.slotCeil(bookedRoomEntity.getEndTime());
+        long maskLow = SlotBitmap.lowMask(startSlot, endSlot);
+        long maskHigh = SlotBitmap.highMask(startSlot, endSlot);
+        if (movedTo != null && movedTo.bookingDay().equals(bookedRoomEntity.getBookingDate()) && movedTo.room().equals(bookedRoomEntity.getRoomName())) {
+            maskLow &= ~movedTo.maskLow();
+            maskHigh &= ~movedTo.maskHigh();
         }
-        for (ConferenceRoomsEntity rooms : conferenceRooms) {
-            int roomCapacity = rooms.getCapacity();
-            if (requestedPersonCount > roomCapacity) {
-                // Skip this room if requested person count cannot fit the room
-                continue;
+        roomAvailabilityEngine.release(bookedRoomEntity.getBookingDate(), bookedRoomEntity.getRoomName(), maskLow, maskHigh);
+        this.publishChange(bookedRoomEntity.getBookingDate(), bookedRoomEntity.getRoomName(), maskLow, maskHigh);
+    }
+
+    private BookingResponse toBookingResponse(BookedRoomEntity bookedRoomEntity) {
+        return new BookingResponse(bookedRoomEntity.getRoomName(), bookedRoomEntity.getStartTime(), bookedRoomEntity.getEndTime(),
+                bookedRoomEntity.getBookingDate(), bookedRoomEntity.getBookingReference());
+    }
+
+    /**
+     * Books all the requests together against a single availability snapshot, or none of them.
+     * The largest groups are placed first so that smaller groups do not take the large rooms they need, and all the
+     * rows are saved with one saveAll call, in one transaction and in JDBC batches.
+     *
+     * @param batchBookingRequest the batch booking request
+     * @return the booking of each request, in the order of the requests
+     */
+    @Override
+    public BatchBookingResponse bookConferenceRooms(BatchBookingRequest batchBookingRequest) {
+        List<BookingRequest> bookingRequests = batchBookingRequest.getBookings();
+        long stageStart = bookingMetrics.start();
+        CatalogSnapshot catalog = roomCatalog.getSnapshot();
+        stageStart = bookingMetrics.record(Operation.BATCH, Stage.CATALOG, stageStart);
+        List<Integer> placementOrder = IntStream.range(0, bookingRequests.size()).boxed()
+                .sorted(Comparator.comparingInt((Integer index) -> bookingRequests.get(index).getPersons()).reversed())
+                .toList();
+
+        RoomReservation[] reservations = new RoomReservation[bookingRequests.size()];
+        List<BookedRoomEntity> bookedRoomEntities = new ArrayList<>(reservations.length);
+        try {
+            for (int index : placementOrder) {
+                try {
+                    reservations[index] = this.reserveConferenceRoom(catalog, bookingRequests.get(index), null);
+                } catch (AppException e) {
+                    log.debug("Booking request {} of the batch could not be placed", index + 1);
+                    e.setErrorDetails(String.format(AppConstants.BATCH_ITEM_ERROR_FORMATTER, index + 1, e.getErrorDetails()));
+                    throw e;
+                }
             }
-            int capacityDifference = Math.abs(requestedPersonCount - roomCapacity);
-            if (capacityDifference < minCapacityDifference) {
-                // Check if the room name has an existing booking
-                List<BookedRoomEntity> bookedRoomList = bookedRoomRepository.findByRoomName(rooms.getName());
-                if (CollectionUtils.isEmpty(bookedRoomList) || !isAlreadyBooked(bookedRoomList, bookingRequest)) {
-                    // Assign room name if no booking reservation found
-                    minCapacityDifference = capacityDifference;
-                    idealRoom = rooms.getName();
+            stageStart = bookingMetrics.record(Operation.BATCH, Stage.RESERVE, stageStart);
+            for (RoomReservation reservation : reservations) {
+                bookedRoomEntities.add(this.buildBookingDetails(reservation, UUID.randomUUID().toString()));
+            }
+            bookingOverlapGuard.write(bookedRoomEntities, () -> bookedRoomRepository.saveAll(bookedRoomEntities));
+            bookedRoomEntities.forEach(bookedRoomEntity -> log.info("Conference room {} successfully booked under reference id {}",
+                    bookedRoomEntity.getRoomName(), bookedRoomEntity.getBookingReference()));
+        } catch (RuntimeException e) {
+            // All or nothing, give back the slots of the requests already placed
+            for (RoomReservation reservation : reservations) {
+                if (reservation != null) {
+                    this.giveBack(reservation, e);
                 }
             }
+            throw e;
+        }
+        bookingMetrics.record(Operation.BATCH, Stage.SAVE, stageStart);
+
+        List<BookingResponse> bookingResponses = new ArrayList<>(reservations.length);
+        for (int i = 0; i < reservations.length; i++) {
+            RoomReservation reservation = reservations[i];
+            bookingMetrics.recordSlotsWritten(reservation.slotCount());
+            this.publishChange(reservation.bookingDay(), reservation.room(), reservation.maskLow(), reservation.maskHigh());
+            bookingResponses.add(reservation.toBookingResponse(bookedRoomEntities.get(i).getBookingReference()));
         }
-        return idealRoom;
+        return new BatchBookingResponse(bookingResponses);
     }
 
     /**
-     * Check if the room name has an existing booking
+     * Validate the booking request against the maintenance timings and reserve the ideal conference room for it
      *
-     * @param bookedRoomList the list of booked rooms
+     * @param catalog        the room catalog snapshot
      * @param bookingRequest the booking request
-     * @return true if room already booked
+     * @param heldSlots      the slots already held by the booking being moved, null for a new booking
+     * @return the room reservation
      */
-    private boolean isAlreadyBooked(List<BookedRoomEntity> bookedRoomList, BookingRequest bookingRequest) {
-        return bookedRoomList.stream().anyMatch(entity -> isTimeCrossing(LocalTime.parse(entity.getStartTime()), LocalTime.parse(entity.getEndTime()), bookingRequest.getStartTime(), bookingRequest.getEndTime()));
+    private RoomReservation reserveConferenceRoom(CatalogSnapshot catalog, BookingRequest bookingRequest, HeldSlots heldSlots) {
+        int startSlot = SlotBitmap.slotOf(bookingRequest.getStartTime());
+        int endSlot = SlotBitmap.slotCeil(bookingRequest.getEndTime());
+        long maskLow = SlotBitmap.lowMask(startSlot, endSlot);
+        long maskHigh = SlotBitmap.highMask(startSlot, endSlot);
+
+        // Validate the booking time range do not overlap with the maintenance timings
+        if (catalog.isUnderMaintenance(maskLow, maskHigh)) {
+            log.debug("Requested time range overlaps with the maintenance time");
+            throw new AppException(AppErrorCode.ROOM_MAINTENANCE_TIME);
+        }
+
+        LocalDate bookingDay = this.resolveBookingDay(bookingRequest.getBookingDate());
+        roomAvailabilityEngine.load(bookingDay, startSlot, endSlot);
+
+        String idealConferenceRoom = reserveIdealConferenceRoom(catalog.capacityIndex(), bookingRequest.getPersons(), bookingDay, maskLow, maskHigh, heldSlots);
+        if (StringUtils.isBlank(idealConferenceRoom)) {
+            log.debug("No ideal conference room found for the given request");
+            throw new AppException(AppErrorCode.NO_ROOMS_FOUND);
+        }
+        return new RoomReservation(bookingRequest, bookingDay, idealConferenceRoom, maskLow, maskHigh,
+                HeldSlots.unheldLow(heldSlots, bookingDay, idealConferenceRoom, maskLow),
+                HeldSlots.unheldHigh(heldSlots, bookingDay, idealConferenceRoom, maskHigh));
     }
 
     /**
-     * Get the largest room capacity from the list of conference rooms
+     * Release the slots of the reservation
      *
-     * @param conferenceRooms the list of conference rooms
-     * @return the max room capacity
+     * @param reservation the room reservation
      */
-    private int getMaxRoomCapacity(List<ConferenceRoomsEntity> conferenceRooms) {
-        return conferenceRooms.stream()
-                .mapToInt(ConferenceRoomsEntity::getCapacity)
-                .max()
-                .orElse(1);
+    private void release(RoomReservation reservation) {
+        roomAvailabilityEngine.release(reservation.bookingDay(), reservation.room(), reservation.reservedLow(), reservation.reservedHigh());
     }
 
     /**
-     * Save the booking details to the system
+     * Give back the slots of a reservation that could not be saved. Slots the database refused because another node
+     * booked them are read again rather than freed.
      *
-     * @param bookingRequest      the booking request
-     * @param idealConferenceRoom the ideal conference room
-     * @param availableRoomTimes  the list of available room times
+     * @param reservation the room reservation
+     * @param failure     the failure of the save
      */
-    private void saveBookingDetails(BookingRequest bookingRequest, String idealConferenceRoom, List<String> availableRoomTimes) {
-        String bookingReference = UUID.randomUUID().toString();
-        LocalDateTime bookingDateTime = LocalDateTime.now();
-        log.info("Saving booking details under reference id {}", bookingReference);
-        for (String time : availableRoomTimes) {
-            String startTime = StringUtils.normalizeSpace(StringUtils.substringBefore(time, AppConstants.DASH_SPLITTER));
-            String endTime = StringUtils.normalizeSpace(StringUtils.substringAfter(time, AppConstants.DASH_SPLITTER));
-            BookedRoomEntity bookedRoomEntity = new BookedRoomEntity();
-            bookedRoomEntity.setRoomName(idealConferenceRoom);
-            bookedRoomEntity.setStartTime(startTime);
-            bookedRoomEntity.setEndTime(endTime);
-            bookedRoomEntity.setNumberOfPersons(bookingRequest.getPersons());
-            bookedRoomEntity.setBookedBy(StringUtils.defaultIfBlank(bookingRequest.getUserName(), AppConstants.DEFAULT_USER_NAME));
-            bookedRoomEntity.setBookingReference(bookingReference);
-            bookedRoomEntity.setBookingDateTime(bookingDateTime);
-            bookedRoomRepository.save(bookedRoomEntity);
+    private void giveBack(RoomReservation reservation, RuntimeException failure) {
+        if (bookingOverlapGuard.isConflict(failure)) {
+            roomAvailabilityEngine.refresh(reservation.bookingDay(), reservation.room(), reservation.reservedLow(), reservation.reservedHigh());
+        } else {
+            this.release(reservation);
         }
-        log.info("Conference room {} successfully booked under reference id {}", idealConferenceRoom, bookingReference);
+    }
+
+    /**
+     * Publish the booked or released slots of a room to the availability stream
+     *
+     * @param bookingDay the booking day
+     * @param roomName   the room name
+     * @param maskLow    the low word mask of the changed slots
+     * @param maskHigh   the high word mask of the changed slots
+     */
+    private void publishChange(LocalDate bookingDay, String roomName, long maskLow, long maskHigh) {
+        if ((maskLow | maskHigh) != 0) {
+            eventPublisher.publishEvent(new RoomAvailabilityChangedEvent(bookingDay, roomName, maskLow, maskHigh));
+        }
+    }
+
+    /**
+     * Reserve the ideal conference room based on the given number of people, time range and availability of the room.
+     * The smallest fitting room is found with a ceiling search and larger rooms are only tried until one is reserved.
+     * The check and the reservation of each room are a single atomic step, so two concurrent requests can never get
+     * the same slots of a room.
+     *
+     * @param capacityIndex        the conference rooms ordered by capacity
+     * @param requestedPersonCount the requested number of persons
+     * @param bookingDay           the booking day
+     * @param maskLow              the low word mask of the requested slots
+     * @param maskHigh             the high word mask of the requested slots
+     * @param heldSlots            the slots already held by the booking being moved, null for a new booking
+     * @return the reserved conference room, or null if none is free
+     */
+    private String reserveIdealConferenceRoom(RoomCapacityIndex capacityIndex, int requestedPersonCount,
+                                          LocalDate bookingDay, long maskLow, long maskHigh, HeldSlots heldSlots) {
+        // Validate that requested person count can fit the largest room
+        if (requestedPersonCount > capacityIndex.maxCapacity()) {
+            log.debug("Requested number of persons is greater than the largest room capacity");
+            throw new AppException(AppErrorCode.MAX_CAPACITY);
+        }
+        // Skip the rooms when a slot has no free room that fits, without looking at the bitmap of each room.
+        // The counters see the held slots as booked, so they cannot rule out a move.
+        if (heldSlots == null && roomAvailabilityEngine.isFull(bookingDay, capacityIndex, requestedPersonCount, maskLow, maskHigh)) {
+            bookingMetrics.recordRoomsScanned(0);
+            return null;
+        }
+        int firstIndex = capacityIndex.ceilingIndex(requestedPersonCount);
+        for (int i = firstIndex; i < capacityIndex.size(); i++) {
+            // Assign the first room whose requested slots can be reserved
+            String roomName = capacityIndex.roomAt(i);
+            if (roomAvailabilityEngine.tryReserve(bookingDay, roomName, HeldSlots.unheldLow(heldSlots, bookingDay, roomName, maskLow),
+                    HeldSlots.unheldHigh(heldSlots, bookingDay, roomName, maskHigh))) {
+                bookingMetrics.recordRoomsScanned(i - firstIndex + 1);
+                return roomName;
+            }
+        }
+        bookingMetrics.recordRoomsScanned(capacityIndex.size() - firstIndex);
+        return null;
+    }
+
+    /**
+     * Build the booking details as a single row covering the whole requested time range
+     *
+     * @param reservation      the room reservation
+     * @param bookingReference the booking reference
+     * @return the booked room entity
+     */
+    private BookedRoomEntity buildBookingDetails(RoomReservation reservation, String bookingReference) {
+        BookingRequest bookingRequest = reservation.bookingRequest();
+        log.info("Saving booking details under reference id {}", bookingReference);
+        BookedRoomEntity bookedRoomEntity = new BookedRoomEntity();
+        bookedRoomEntity.setBookingDate(reservation.bookingDay());
+        bookedRoomEntity.setRoomName(reservation.room());
+        bookedRoomEntity.setStartTime(bookingRequest.getStartTime());
+        bookedRoomEntity.setEndTime(bookingRequest.getEndTime());
+        bookedRoomEntity.setNumberOfPersons(bookingRequest.getPersons());
+        bookedRoomEntity.setBookedBy(StringUtils.defaultIfBlank(bookingRequest.getUserName(), AppConstants.DEFAULT_USER_NAME));
+        bookedRoomEntity.setBookingReference(bookingReference);
+        bookedRoomEntity.setBookingDateTime(LocalDateTime.now(clock));
+        return bookedRoomEntity;
     }
 
     /**
      * Find available rooms view room response by the given time range
      *
      * @param viewRoomRequest the view room request
+     * @param viewFormat      the format of the free times of each room
      * @return the view room response
      */
     @Override
-    public ViewRoomResponse findAvailableRooms(ViewRoomRequest viewRoomRequest) {
+    public ViewRoomResponse findAvailableRooms(ViewRoomRequest viewRoomRequest, ViewFormat viewFormat) {
         LocalTime requestStartTime = viewRoomRequest.getStartTime();
         LocalTime requestEndTime = viewRoomRequest.getEndTime();
         if (requestStartTime.equals(LocalTime.of(23, 45)) || requestStartTime.isAfter(LocalTime.of(23, 45))) {
-            log.error("No available rooms found for the end of the day time range");
+            log.debug("No available rooms found for the end of the day time range");
             throw new AppException(AppErrorCode.NO_ROOMS_FOUND);
         }
-        // Generate the booking timings with 15 minutes interval based on the given time range
-        List<String> availableTimes = generateBookingTimes(requestStartTime, requestEndTime);
-
-        // Get the maintenance timings and remove the time from the list of booking times
-        List<MaintenanceTimeEntity> maintenanceTimeEntities = maintenanceTimeRepository.findAll();
-        List<String> maintenanceList = maintenanceTimeEntities.stream().map(x -> String.format(AppConstants.TIME_RANGE_FORMATTER, x.getStartTime(), x.getEndTime())).toList();
-        // Remove maintenance times from the available room times
-        availableTimes.removeAll(maintenanceList);
+        // Remove the maintenance slots from the requested slots
+        long stageStart = bookingMetrics.start();
+        CatalogSnapshot catalog = roomCatalog.getSnapshot();
+        stageStart = bookingMetrics.record(Operation.VIEW, Stage.CATALOG, stageStart);
+        int startSlot = SlotBitmap.slotOf(requestStartTime);
+        int endSlot = SlotBitmap.slotCeil(requestEndTime);
+        long freeLow = SlotBitmap.lowMask(startSlot, endSlot) & ~catalog.maintenanceLow();
+        long freeHigh = SlotBitmap.highMask(startSlot, endSlot) & ~catalog.maintenanceHigh();
 
-        if (CollectionUtils.isEmpty(availableTimes)) {
-            log.error("No available rooms found for the given time range");
+        if ((freeLow | freeHigh) == 0) {
+            log.debug("No available rooms found for the given time range");
             throw new AppException(AppErrorCode.NO_ROOMS_FOUND);
         }
 
         ViewRoomResponse viewRoomResponse = new ViewRoomResponse();
-        List<ViewRoomResponse.RoomDetails> availableRooms = new ArrayList<>();
-        // Collect all conference rooms
-        List<ConferenceRoomsEntity> conferenceRooms = conferenceRoomRepository.findAll();
-        for (ConferenceRoomsEntity room : conferenceRooms) {
-            availableRooms.add(new ViewRoomResponse.RoomDetails(room.getName(), room.getCapacity(), availableTimes));
+        List<ViewRoomResponse.RoomDetails> availableRooms = new ArrayList<>(catalog.rooms().size());
+        LocalDate bookingDay = this.resolveBookingDay(viewRoomRequest.getBookingDate());
+        viewRoomResponse.setBookingDate(bookingDay);
+        roomAvailabilityEngine.load(bookingDay, startSlot, endSlot);
+        stageStart = bookingMetrics.record(Operation.VIEW, Stage.LOAD, stageStart);
+        // Remove the booked slots of each conference room, the slots are only turned into labels for the response
+        for (RoomInfo room : catalog.rooms()) {
+            long roomFreeLow = roomAvailabilityEngine.freeLow(bookingDay, room.name(), freeLow);
+            long roomFreeHigh = roomAvailabilityEngine.freeHigh(bookingDay, room.name(), freeHigh);
+            availableRooms.add(buildRoomDetails(room, viewFormat, roomFreeLow, roomFreeHigh, startSlot));
         }
 
-        // Map the booked timings for each room
-        Map<String, List<String>> bookedRoomMap = new HashMap<>();
-        List<BookedRoomEntity> bookedRoomList = bookedRoomRepository.getBookedRoomByTime(requestStartTime.toString(), requestEndTime.toString());
-        if (CollectionUtils.isNotEmpty(bookedRoomList)) {
-            List<String> bookedRoomTiming = new ArrayList<>();
-            for (BookedRoomEntity bookedRoom : bookedRoomList) {
-                bookedRoomTiming.add(String.format(AppConstants.TIME_RANGE_FORMATTER, bookedRoom.getStartTime(), bookedRoom.getEndTime()));
-                bookedRoomMap.put(bookedRoom.getRoomName(), bookedRoomTiming);
-            }
+        viewRoomResponse.setAvailableRooms(availableRooms);
+        bookingMetrics.record(Operation.VIEW, Stage.RENDER, stageStart);
+        return viewRoomResponse;
+    }
+
+    /**
+     * Check if a room for the persons of the request is free for its whole time range, without booking it.
+     * The free room counters of the day answer most requests, the rooms themselves are only looked at when some of
+     * the rooms that fit are booked during the range, until a free one is found.
+     *
+     * @param bookingRequest the booking request
+     * @return the availability response
+     */
+    @Override
+    public AvailabilityResponse checkAvailability(BookingRequest bookingRequest) {
+        CatalogSnapshot catalog = roomCatalog.getSnapshot();
+        RoomCapacityIndex capacityIndex = catalog.capacityIndex();
+        int persons = bookingRequest.getPersons();
+        int startSlot = SlotBitmap.slotOf(bookingRequest.getStartTime());
+        int endSlot = SlotBitmap.slotCeil(bookingRequest.getEndTime());
+        long maskLow = SlotBitmap.lowMask(startSlot, endSlot);
+        long maskHigh = SlotBitmap.highMask(startSlot, endSlot);
+        LocalDate bookingDay = this.resolveBookingDay(bookingRequest.getBookingDate());
+        AvailabilityResponse availabilityResponse = new AvailabilityResponse(bookingDay, bookingRequest.getStartTime(),
+                bookingRequest.getEndTime(), persons, false);
+        if (persons > capacityIndex.maxCapacity() || catalog.isUnderMaintenance(maskLow, maskHigh)) {
+            return availabilityResponse;
         }
 
-        for (ViewRoomResponse.RoomDetails roomDetails : availableRooms) {
-            String room = roomDetails.getRoom();
-            List<String> bookedRoomTimings = bookedRoomMap.get(room);
-            if (CollectionUtils.isNotEmpty(bookedRoomTimings)) {
-                // Remove the booked timings from the generated list of available time
-                List<String> filteredTiming = new ArrayList<>(roomDetails.getTime());
-                filteredTiming.removeAll(bookedRoomTimings);
-                roomDetails.setTime(filteredTiming);
-            }
+        roomAvailabilityEngine.load(bookingDay, startSlot, endSlot);
+        int minFreeRooms = roomAvailabilityEngine.minFreeRooms(bookingDay, capacityIndex, persons, maskLow, maskHigh);
+        int firstIndex = capacityIndex.ceilingIndex(persons);
+        // When every room that fits is free at every slot the counters are exact, otherwise find one free room
+        boolean available = minFreeRooms == capacityIndex.size() - firstIndex;
+        boolean full = minFreeRooms == 0 && roomAvailabilityEngine.isFull(bookingDay, capacityIndex, persons, maskLow, maskHigh);
+        for (int i = firstIndex; !full && !available && i < capacityIndex.size(); i++) {
+            available = roomAvailabilityEngine.isAvailable(bookingDay, capacityIndex.roomAt(i), maskLow, maskHigh);
         }
+        availabilityResponse.setAvailable(available);
+        return availabilityResponse;
+    }
 
-        viewRoomResponse.setAvailableRooms(availableRooms);
-        return viewRoomResponse;
+    @Override
+    public boolean isAvailabilityLoaded(LocalDate bookingDate, LocalTime startTime, LocalTime endTime) {
+        return roomCatalog.isLoaded() && roomAvailabilityEngine.isLoaded(this.resolveBookingDay(bookingDate),
+                SlotBitmap.slotOf(startTime), SlotBitmap.slotCeil(endTime));
     }
 
+    /**
+     * Get the day of the request, defaulting to today
+     *
+     * @param bookingDate the requested booking date
+     * @return the booking day
+     */
+    private LocalDate resolveBookingDay(LocalDate bookingDate) {
+        return bookingDate != null ? bookingDate : LocalDate.now(clock);
+    }
 
     /**
-     * Create the list of time range from the given start and end time
+     * Build the room details with the free slots of the room in the requested format
      *
-     * @param startTime the requested start time
-     * @param endTime   the requested end time
-     * @return the list of booking times
+     * @param room       the conference room
+     * @param viewFormat the format of the free times
+     * @param freeLow    the low word mask of the free slots
+     * @param freeHigh   the high word mask of the free slots
+     * @param startSlot  the first requested slot
+     * @return the room details
      */
-    private List<String> generateBookingTimes(LocalTime startTime, LocalTime endTime) {
-        List<String> bookingTimes = new ArrayList<>();
-        LocalTime currentTime = startTime;
-        int intervalMinutes = 15;
-        while (currentTime.isBefore(endTime)) {
-            bookingTimes.add(String.format(AppConstants.TIME_RANGE_FORMATTER, currentTime, currentTime.plusMinutes(intervalMinutes)));
-            currentTime = currentTime.plusMinutes(intervalMinutes);
+    private ViewRoomResponse.RoomDetails buildRoomDetails(RoomInfo room, ViewFormat viewFormat, long freeLow, long freeHigh, int startSlot) {
+        ViewRoomResponse.RoomDetails roomDetails = new ViewRoomResponse.RoomDetails();
+        roomDetails.setRoom(room.name());
+        roomDetails.setCapacity(room.capacity());
+        switch (viewFormat) {
+            case RANGES -> roomDetails.setRanges(SlotBitmap.rangeLabelsOf(freeLow, freeHigh));
+            case BITMAP -> roomDetails.setBitmap(SlotBitmap.encode(freeLow, freeHigh));
+            default -> {
+                List<String> roomTimes = new ArrayList<>(Long.bitCount(freeLow) + Long.bitCount(freeHigh));
+                for (int slot = SlotBitmap.nextSlot(freeLow, freeHigh, startSlot); slot >= 0; slot = SlotBitmap.nextSlot(freeLow, freeHigh, slot + 1)) {
+                    roomTimes.add(SlotBitmap.labelOf(slot));
+                }
+                roomDetails.setTime(roomTimes);
+            }
+        }
+        return roomDetails;
+    }
+
+    /**
+     * Slots of a room reserved in the availability engine for a booking request that is not saved yet
+     *
+     * @param bookingRequest the booking request
+     * @param bookingDay     the booking day
+     * @param room           the reserved room
+     * @param maskLow        the low word mask of the requested slots
+     * @param maskHigh       the high word mask of the requested slots
+     * @param reservedLow    the low word mask of the slots reserved for the request, without the ones it already held
+     * @param reservedHigh   the high word mask of the slots reserved for the request, without the ones it already held
+     */
+    private record RoomReservation(BookingRequest bookingRequest, LocalDate bookingDay, String room, long maskLow, long maskHigh,
+                                   long reservedLow, long reservedHigh) {
+
+        private BookingResponse toBookingResponse(String bookingReference) {
+            return new BookingResponse(room, bookingRequest.getStartTime(), bookingRequest.getEndTime(), bookingDay, bookingReference);
+        }
+
+        private int slotCount() {
+            return Long.bitCount(maskLow) + Long.bitCount(maskHigh);
         }
-        return bookingTimes;
     }
 
+    /**
+     * Slots of one room and day already held by the booking being moved, which the move may keep
+     *
+     * @param bookingDay the booking day
+     * @param room       the booked room
+     * @param maskLow    the low word mask of the held slots
+     * @param maskHigh   the high word mask of the held slots
+     */
+    private record HeldSlots(LocalDate bookingDay, String room, long maskLow, long maskHigh) {
+
+        private static HeldSlots of(List<BookedRoomEntity> bookedRoomEntities) {
+            BookedRoomEntity first = bookedRoomEntities.get(0);
+            long maskLow = 0L;
+            long maskHigh = 0L;
+            for (BookedRoomEntity bookedRoomEntity : bookedRoomEntities) {
+                if (bookedRoomEntity.getBookingDate().equals(first.getBookingDate()) && bookedRoomEntity.getRoomName().equals(first.getRoomName())) {
+                    int startSlot = SlotBitmap.slotOf(bookedRoomEntity.getStartTime());
+                    int endSlot = SlotBitmap.slotCeil(bookedRoomEntity.getEndTime());
+                    maskLow |= SlotBitmap.lowMask(startSlot, endSlot);
+                    maskHigh |= SlotBitmap.highMask(startSlot, endSlot);
+                }
+            }
+            return new HeldSlots(first.getBookingDate(), first.getRoomName(), maskLow, maskHigh);
+        }
+
+        private static long unheldLow(HeldSlots heldSlots, LocalDate bookingDay, String roomName, long maskLow) {
+            return heldSlots != null && heldSlots.isOf(bookingDay, roomName) ? maskLow & ~heldSlots.maskLow : maskLow;
+        }
+
+        private static long unheldHigh(HeldSlots heldSlots, LocalDate bookingDay, String roomName, long maskHigh) {
+            return heldSlots != null && heldSlots.isOf(bookingDay, roomName) ? maskHigh & ~heldSlots.maskHigh : maskHigh;
+        }
+
+        private boolean isOf(LocalDate day, String roomName) {
+            return bookingDay.equals(day) && room.equals(roomName);
+        }
+    }
 }
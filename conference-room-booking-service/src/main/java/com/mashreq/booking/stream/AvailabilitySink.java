@@ -0,0 +1,32 @@
+package com.mashreq.booking.stream;
+
+import java.io.IOException;
+
+/**
+ * The connection of a subscriber of the availability stream, an SSE emitter or a reactive sink.
+ *
+ * @author janv@mashreq.com
+ */
+public interface AvailabilitySink {
+
+    /**
+     * Check if the subscriber can take an event now, the pending changes stay buffered otherwise
+     *
+     * @return true if an event can be sent
+     */
+    boolean isReady();
+
+    /**
+     * Send an event to the subscriber
+     *
+     * @param eventName the event name
+     * @param data      the event data
+     * @throws IOException if the connection is gone
+     */
+    void send(String eventName, Object data) throws IOException;
+
+    /**
+     * Close the connection of the subscriber
+     */
+    void complete();
+}
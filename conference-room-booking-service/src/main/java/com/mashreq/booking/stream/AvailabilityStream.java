@@ -0,0 +1,197 @@
+package com.mashreq.booking.stream;
+
+import com.mashreq.booking.availability.CatalogChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.model.AvailabilityDelta;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the changes of room availability to the subscribers of the availability stream, once they are committed.
+ * <p>
+ * Each change is buffered per subscriber and the subscribers are drained on a small dispatcher pool, so a booking
+ * never waits for a client. The event of a room is built from the availability engine when it is sent, so the
+ * changes coalesced while a subscriber was busy go out as the current state of the room. The blocking writes of the
+ * servlet subscribers run on writer threads, one write at a time per subscriber.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@Slf4j
+public class AvailabilityStream {
+
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final int bufferSize;
+    @Getter
+    private final Duration timeout;
+    private final ExecutorService dispatcher;
+    private final ExecutorService writer;
+
+    private final Set<AvailabilitySubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public AvailabilityStream(RoomAvailabilityEngine roomAvailabilityEngine,
+                              @Value("${booking.stream.buffer-size}") int bufferSize,
+                              @Value("${booking.stream.timeout}") Duration timeout,
+                              @Value("${booking.stream.dispatch-threads}") int dispatchThreads) {
+        this.roomAvailabilityEngine = roomAvailabilityEngine;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A stalled client holds a writer thread until the container write timeout, never a dispatcher thread
+        AtomicInteger writerCount = new AtomicInteger();
+        this.writer = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "availability-stream-writer-" + writerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribe to the availability changes
+     *
+     * @param bookingDate the day to follow, or null for all days
+     * @param sink        the connection of the subscriber
+     * @return the subscriber
+     */
+    public AvailabilitySubscriber subscribe(LocalDate bookingDate, AvailabilitySink sink) {
+        return this.register(new AvailabilitySubscriber(bookingDate, sink, bufferSize));
+    }
+
+    /**
+     * Subscribe a servlet SSE emitter to the availability changes. The subscriber takes the next event once the
+     * previous one has been written to the client.
+     *
+     * @param bookingDate the day to follow, or null for all days
+     * @param emitter     the SSE emitter of the subscriber
+     * @return the subscriber
+     */
+    public AvailabilitySubscriber subscribe(LocalDate bookingDate, SseEmitter emitter) {
+        SseEmitterSink sink = new SseEmitterSink(emitter, writer);
+        AvailabilitySubscriber subscriber = new AvailabilitySubscriber(bookingDate, sink, bufferSize);
+        sink.callbacks(() -> this.resume(subscriber), () -> this.unsubscribe(subscriber));
+        return this.register(subscriber);
+    }
+
+    /**
+     * Remove the subscriber once its connection is closed
+     *
+     * @param subscriber the subscriber
+     */
+    public void unsubscribe(AvailabilitySubscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            log.debug("Availability stream unsubscribed, {} subscribers", subscribers.size());
+        }
+    }
+
+    /**
+     * Send the pending events of a subscriber that can take events again
+     *
+     * @param subscriber the subscriber
+     */
+    public void resume(AvailabilitySubscriber subscriber) {
+        if (subscriber.isDrainable()) {
+            this.schedule(subscriber);
+        }
+    }
+
+    /**
+     * Buffer the committed change for the subscribers following its day
+     *
+     * @param event the room availability changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(RoomAvailabilityChangedEvent event) {
+        for (AvailabilitySubscriber subscriber : subscribers) {
+            if (subscriber.follows(event.bookingDate())) {
+                subscriber.addChange(event.bookingDate(), event.roomName(), event.maskLow(), event.maskHigh());
+                this.schedule(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Ask every subscriber to resync, maintenance windows and rooms apply to all days
+     *
+     * @param event the catalog changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        for (AvailabilitySubscriber subscriber : subscribers) {
+            subscriber.resync("catalog-changed");
+            this.schedule(subscriber);
+        }
+    }
+
+    /**
+     * Close the connections of all the subscribers
+     */
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        writer.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.getSink().complete());
+        subscribers.clear();
+    }
+
+    private AvailabilitySubscriber register(AvailabilitySubscriber subscriber) {
+        subscribers.add(subscriber);
+        log.debug("Availability stream subscribed for {}, {} subscribers", subscriber.getBookingDate() != null ? subscriber.getBookingDate() : "all days", subscribers.size());
+        return subscriber;
+    }
+
+    private void schedule(AvailabilitySubscriber subscriber) {
+        if (!subscriber.schedule()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> this.drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            log.debug("Availability stream is closed");
+        }
+    }
+
+    private void drain(AvailabilitySubscriber subscriber) {
+        try {
+            do {
+                while (subscriber.sendNext(this::toAvailabilityDelta)) {
+                    // Send until the buffer is empty or the subscriber cannot take more
+                }
+                subscriber.unschedule();
+                // A change added after the last send and before the unschedule would otherwise wait for the next one
+            } while (subscriber.isDrainable() && subscriber.schedule());
+        } catch (IOException | RuntimeException e) {
+            log.debug("Availability stream subscriber dropped: {}", e.getMessage());
+            this.unsubscribe(subscriber);
+        }
+    }
+
+    private AvailabilityDelta toAvailabilityDelta(AvailabilitySubscriber.PendingChange change) {
+        long freeLow = roomAvailabilityEngine.freeLow(change.day(), change.roomName(), change.maskLow());
+        long freeHigh = roomAvailabilityEngine.freeHigh(change.day(), change.roomName(), change.maskHigh());
+        return new AvailabilityDelta(change.day(), change.roomName(),
+                SlotBitmap.rangeLabelsOf(change.maskLow() & ~freeLow, change.maskHigh() & ~freeHigh),
+                SlotBitmap.rangeLabelsOf(freeLow, freeHigh));
+    }
+}
@@ -0,0 +1,167 @@
+package com.mashreq.booking.stream;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A subscriber of the availability stream with its bounded buffer of pending changes.
+ * <p>
+ * Changes are coalesced per room and day, so a slow subscriber gets one event with the current state of a room rather
+ * than every booking made in the meantime. When more rooms are pending than the buffer holds, the buffer is dropped
+ * and the subscriber is told to resync with a new view instead.
+ *
+ * @author janv@mashreq.com
+ */
+public final class AvailabilitySubscriber {
+
+    static final String AVAILABILITY_EVENT = "availability";
+    static final String RESYNC_EVENT = "resync";
+
+    private final LocalDate bookingDate;
+    private final AvailabilitySink sink;
+    private final int bufferSize;
+    private final Map<RoomDay, long[]> pendingChanges = new LinkedHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private String resyncReason;
+
+    AvailabilitySubscriber(LocalDate bookingDate, AvailabilitySink sink, int bufferSize) {
+        this.bookingDate = bookingDate;
+        this.sink = sink;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Check if the subscriber follows the given day
+     *
+     * @param day the booking day
+     * @return true if the subscriber follows all days or this day
+     */
+    boolean follows(LocalDate day) {
+        return bookingDate == null || bookingDate.equals(day);
+    }
+
+    /**
+     * Buffer the changed slots of a room, merged with the pending changes of the same room and day
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the changed slots
+     * @param maskHigh the high word mask of the changed slots
+     */
+    synchronized void addChange(LocalDate day, String roomName, long maskLow, long maskHigh) {
+        if (resyncReason != null) {
+            // The subscriber reads everything again anyway
+            return;
+        }
+        long[] masks = pendingChanges.get(new RoomDay(day, roomName));
+        if (masks != null) {
+            masks[0] |= maskLow;
+            masks[1] |= maskHigh;
+        } else if (pendingChanges.size() < bufferSize) {
+            pendingChanges.put(new RoomDay(day, roomName), new long[]{maskLow, maskHigh});
+        } else {
+            this.resync("buffer-overflow");
+        }
+    }
+
+    /**
+     * Replace the pending changes by a resync request
+     *
+     * @param reason the resync reason
+     */
+    synchronized void resync(String reason) {
+        pendingChanges.clear();
+        resyncReason = reason;
+    }
+
+    /**
+     * Check if there are pending events the subscriber can take now
+     *
+     * @return true if the subscriber should be drained
+     */
+    boolean isDrainable() {
+        synchronized (this) {
+            if (resyncReason == null && pendingChanges.isEmpty()) {
+                return false;
+            }
+        }
+        return sink.isReady();
+    }
+
+    /**
+     * Send the next pending event, a resync first
+     *
+     * @param deltas builds the event data of a pending change
+     * @return true if an event was sent, false if nothing is pending or the subscriber cannot take an event now
+     * @throws IOException if the connection is gone
+     */
+    boolean sendNext(Function<PendingChange, Object> deltas) throws IOException {
+        if (!sink.isReady()) {
+            return false;
+        }
+        String reason;
+        PendingChange change = null;
+        synchronized (this) {
+            reason = resyncReason;
+            resyncReason = null;
+            if (reason == null && !pendingChanges.isEmpty()) {
+                Iterator<Map.Entry<RoomDay, long[]>> iterator = pendingChanges.entrySet().iterator();
+                Map.Entry<RoomDay, long[]> pending = iterator.next();
+                iterator.remove();
+                change = new PendingChange(pending.getKey().day(), pending.getKey().roomName(), pending.getValue()[0], pending.getValue()[1]);
+            }
+        }
+        if (reason != null) {
+            sink.send(RESYNC_EVENT, reason);
+            return true;
+        }
+        if (change == null) {
+            return false;
+        }
+        sink.send(AVAILABILITY_EVENT, deltas.apply(change));
+        return true;
+    }
+
+    /**
+     * Mark the subscriber as scheduled for a drain
+     *
+     * @return true if it was not scheduled yet
+     */
+    boolean schedule() {
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Mark the drain of the subscriber as finished
+     */
+    void unschedule() {
+        scheduled.set(false);
+    }
+
+    LocalDate getBookingDate() {
+        return bookingDate;
+    }
+
+    AvailabilitySink getSink() {
+        return sink;
+    }
+
+    /**
+     * The changed slots of a room taken from the buffer
+     *
+     * @param day      the booking day
+     * @param roomName the room name
+     * @param maskLow  the low word mask of the changed slots
+     * @param maskHigh the high word mask of the changed slots
+     */
+    record PendingChange(LocalDate day, String roomName, long maskLow, long maskHigh) {
+    }
+
+    private record RoomDay(LocalDate day, String roomName) {
+    }
+}
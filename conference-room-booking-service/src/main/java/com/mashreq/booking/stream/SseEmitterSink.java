@@ -0,0 +1,82 @@
+package com.mashreq.booking.stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The connection of a servlet subscriber, an {@link SseEmitter}. The emitter blocks until the client takes the data,
+ * so each event is written on a writer thread and the subscriber is only ready again once that write has finished.
+ * The changes of a slow client stay coalesced in its buffer and the dispatcher threads never wait for it.
+ *
+ * @author janv@mashreq.com
+ */
+final class SseEmitterSink implements AvailabilitySink {
+
+    private final SseEmitter emitter;
+    private final Executor writer;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile Runnable onWritten = () -> {
+    };
+    private volatile Runnable onFailed = () -> {
+    };
+
+    SseEmitterSink(SseEmitter emitter, Executor writer) {
+        this.emitter = emitter;
+        this.writer = writer;
+    }
+
+    /**
+     * Set what to do once a write has finished or failed
+     *
+     * @param onWritten called after each successful write, with the subscriber ready again
+     * @param onFailed  called once a write failed, the connection is gone
+     */
+    void callbacks(Runnable onWritten, Runnable onFailed) {
+        this.onWritten = onWritten;
+        this.onFailed = onFailed;
+    }
+
+    @Override
+    public boolean isReady() {
+        return !closed && !writing.get();
+    }
+
+    @Override
+    public void send(String eventName, Object data) throws IOException {
+        if (!writing.compareAndSet(false, true)) {
+            throw new IllegalStateException("An availability event is already being written");
+        }
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON);
+        try {
+            writer.execute(() -> this.write(event));
+        } catch (RejectedExecutionException e) {
+            writing.set(false);
+            throw new IOException("The availability stream is closed", e);
+        }
+    }
+
+    @Override
+    public void complete() {
+        closed = true;
+        emitter.complete();
+    }
+
+    private void write(SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | RuntimeException e) {
+            closed = true;
+            writing.set(false);
+            onFailed.run();
+            return;
+        }
+        writing.set(false);
+        onWritten.run();
+    }
+}
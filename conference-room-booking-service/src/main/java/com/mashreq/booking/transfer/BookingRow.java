@@ -0,0 +1,29 @@
+package com.mashreq.booking.transfer;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A row of the BOOKED_ROOM table as exported and imported.
+ *
+ * @param bookingReference the booking reference, generated on import when not given
+ * @param bookingDate      the booking day
+ * @param roomName         the room name
+ * @param startTime        the start of the booking
+ * @param endTime          the end of the booking
+ * @param persons          the number of persons
+ * @param bookedBy         the user who booked the room
+ * @param bookingDateTime  when the room was booked, the import time when not given
+ * @author janv@mashreq.com
+ */
+public record BookingRow(String bookingReference, @NotNull LocalDate bookingDate, @NotBlank String roomName,
+                         @NotNull @JsonFormat(pattern = "HH:mm") LocalTime startTime,
+                         @NotNull @JsonFormat(pattern = "HH:mm") LocalTime endTime,
+                         @NotNull @Positive Integer persons, String bookedBy, LocalDateTime bookingDateTime) {
+}
@@ -0,0 +1,599 @@
+package com.mashreq.booking.transfer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mashreq.booking.availability.CatalogChangedEvent;
+import com.mashreq.booking.availability.CatalogSnapshot;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.RoomCatalog;
+import com.mashreq.booking.availability.RoomInfo;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.cluster.BookingOverlapGuard;
+import com.mashreq.booking.constants.AppConstants;
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.TransferFormat;
+import com.mashreq.booking.enums.TransferTable;
+import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.model.ImportResponse;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.ConferenceRoomRepository;
+import com.mashreq.booking.repo.MaintenanceTimeRepository;
+import com.mashreq.booking.transfer.RowReader.ImportRow;
+import com.mashreq.booking.validation.ValidationConstants;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exports and imports the CONFERENCE_ROOMS, MAINTENANCE_TIME and BOOKED_ROOM tables in bulk, as NDJSON or CSV.
+ * <p>
+ * Both directions stream: an export writes each row to the output as it is fetched from the database cursor, an
+ * import reads one row at a time and writes the valid rows in chunks, each chunk in its own transaction. Only a chunk
+ * of rows is held in memory, whatever the size of the table. A failed chunk stops the import, the chunks written
+ * before it stay.
+ * <p>
+ * Rooms and maintenance windows are inserted with JDBC batches, their identity keys cannot be batched by JPA and the
+ * catalog is reloaded once at the end rather than for each row. Bookings of today onwards are checked against the
+ * maintenance windows and reserved in memory as if they were booked through the API, so an import never double-books
+ * a room. Bookings of past days are history and are imported as they are.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@Slf4j
+public class BulkTransfer {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(1, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+    private static final TypeReference<Map<String, Object>> ROW_VALUES = new TypeReference<>() {
+    };
+
+    private final ConferenceRoomRepository conferenceRoomRepository;
+    private final MaintenanceTimeRepository maintenanceTimeRepository;
+    private final BookedRoomRepository bookedRoomRepository;
+    private final RoomCatalog roomCatalog;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final BookingOverlapGuard bookingOverlapGuard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Clock clock;
+    private final Period horizon;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public BulkTransfer(ConferenceRoomRepository conferenceRoomRepository, MaintenanceTimeRepository maintenanceTimeRepository,
+                        BookedRoomRepository bookedRoomRepository, RoomCatalog roomCatalog, RoomAvailabilityEngine roomAvailabilityEngine,
+                        BookingOverlapGuard bookingOverlapGuard, ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager, EntityManager entityManager, ObjectMapper objectMapper,
+                        Validator validator, Clock clock, @Value("${booking.calendar.horizon}") Period horizon,
+                        @Value("${booking.transfer.chunk-size}") int chunkSize,
+                        @Value("${booking.transfer.max-errors}") int maxErrors) {
+        this.conferenceRoomRepository = conferenceRoomRepository;
+        this.maintenanceTimeRepository = maintenanceTimeRepository;
+        this.bookedRoomRepository = bookedRoomRepository;
+        this.roomCatalog = roomCatalog;
+        this.roomAvailabilityEngine = roomAvailabilityEngine;
+        this.bookingOverlapGuard = bookingOverlapGuard;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.clock = clock;
+        this.horizon = horizon;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Write the rows of a table to the output, as they are fetched from the database
+     *
+     * @param table        the table
+     * @param format       the format of the rows
+     * @param from         the first booking day of the exported bookings, all days if null
+     * @param to           the last booking day of the exported bookings, all days if null
+     * @param outputStream the output, left open
+     * @throws IOException if the output cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void export(TransferTable table, TransferFormat format, LocalDate from, LocalDate to, OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long rows = switch (table) {
+            case ROOMS -> {
+                try (Stream<RoomRow> roomRows = conferenceRoomRepository.streamRoomRows()) {
+                    yield this.writeRows(roomRows, RoomRow.class, format, writer);
+                }
+            }
+            case MAINTENANCE -> {
+                try (Stream<MaintenanceRow> maintenanceRows = maintenanceTimeRepository.streamMaintenanceRows()) {
+                    yield this.writeRows(maintenanceRows, MaintenanceRow.class, format, writer);
+                }
+            }
+            case BOOKINGS -> {
+                try (Stream<BookingRow> bookingRows = bookedRoomRepository.streamBookingRows(Objects.requireNonNullElse(from, FIRST_DAY),
+                        Objects.requireNonNullElse(to, LAST_DAY))) {
+                    yield this.writeRows(bookingRows, BookingRow.class, format, writer);
+                }
+            }
+        };
+        writer.flush();
+        log.info("Exported {} rows of {} as {} in {} ms", rows, table.getPath(), format, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Read the rows of a table from the input and insert the valid ones in chunks. Invalid rows are counted and
+     * reported with their line numbers, the rows after them are still imported.
+     *
+     * @param table       the table
+     * @param format      the format of the rows
+     * @param inputStream the input, left open
+     * @return the number of imported and rejected rows
+     */
+    public ImportResponse importRows(TransferTable table, TransferFormat format, InputStream inputStream) {
+        long startTime = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        ImportResponse importResponse = new ImportResponse(table.getPath(), 0L, 0L, new ArrayList<>());
+        try {
+            switch (table) {
+                case ROOMS -> this.importChunks(RowReader.open(reader, format, RoomRow.class, objectMapper), new RoomImporter(), importResponse);
+                case MAINTENANCE -> this.importChunks(RowReader.open(reader, format, MaintenanceRow.class, objectMapper),
+                        new MaintenanceImporter(), importResponse);
+                case BOOKINGS -> this.importChunks(RowReader.open(reader, format, BookingRow.class, objectMapper), new BookingImporter(),
+                        importResponse);
+            }
+        } catch (IOException e) {
+            throw new AppException(AppErrorCode.INVALID_IMPORT_FILE, e.getMessage());
+        }
+        log.info("Imported {} rows of {} and rejected {} in {} ms", importResponse.getImported(), table.getPath(),
+                importResponse.getRejected(), System.currentTimeMillis() - startTime);
+        return importResponse;
+    }
+
+    private <T> long writeRows(Stream<T> rows, Class<T> rowType, TransferFormat format, Writer writer) throws IOException {
+        List<String> columns = RowReader.columns(rowType);
+        CsvWriter csvWriter = new CsvWriter(writer);
+        if (format == TransferFormat.CSV) {
+            csvWriter.writeRecord(columns);
+        }
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == TransferFormat.CSV) {
+                // Converted by the object mapper, so the CSV values are the NDJSON values
+                Map<String, Object> values = objectMapper.convertValue(row, ROW_VALUES);
+                csvWriter.writeRecord(columns.stream().map(values::get).toList());
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private <T> void importChunks(RowReader<T> rowReader, ChunkImporter<T> importer, ImportResponse importResponse) {
+        // The line of each row of the chunk, for the rows the chunk write rejects
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        ObjIntConsumer<String> rejected = (error, index) -> this.reject(importResponse, "line " + chunkLines.get(index) + ": " + error);
+        try {
+            ImportRow<T> importRow;
+            while ((importRow = rowReader.next()) != null) {
+                String error = importRow.error() != null ? importRow.error() : this.violations(importRow.row());
+                if (error == null) {
+                    error = importer.add(importRow.row());
+                }
+                if (error != null) {
+                    this.reject(importResponse, "line " + importRow.line() + ": " + error);
+                    continue;
+                }
+                chunkLines.add(importRow.line());
+                if (chunkLines.size() == chunkSize) {
+                    importResponse.setImported(importResponse.getImported() + importer.write(rejected));
+                    chunkLines.clear();
+                }
+            }
+            importResponse.setImported(importResponse.getImported() + importer.write(rejected));
+        } catch (IOException e) {
+            // The rows before the unreadable part stay imported, the response tells where the import stopped
+            importer.discard();
+            this.reject(importResponse, "import stopped: " + e.getMessage());
+        } catch (RuntimeException e) {
+            importer.discard();
+            throw e;
+        } finally {
+            importer.finish(importResponse.getImported());
+        }
+    }
+
+    private String violations(Object row) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ":" + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(";"));
+    }
+
+    private void reject(ImportResponse importResponse, String error) {
+        importResponse.setRejected(importResponse.getRejected() + 1);
+        if (importResponse.getErrors().size() < maxErrors) {
+            importResponse.getErrors().add(error);
+        }
+    }
+
+    /**
+     * Collects the rows of a chunk and writes them
+     *
+     * @param <T> the row type
+     */
+    private interface ChunkImporter<T> {
+
+        /**
+         * Check the row against the rows already in the table and add it to the chunk
+         *
+         * @param row the valid row
+         * @return why the row is rejected, null if it was added
+         */
+        String add(T row);
+
+        /**
+         * Write the rows of the chunk in one transaction
+         *
+         * @param rejected called with the reason and the index in the chunk of each row that could not be written
+         * @return the number of written rows
+         */
+        int write(ObjIntConsumer<String> rejected);
+
+        /**
+         * Drop the rows of the chunk that were not written
+         */
+        default void discard() {
+        }
+
+        /**
+         * Called once the import is over
+         *
+         * @param imported the number of imported rows
+         */
+        default void finish(long imported) {
+        }
+    }
+
+    private class RoomImporter implements ChunkImporter<RoomRow> {
+
+        private final Set<String> roomNames = roomCatalog.getSnapshot().rooms().stream().map(RoomInfo::name)
+                .collect(Collectors.toCollection(HashSet::new));
+        private final List<RoomRow> chunk = new ArrayList<>();
+
+        @Override
+        public String add(RoomRow row) {
+            if (!roomNames.add(row.name())) {
+                return "Conference room " + row.name() + " already exists";
+            }
+            chunk.add(row);
+            return null;
+        }
+
+        @Override
+        public int write(ObjIntConsumer<String> rejected) {
+            if (chunk.isEmpty()) {
+                return 0;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "insert into CONFERENCE_ROOMS (NAME, CAPACITY) values (?, ?)", chunk, chunk.size(), (statement, row) -> {
+                            statement.setString(1, row.name());
+                            statement.setInt(2, row.capacity());
+                        }));
+                return chunk.size();
+            } finally {
+                chunk.clear();
+            }
+        }
+
+        @Override
+        public void discard() {
+            chunk.clear();
+        }
+
+        @Override
+        public void finish(long imported) {
+            if (imported > 0) {
+                eventPublisher.publishEvent(new CatalogChangedEvent(BulkTransfer.this));
+            }
+        }
+    }
+
+    private class MaintenanceImporter implements ChunkImporter<MaintenanceRow> {
+
+        private final List<MaintenanceRow> chunk = new ArrayList<>();
+
+        @Override
+        public String add(MaintenanceRow row) {
+            if (!row.endTime().isAfter(row.startTime())) {
+                return ValidationConstants.END_TIME_LESS_THAN_START_TIME;
+            }
+            chunk.add(row);
+            return null;
+        }
+
+        @Override
+        public int write(ObjIntConsumer<String> rejected) {
+            if (chunk.isEmpty()) {
+                return 0;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "insert into MAINTENANCE_TIME (START_TIME, END_TIME) values (?, ?)", chunk, chunk.size(), (statement, row) -> {
+                            statement.setObject(1, row.startTime());
+                            statement.setObject(2, row.endTime());
+                        }));
+                return chunk.size();
+            } finally {
+                chunk.clear();
+            }
+        }
+
+        @Override
+        public void discard() {
+            chunk.clear();
+        }
+
+        @Override
+        public void finish(long imported) {
+            if (imported > 0) {
+                eventPublisher.publishEvent(new CatalogChangedEvent(BulkTransfer.this));
+            }
+        }
+    }
+
+    private class BookingImporter implements ChunkImporter<BookingRow> {
+
+        private final CatalogSnapshot catalog = roomCatalog.getSnapshot();
+        private final Map<String, Integer> capacities = catalog.rooms().stream()
+                .collect(Collectors.toMap(RoomInfo::name, RoomInfo::capacity, (first, second) -> first, HashMap::new));
+        private final LocalDate today = LocalDate.now(clock);
+        private final LocalDate lastDay = today.plus(horizon);
+        private final List<PendingBooking> chunk = new ArrayList<>();
+        /**
+         * The booking references of the rows imported so far. A reference names a single booking, the rows sharing it
+         * are cancelled and moved together.
+         */
+        private final Set<String> references = new HashSet<>();
+
+        @Override
+        public String add(BookingRow row) {
+            Integer capacity = capacities.get(row.roomName());
+            if (capacity == null) {
+                return "Conference room " + row.roomName() + " not found";
+            }
+            if (row.persons() > capacity) {
+                return AppErrorCode.MAX_CAPACITY.getErrorMessage();
+            }
+            if (!row.endTime().isAfter(row.startTime())) {
+                return ValidationConstants.END_TIME_LESS_THAN_START_TIME;
+            }
+            int startSlot = SlotBitmap.slotOf(row.startTime());
+            int endSlot = SlotBitmap.slotCeil(row.endTime());
+            long maskLow = SlotBitmap.lowMask(startSlot, endSlot);
+            long maskHigh = SlotBitmap.highMask(startSlot, endSlot);
+            boolean upcoming = !row.bookingDate().isBefore(today);
+            if (row.bookingDate().isAfter(lastDay)) {
+                return ValidationConstants.BOOKING_DATE_BEYOND_HORIZON;
+            }
+            String bookingReference = row.bookingReference();
+            if (upcoming && StringUtils.isNotBlank(bookingReference) && (references.contains(bookingReference)
+                    || bookedRoomRepository.existsByBookingReference(bookingReference))) {
+                // Joining another booking would cancel or move its rows along with this one
+                return "Booking reference " + bookingReference + " is already in use";
+            }
+            if (upcoming) {
+                if (catalog.isUnderMaintenance(maskLow, maskHigh)) {
+                    return AppErrorCode.ROOM_MAINTENANCE_TIME.getErrorMessage();
+                }
+                roomAvailabilityEngine.load(row.bookingDate(), startSlot, endSlot);
+                if (!roomAvailabilityEngine.tryReserve(row.bookingDate(), row.roomName(), maskLow, maskHigh)) {
+                    return "Conference room " + row.roomName() + " is already booked for the time range";
+                }
+            }
+            if (StringUtils.isNotBlank(bookingReference)) {
+                references.add(bookingReference);
+            }
+            chunk.add(new PendingBooking(this.toEntity(row), upcoming, maskLow, maskHigh));
+            return null;
+        }
+
+        @Override
+        public int write(ObjIntConsumer<String> rejected) {
+            if (chunk.isEmpty()) {
+                return 0;
+            }
+            try {
+                this.writeBookings(chunk);
+            } catch (RuntimeException e) {
+                if (!bookingOverlapGuard.isConflict(e)) {
+                    for (PendingBooking pendingBooking : chunk) {
+                        this.giveBack(pendingBooking, e);
+                    }
+                    chunk.clear();
+                    throw e;
+                }
+                // Booked on another node in the meantime, only the rows that overlap it are rejected
+                return this.writeEach(rejected);
+            }
+            int written = chunk.size();
+            this.publishChanges(chunk);
+            chunk.clear();
+            return written;
+        }
+
+        /**
+         * Write the rows of the chunk one at a time, once the chunk conflicted with the bookings of another node
+         *
+         * @param rejected called with the reason and the index in the chunk of each conflicting row
+         * @return the number of written rows
+         */
+        private int writeEach(ObjIntConsumer<String> rejected) {
+            List<PendingBooking> written = new ArrayList<>(chunk.size());
+            try {
+                for (int i = 0; i < chunk.size(); i++) {
+                    PendingBooking pendingBooking = chunk.get(i);
+                    try {
+                        this.writeBookings(List.of(pendingBooking));
+                        written.add(pendingBooking);
+                    } catch (RuntimeException e) {
+                        this.giveBack(pendingBooking, e);
+                        if (!bookingOverlapGuard.isConflict(e)) {
+                            chunk.subList(i + 1, chunk.size()).forEach(notWritten -> this.giveBack(notWritten, e));
+                            throw e;
+                        }
+                        BookedRoomEntity booking = pendingBooking.booking();
+                        rejected.accept("Conference room " + booking.getRoomName() + " is already booked for the time range", i);
+                    }
+                }
+            } finally {
+                this.publishChanges(written);
+                chunk.clear();
+            }
+            return written.size();
+        }
+
+        private void writeBookings(List<PendingBooking> pendingBookings) {
+            List<BookedRoomEntity> bookings = pendingBookings.stream().map(PendingBooking::booking).toList();
+            List<BookedRoomEntity> upcomingBookings = pendingBookings.stream().filter(PendingBooking::upcoming).map(PendingBooking::booking).toList();
+            bookingOverlapGuard.write(upcomingBookings, () -> {
+                bookedRoomRepository.saveAll(bookings);
+                // The persistence context may outlive the chunk, do not let it hold every imported row
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+        }
+
+        @Override
+        public void discard() {
+            for (PendingBooking pendingBooking : chunk) {
+                this.giveBack(pendingBooking, null);
+            }
+            chunk.clear();
+        }
+
+        private BookedRoomEntity toEntity(BookingRow row) {
+            BookedRoomEntity bookedRoomEntity = new BookedRoomEntity();
+            bookedRoomEntity.setBookingDate(row.bookingDate());
+            bookedRoomEntity.setRoomName(row.roomName());
+            bookedRoomEntity.setStartTime(row.startTime());
+            bookedRoomEntity.setEndTime(row.endTime());
+            bookedRoomEntity.setNumberOfPersons(row.persons());
+            bookedRoomEntity.setBookingReference(StringUtils.defaultIfBlank(row.bookingReference(), UUID.randomUUID().toString()));
+            bookedRoomEntity.setBookedBy(StringUtils.defaultIfBlank(row.bookedBy(), AppConstants.DEFAULT_USER_NAME));
+            bookedRoomEntity.setBookingDateTime(Objects.requireNonNullElseGet(row.bookingDateTime(), () -> LocalDateTime.now(clock)));
+            return bookedRoomEntity;
+        }
+
+        /**
+         * Give back the reserved slots of a booking that was not written. Slots the database refused because another
+         * node booked them are read again rather than freed.
+         *
+         * @param pendingBooking the booking
+         * @param failure        the failure of the write, null if the booking was not written
+         */
+        private void giveBack(PendingBooking pendingBooking, RuntimeException failure) {
+            if (!pendingBooking.upcoming()) {
+                return;
+            }
+            BookedRoomEntity booking = pendingBooking.booking();
+            if (failure != null && bookingOverlapGuard.isConflict(failure)) {
+                roomAvailabilityEngine.refresh(booking.getBookingDate(), booking.getRoomName(), pendingBooking.maskLow(), pendingBooking.maskHigh());
+            } else {
+                roomAvailabilityEngine.release(booking.getBookingDate(), booking.getRoomName(), pendingBooking.maskLow(), pendingBooking.maskHigh());
+            }
+        }
+
+        /**
+         * Publish the booked slots of the written bookings to the availability stream, one event per room and day
+         *
+         * @param written the written bookings
+         */
+        private void publishChanges(List<PendingBooking> written) {
+            Map<RoomDay, long[]> changedSlots = new LinkedHashMap<>();
+            for (PendingBooking pendingBooking : written) {
+                if (pendingBooking.upcoming()) {
+                    BookedRoomEntity booking = pendingBooking.booking();
+                    long[] masks = changedSlots.computeIfAbsent(new RoomDay(booking.getBookingDate(), booking.getRoomName()), key -> new long[2]);
+                    masks[0] |= pendingBooking.maskLow();
+                    masks[1] |= pendingBooking.maskHigh();
+                }
+            }
+            changedSlots.forEach((roomDay, masks) ->
+                    eventPublisher.publishEvent(new RoomAvailabilityChangedEvent(roomDay.bookingDate(), roomDay.roomName(), masks[0], masks[1])));
+        }
+    }
+
+    /**
+     * A booking of the chunk being imported
+     *
+     * @param booking  the booking row to write
+     * @param upcoming true if the booking is of today onwards and its slots were reserved in memory
+     * @param maskLow  the low word mask of the booked slots
+     * @param maskHigh the high word mask of the booked slots
+     */
+    private record PendingBooking(BookedRoomEntity booking, boolean upcoming, long maskLow, long maskHigh) {
+    }
+
+    /**
+     * The slots of a room on one day
+     *
+     * @param bookingDate the booking day
+     * @param roomName    the room name
+     */
+    private record RoomDay(LocalDate bookingDate, String roomName) {
+    }
+}
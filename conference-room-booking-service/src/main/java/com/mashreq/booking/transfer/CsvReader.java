@@ -0,0 +1,112 @@
+package com.mashreq.booking.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time. Fields may be quoted, a quoted field may hold commas, doubled quotes and
+ * line breaks.
+ *
+ * @author janv@mashreq.com
+ */
+final class CsvReader {
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private long line = 1;
+    private long recordLine;
+    private int pushedBack = -1;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record, skipping empty lines
+     *
+     * @return the fields of the record, null at the end of the input
+     * @throws IOException if the input cannot be read or a quoted field is not closed
+     */
+    List<String> readRecord() throws IOException {
+        int c = this.read();
+        while (c == '\r' || c == '\n') {
+            this.endLine(c);
+            c = this.read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            field.setLength(0);
+            if (c == '"') {
+                c = this.readQuoted();
+            } else {
+                while (c != ',' && c != '\r' && c != '\n' && c != -1) {
+                    field.append((char) c);
+                    c = this.read();
+                }
+            }
+            fields.add(field.toString());
+            if (c != ',') {
+                if (c != -1) {
+                    this.endLine(c);
+                }
+                return fields;
+            }
+            c = this.read();
+        }
+    }
+
+    /**
+     * @return the line number the last record read starts on
+     */
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = this.read();
+            if (c == -1) {
+                throw new IOException("Unclosed quote in the record of line " + recordLine);
+            }
+            if (c == '"') {
+                c = this.read();
+                if (c != '"') {
+                    // Anything after the closing quote up to the next separator is kept as is
+                    while (c != ',' && c != '\r' && c != '\n' && c != -1) {
+                        field.append((char) c);
+                        c = this.read();
+                    }
+                    return c;
+                }
+            } else if (c == '\n') {
+                line++;
+            }
+            field.append((char) c);
+        }
+    }
+
+    private void endLine(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int next = this.read();
+            if (next != '\n') {
+                pushedBack = next;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -1) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        return reader.read();
+    }
+}
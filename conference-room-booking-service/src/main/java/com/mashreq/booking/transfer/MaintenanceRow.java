@@ -0,0 +1,17 @@
+package com.mashreq.booking.transfer;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalTime;
+
+/**
+ * A row of the MAINTENANCE_TIME table as exported and imported.
+ *
+ * @param startTime the start of the maintenance window
+ * @param endTime   the end of the maintenance window
+ * @author janv@mashreq.com
+ */
+public record MaintenanceRow(@NotNull @JsonFormat(pattern = "HH:mm") LocalTime startTime,
+                             @NotNull @JsonFormat(pattern = "HH:mm") LocalTime endTime) {
+}
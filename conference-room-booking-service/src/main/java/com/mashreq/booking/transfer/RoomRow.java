@@ -0,0 +1,15 @@
+package com.mashreq.booking.transfer;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * A row of the CONFERENCE_ROOMS table as exported and imported.
+ *
+ * @param name     the room name
+ * @param capacity the room capacity
+ * @author janv@mashreq.com
+ */
+public record RoomRow(@NotBlank @Size(max = 50) String name, @Positive int capacity) {
+}
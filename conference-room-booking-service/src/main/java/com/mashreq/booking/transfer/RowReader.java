@@ -0,0 +1,153 @@
+package com.mashreq.booking.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.TransferFormat;
+import com.mashreq.booking.exception.AppException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the rows of an import one at a time, so only the row being read is held in memory. A row that cannot be
+ * parsed is returned with the reason rather than failing the import.
+ * <p>
+ * NDJSON rows are parsed by the application object mapper. CSV rows are mapped by the column names of the header row
+ * and parsed by the same object mapper, so both formats accept the same values. Empty CSV fields are null.
+ *
+ * @param <T> the row type
+ * @author janv@mashreq.com
+ */
+final class RowReader<T> {
+
+    private final BufferedReader reader;
+    private final TransferFormat format;
+    private final Class<T> rowType;
+    private final ObjectMapper objectMapper;
+    private final CsvReader csvReader;
+    private List<String> header;
+    private long line;
+
+    private RowReader(BufferedReader reader, TransferFormat format, Class<T> rowType, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.rowType = rowType;
+        this.objectMapper = objectMapper;
+        this.csvReader = format == TransferFormat.CSV ? new CsvReader(reader) : null;
+    }
+
+    /**
+     * A row of the import
+     *
+     * @param line  the line the row starts on
+     * @param row   the parsed row, null if it could not be parsed
+     * @param error why the row could not be parsed
+     * @param <T>   the row type
+     */
+    record ImportRow<T>(long line, T row, String error) {
+    }
+
+    /**
+     * Open the rows of the import, reading the header row of a CSV import
+     *
+     * @param reader       the import content
+     * @param format       the import format
+     * @param rowType      the row type
+     * @param objectMapper the object mapper
+     * @param <T>          the row type
+     * @return the row reader
+     * @throws IOException if the import cannot be read
+     */
+    static <T> RowReader<T> open(BufferedReader reader, TransferFormat format, Class<T> rowType, ObjectMapper objectMapper) throws IOException {
+        RowReader<T> rowReader = new RowReader<>(reader, format, rowType, objectMapper);
+        if (format == TransferFormat.CSV) {
+            rowReader.readHeader();
+        }
+        return rowReader;
+    }
+
+    /**
+     * Get the column names of a row type, in the order of its components
+     *
+     * @param rowType the row type
+     * @return the column names
+     */
+    static List<String> columns(Class<?> rowType) {
+        return Arrays.stream(rowType.getRecordComponents()).map(RecordComponent::getName).toList();
+    }
+
+    /**
+     * Read the next row
+     *
+     * @return the row, null at the end of the import
+     * @throws IOException if the import cannot be read
+     */
+    ImportRow<T> next() throws IOException {
+        return format == TransferFormat.CSV ? this.nextCsv() : this.nextNdjson();
+    }
+
+    private void readHeader() throws IOException {
+        List<String> fields = csvReader.readRecord();
+        if (fields == null) {
+            header = List.of();
+            return;
+        }
+        List<String> columns = columns(rowType);
+        for (String field : fields) {
+            if (!columns.contains(field)) {
+                throw new AppException(AppErrorCode.INVALID_IMPORT_FILE, "Unknown column " + field + ", expected " + String.join(",", columns));
+            }
+        }
+        if (new HashSet<>(fields).size() != fields.size()) {
+            throw new AppException(AppErrorCode.INVALID_IMPORT_FILE, "Duplicate column in the header row");
+        }
+        header = fields;
+    }
+
+    private ImportRow<T> nextCsv() throws IOException {
+        List<String> fields = csvReader.readRecord();
+        if (fields == null) {
+            return null;
+        }
+        long recordLine = csvReader.getRecordLine();
+        if (fields.size() != header.size()) {
+            return new ImportRow<>(recordLine, null, "expected " + header.size() + " fields but found " + fields.size());
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if (!fields.get(i).isEmpty()) {
+                values.put(header.get(i), fields.get(i));
+            }
+        }
+        try {
+            return new ImportRow<>(recordLine, objectMapper.convertValue(values, rowType), null);
+        } catch (IllegalArgumentException e) {
+            String error = e.getCause() instanceof JsonProcessingException parseException ? parseException.getOriginalMessage() : e.getMessage();
+            return new ImportRow<>(recordLine, null, error);
+        }
+    }
+
+    private ImportRow<T> nextNdjson() throws IOException {
+        String json;
+        do {
+            json = reader.readLine();
+            line++;
+        } while (json != null && json.isBlank());
+        if (json == null) {
+            return null;
+        }
+        try {
+            T row = objectMapper.readValue(json, rowType);
+            return row != null ? new ImportRow<>(line, row, null) : new ImportRow<>(line, null, "not a JSON object");
+        } catch (JsonProcessingException e) {
+            return new ImportRow<>(line, null, e.getOriginalMessage());
+        }
+    }
+}
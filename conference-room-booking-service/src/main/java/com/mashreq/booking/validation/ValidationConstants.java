@@ -16,4 +16,6 @@ public class ValidationConstants {
     public static final String INVALID_START_TIME = "Start time cannot be less than the current time";
     public static final String END_TIME_LESS_THAN_START_TIME = "End time cannot be less than the start time";
     public static final String END_TIME_LESS_THAN_CURRENT_TIME = "End time cannot be less than the current time";
+    public static final String BOOKING_DATE_IN_THE_PAST = "Booking date cannot be before the current date";
+    public static final String BOOKING_DATE_BEYOND_HORIZON = "Booking date cannot be beyond the booking horizon";
 }
@@ -8,10 +8,13 @@ import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.Period;
 import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.Objects;
@@ -27,9 +30,11 @@ public class BookingRequestValidator implements ConstraintValidator<ValidBooking
 
 
     private final Clock clock;
+    private final Period horizon;
 
-    public BookingRequestValidator(Clock clock) {
+    public BookingRequestValidator(Clock clock, @Value("${booking.calendar.horizon}") Period horizon) {
         this.clock = clock;
+        this.horizon = horizon;
     }
 
     /**
@@ -71,9 +76,15 @@ public class BookingRequestValidator implements ConstraintValidator<ValidBooking
         Set<String> messageSet = new HashSet<>();
         LocalTime startTime = value.getStartTime();
         LocalTime endTime = value.getEndTime();
+        LocalDate today = LocalDate.now(clock);
+        LocalDate bookingDate = value.getBookingDate();
+        this.validateBookingDate(bookingDate, today, messageSet);
         this.validateTimeInterval(startTime, endTime, messageSet);
         this.validateMinuteValue(startTime, endTime, messageSet);
-        this.validateStartTime(startTime, endTime, messageSet);
+        // The current time only matters for bookings of today
+        if (bookingDate == null || bookingDate.equals(today)) {
+            this.validateStartTime(startTime, endTime, messageSet);
+        }
         this.validateNumberOfPeople(value.getPersons(), messageSet);
         this.validateEndTime(endTime, startTime, messageSet);
 
@@ -84,6 +95,18 @@ public class BookingRequestValidator implements ConstraintValidator<ValidBooking
         return true;
     }
 
+    /**
+     * Validate that the booking date is neither in the past nor beyond the booking horizon
+     *
+     * @param bookingDate the booking date
+     * @param today       the current date
+     * @param messageSet  the message set
+     */
+    private void validateBookingDate(LocalDate bookingDate, LocalDate today, Set<String> messageSet) {
+        this.saveMessage(bookingDate == null || !bookingDate.isBefore(today), ValidationConstants.BOOKING_DATE_IN_THE_PAST, messageSet);
+        this.saveMessage(bookingDate == null || !bookingDate.isAfter(today.plus(horizon)), ValidationConstants.BOOKING_DATE_BEYOND_HORIZON, messageSet);
+    }
+
     /**
      * Validate that the time range interval is 15 minutes
      *
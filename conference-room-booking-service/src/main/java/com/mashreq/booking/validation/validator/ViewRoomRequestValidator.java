@@ -8,10 +8,13 @@ import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.Period;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -25,9 +28,11 @@ import java.util.Set;
 public class ViewRoomRequestValidator implements ConstraintValidator<ValidViewRoom, ViewRoomRequest> {
 
     private final Clock clock;
+    private final Period horizon;
 
-    public ViewRoomRequestValidator(Clock clock) {
+    public ViewRoomRequestValidator(Clock clock, @Value("${booking.calendar.horizon}") Period horizon) {
         this.clock = clock;
+        this.horizon = horizon;
     }
 
     /**
@@ -69,7 +74,8 @@ public class ViewRoomRequestValidator implements ConstraintValidator<ValidViewRo
         Set<String> messageSet = new HashSet<>();
         LocalTime startTime = value.getStartTime();
         LocalTime endTime = value.getEndTime();
-        this.validateEndTime(endTime, startTime, messageSet);
+        this.validateBookingDate(value.getBookingDate(), messageSet);
+        this.validateEndTime(endTime, startTime, value.getBookingDate(), messageSet);
         this.validateMinuteValue(startTime, endTime, messageSet);
         if (CollectionUtils.isNotEmpty(messageSet)) {
             CommonUtil.customMessageForValidation(context, StringUtils.join(messageSet, ","));
@@ -79,18 +85,39 @@ public class ViewRoomRequestValidator implements ConstraintValidator<ValidViewRo
     }
 
     /**
-     * Validate that end time is valid by checking if it is greater than the start time or current time
+     * Validate that the booking date is neither in the past nor beyond the booking horizon
      *
-     * @param endTime    the end time
-     * @param startTime  the start time
-     * @param messageSet the message set
+     * @param bookingDate the booking date
+     * @param messageSet  the message set
+     */
+    private void validateBookingDate(LocalDate bookingDate, Set<String> messageSet) {
+        if (bookingDate == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now(clock);
+        if (bookingDate.isBefore(today)) {
+            messageSet.add(ValidationConstants.BOOKING_DATE_IN_THE_PAST);
+        }
+        if (bookingDate.isAfter(today.plus(horizon))) {
+            messageSet.add(ValidationConstants.BOOKING_DATE_BEYOND_HORIZON);
+        }
+    }
+
+    /**
+     * Validate that end time is valid by checking if it is greater than the start time or, for today, the current time
+     *
+     * @param endTime     the end time
+     * @param startTime   the start time
+     * @param bookingDate the booking date
+     * @param messageSet  the message set
      */
-    private void validateEndTime(LocalTime endTime, LocalTime startTime, Set<String> messageSet) {
+    private void validateEndTime(LocalTime endTime, LocalTime startTime, LocalDate bookingDate, Set<String> messageSet) {
         if (endTime.isBefore(startTime)) {
             messageSet.add(ValidationConstants.END_TIME_LESS_THAN_START_TIME);
         }
 
-        if (endTime.isBefore(LocalTime.now(clock))) {
+        boolean today = bookingDate == null || bookingDate.equals(LocalDate.now(clock));
+        if (today && endTime.isBefore(LocalTime.now(clock))) {
             messageSet.add(ValidationConstants.END_TIME_LESS_THAN_CURRENT_TIME);
         }
     }
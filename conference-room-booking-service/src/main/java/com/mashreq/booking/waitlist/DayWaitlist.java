@@ -0,0 +1,93 @@
+package com.mashreq.booking.waitlist;
+
+import com.mashreq.booking.availability.SlotBitmap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+/**
+ * The waiting tickets of one day, indexed by the slots they need. Freed slots only look at the tickets of those slots
+ * instead of the whole queue, a ticket that does not need any of them cannot have become bookable.
+ *
+ * @author janv@mashreq.com
+ */
+final class DayWaitlist {
+
+    private final List<Set<WaitlistTicket>> slotTickets = new ArrayList<>(SlotBitmap.SLOTS_PER_DAY);
+    private int size;
+
+    DayWaitlist() {
+        for (int slot = 0; slot < SlotBitmap.SLOTS_PER_DAY; slot++) {
+            slotTickets.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Queue the ticket on each slot it needs
+     *
+     * @param ticket the waiting ticket
+     */
+    synchronized void add(WaitlistTicket ticket) {
+        this.forEachSlot(ticket, slot -> slotTickets.get(slot).add(ticket));
+        size++;
+    }
+
+    /**
+     * Remove the ticket from the slots it needs
+     *
+     * @param ticket the ticket
+     */
+    synchronized void remove(WaitlistTicket ticket) {
+        if (slotTickets.get(SlotBitmap.nextSlot(ticket.getMaskLow(), ticket.getMaskHigh(), 0)).contains(ticket)) {
+            this.forEachSlot(ticket, slot -> slotTickets.get(slot).remove(ticket));
+            size--;
+        }
+    }
+
+    /**
+     * Get the tickets needing any of the given slots that a room of the given capacity can fit, in promotion order
+     *
+     * @param maskLow  the low word mask of the freed slots
+     * @param maskHigh the high word mask of the freed slots
+     * @param capacity the capacity of the room
+     * @return the candidate tickets
+     */
+    synchronized List<WaitlistTicket> candidates(long maskLow, long maskHigh, int capacity) {
+        Set<WaitlistTicket> candidates = new TreeSet<>(WaitlistTicket.PROMOTION_ORDER);
+        for (int slot = SlotBitmap.nextSlot(maskLow, maskHigh, 0); slot >= 0; slot = SlotBitmap.nextSlot(maskLow, maskHigh, slot + 1)) {
+            for (WaitlistTicket ticket : slotTickets.get(slot)) {
+                if (ticket.getBookingRequest().getPersons() <= capacity) {
+                    candidates.add(ticket);
+                }
+            }
+        }
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * Get all the waiting tickets of the day, in promotion order
+     *
+     * @return the waiting tickets
+     */
+    synchronized List<WaitlistTicket> tickets() {
+        Set<WaitlistTicket> tickets = new TreeSet<>(WaitlistTicket.PROMOTION_ORDER);
+        slotTickets.forEach(tickets::addAll);
+        return new ArrayList<>(tickets);
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void forEachSlot(WaitlistTicket ticket, IntConsumer action) {
+        long maskLow = ticket.getMaskLow();
+        long maskHigh = ticket.getMaskHigh();
+        for (int slot = SlotBitmap.nextSlot(maskLow, maskHigh, 0); slot >= 0; slot = SlotBitmap.nextSlot(maskLow, maskHigh, slot + 1)) {
+            action.accept(slot);
+        }
+    }
+}
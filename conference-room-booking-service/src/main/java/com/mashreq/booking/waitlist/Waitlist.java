@@ -0,0 +1,299 @@
+package com.mashreq.booking.waitlist;
+
+import com.mashreq.booking.availability.CatalogChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.RoomCatalog;
+import com.mashreq.booking.availability.RoomInfo;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.WaitlistStatus;
+import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.BookingResponse;
+import com.mashreq.booking.model.WaitlistResponse;
+import com.mashreq.booking.service.BookingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues the booking requests that found no free room and books them once a room frees up, so clients can wait for a
+ * ticket instead of retrying the booking.
+ * <p>
+ * The waiting tickets are indexed per day and slot. A committed availability change only looks at the tickets needing
+ * the freed slots of the changed room, and tries them by priority and then in arrival order. A catalog change, such as
+ * a maintenance window removed or a room added, tries every waiting ticket. The matching runs on a single thread, so
+ * promotions never race each other. A ticket is claimed with a compare-and-set of its status before it is booked, so
+ * leaving the waitlist or expiring a ticket never waits for the booking. A ticket left while it is being booked gives its
+ * booking back once the booking is made.
+ * <p>
+ * Tickets are kept in memory until their day is over.
+ *
+ * @author janv@mashreq.com
+ */
+@Component
+@Slf4j
+public class Waitlist {
+
+    private final BookingService bookingService;
+    private final RoomCatalog roomCatalog;
+    private final RoomAvailabilityEngine roomAvailabilityEngine;
+    private final Clock clock;
+    private final int maxSize;
+    private final int maxPriority;
+    private final ExecutorService matcher;
+
+    private final Map<String, WaitlistTicket> tickets = new ConcurrentHashMap<>();
+    private final Map<LocalDate, DayWaitlist> days = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public Waitlist(BookingService bookingService, RoomCatalog roomCatalog, RoomAvailabilityEngine roomAvailabilityEngine, Clock clock,
+                    @Value("${booking.waitlist.max-size}") int maxSize, @Value("${booking.waitlist.max-priority}") int maxPriority) {
+        this.bookingService = bookingService;
+        this.roomCatalog = roomCatalog;
+        this.roomAvailabilityEngine = roomAvailabilityEngine;
+        this.clock = clock;
+        this.maxSize = maxSize;
+        this.maxPriority = maxPriority;
+        this.matcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waitlist-matcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Book the request, or queue it on the waitlist when no room is free for it
+     *
+     * @param bookingRequest the booking request
+     * @param priority       the priority of the ticket from 0 to the max priority, higher is promoted first
+     * @return the waitlist response, with the booking when a room was booked right away
+     */
+    public WaitlistResponse join(BookingRequest bookingRequest, int priority) {
+        // The priority comes from the client, an unbounded one would jump every queue
+        if (priority < 0 || priority > maxPriority) {
+            throw new AppException(AppErrorCode.INVALID_REQUEST_PARAMETER, "priority Parameter Invalid");
+        }
+        BookingRequest ticketRequest = this.withBookingDay(bookingRequest);
+        try {
+            BookingResponse bookingResponse = bookingService.bookConferenceRoom(ticketRequest);
+            return new WaitlistResponse(null, WaitlistStatus.BOOKED, priority, bookingResponse.getBookingDate(), bookingResponse.getStartTime(),
+                    bookingResponse.getEndTime(), ticketRequest.getPersons(), bookingResponse);
+        } catch (AppException e) {
+            // Only a time range that is fully booked can free up, other errors are returned as they are
+            if (!AppErrorCode.NO_ROOMS_FOUND.getErrorCode().equals(e.getErrorCode())) {
+                throw e;
+            }
+        }
+        if (waiting.incrementAndGet() > maxSize) {
+            waiting.decrementAndGet();
+            throw new AppException(AppErrorCode.WAITLIST_FULL);
+        }
+        WaitlistTicket ticket = new WaitlistTicket(UUID.randomUUID().toString(), ticketRequest, priority, sequence.incrementAndGet());
+        tickets.put(ticket.getTicketId(), ticket);
+        days.computeIfAbsent(ticket.getBookingDay(), day -> new DayWaitlist()).add(ticket);
+        log.info("Booking request {} queued on the waitlist under ticket {}", ticketRequest, ticket.getTicketId());
+        // Slots freed between the failed booking and the queueing were matched without this ticket
+        this.match(() -> this.promote(ticket));
+        return ticket.toWaitlistResponse();
+    }
+
+    /**
+     * Get the status of a waitlist ticket
+     *
+     * @param ticketId the ticket id
+     * @return the waitlist response, with the booking once a room was booked
+     */
+    public WaitlistResponse getTicket(String ticketId) {
+        return this.findTicket(ticketId).toWaitlistResponse();
+    }
+
+    /**
+     * Leave the waitlist. A ticket that is being booked is cancelled too, its booking is cancelled once it is made,
+     * a ticket that was already booked keeps its booking.
+     *
+     * @param ticketId the ticket id
+     * @return the waitlist response
+     */
+    public WaitlistResponse leave(String ticketId) {
+        WaitlistTicket ticket = this.findTicket(ticketId);
+        if (ticket.transition(WaitlistStatus.WAITING, WaitlistStatus.CANCELLED)) {
+            this.finish(ticket);
+            log.info("Waitlist ticket {} cancelled", ticketId);
+        } else if (ticket.transition(WaitlistStatus.PROMOTING, WaitlistStatus.CANCELLED)) {
+            // The promotion finishes the ticket and gives back the booking it makes
+            log.info("Waitlist ticket {} cancelled while being booked", ticketId);
+        }
+        return ticket.toWaitlistResponse();
+    }
+
+    /**
+     * Try the tickets needing the freed slots of the room once the change is committed
+     *
+     * @param event the room availability changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(RoomAvailabilityChangedEvent event) {
+        // Nothing to match on most changes, no ticket waits for that day
+        if (days.containsKey(event.bookingDate())) {
+            this.match(() -> this.promote(event));
+        }
+    }
+
+    /**
+     * Try every waiting ticket, maintenance windows and rooms apply to all days
+     *
+     * @param event the catalog changed event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (waiting.get() > 0) {
+            this.match(() -> days.values().forEach(dayWaitlist -> dayWaitlist.tickets().forEach(this::promote)));
+        }
+    }
+
+    /**
+     * Expire the waiting tickets whose time range has started and drop the tickets of the past days
+     */
+    @Scheduled(initialDelayString = "${booking.calendar.evict-interval}", fixedDelayString = "${booking.calendar.evict-interval}")
+    public void evictPastTickets() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (WaitlistTicket ticket : tickets.values()) {
+            if (ticket.isStarted(now) && ticket.transition(WaitlistStatus.WAITING, WaitlistStatus.EXPIRED)) {
+                this.finish(ticket);
+            }
+            if (ticket.getBookingDay().isBefore(now.toLocalDate())) {
+                tickets.remove(ticket.getTicketId());
+            }
+        }
+        days.keySet().removeIf(day -> day.isBefore(now.toLocalDate()));
+    }
+
+    /**
+     * Stop the matcher
+     */
+    @PreDestroy
+    public void close() {
+        matcher.shutdownNow();
+    }
+
+    private void match(Runnable task) {
+        try {
+            matcher.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Waitlist matching failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Waitlist is closed");
+        }
+    }
+
+    private void promote(RoomAvailabilityChangedEvent event) {
+        DayWaitlist dayWaitlist = days.get(event.bookingDate());
+        if (dayWaitlist == null || dayWaitlist.isEmpty()) {
+            return;
+        }
+        long freeLow = roomAvailabilityEngine.freeLow(event.bookingDate(), event.roomName(), event.maskLow());
+        long freeHigh = roomAvailabilityEngine.freeHigh(event.bookingDate(), event.roomName(), event.maskHigh());
+        if ((freeLow | freeHigh) == 0) {
+            // The slots were booked, not freed
+            return;
+        }
+        int capacity = this.capacityOf(event.roomName());
+        for (WaitlistTicket ticket : dayWaitlist.candidates(freeLow, freeHigh, capacity)) {
+            // Only a ticket that now fits the changed room can have become bookable, the other rooms did not change
+            if (roomAvailabilityEngine.isAvailable(event.bookingDate(), event.roomName(), ticket.getMaskLow(), ticket.getMaskHigh())) {
+                this.promote(ticket);
+            }
+        }
+    }
+
+    private void promote(WaitlistTicket ticket) {
+        if (!ticket.transition(WaitlistStatus.WAITING, WaitlistStatus.PROMOTING)) {
+            return;
+        }
+        if (ticket.isStarted(LocalDateTime.now(clock))) {
+            ticket.transition(WaitlistStatus.PROMOTING, WaitlistStatus.EXPIRED);
+            this.finish(ticket);
+            return;
+        }
+        BookingResponse bookingResponse;
+        try {
+            bookingResponse = bookingService.bookConferenceRoom(ticket.getBookingRequest());
+        } catch (RuntimeException e) {
+            // Still waiting, a maintenance window or a room removed since the ticket was queued may change again
+            if (!ticket.transition(WaitlistStatus.PROMOTING, WaitlistStatus.WAITING)) {
+                this.finish(ticket);
+            }
+            if (!(e instanceof AppException appException)) {
+                throw e;
+            }
+            log.debug("Waitlist ticket {} not booked: {}", ticket.getTicketId(), appException.getErrorDetails());
+            return;
+        }
+        if (!ticket.booked(bookingResponse)) {
+            // Left while the room was being booked
+            this.finish(ticket);
+            bookingService.cancelBooking(bookingResponse.getBookingReference());
+            log.info("Waitlist ticket {} left while booked, reference id {} cancelled", ticket.getTicketId(), bookingResponse.getBookingReference());
+            return;
+        }
+        this.finish(ticket);
+        log.info("Waitlist ticket {} booked under reference id {}", ticket.getTicketId(), bookingResponse.getBookingReference());
+    }
+
+    private void finish(WaitlistTicket ticket) {
+        DayWaitlist dayWaitlist = days.get(ticket.getBookingDay());
+        if (dayWaitlist != null) {
+            dayWaitlist.remove(ticket);
+        }
+        waiting.decrementAndGet();
+    }
+
+    private int capacityOf(String roomName) {
+        for (RoomInfo room : roomCatalog.getSnapshot().rooms()) {
+            if (room.name().equals(roomName)) {
+                return room.capacity();
+            }
+        }
+        return 0;
+    }
+
+    private WaitlistTicket findTicket(String ticketId) {
+        WaitlistTicket ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new AppException(AppErrorCode.WAITLIST_TICKET_NOT_FOUND);
+        }
+        return ticket;
+    }
+
+    private BookingRequest withBookingDay(BookingRequest bookingRequest) {
+        // The ticket keeps its day when it is promoted after midnight
+        BookingRequest ticketRequest = new BookingRequest();
+        ticketRequest.setPersons(bookingRequest.getPersons());
+        ticketRequest.setBookingDate(bookingRequest.getBookingDate() != null ? bookingRequest.getBookingDate() : LocalDate.now(clock));
+        ticketRequest.setStartTime(bookingRequest.getStartTime());
+        ticketRequest.setEndTime(bookingRequest.getEndTime());
+        ticketRequest.setUserName(bookingRequest.getUserName());
+        return ticketRequest;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mashreq.booking.waitlist;
+
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.enums.WaitlistStatus;
+import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.BookingResponse;
+import com.mashreq.booking.model.WaitlistResponse;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A booking request queued on the waitlist, along with the slots it needs
+ *
+ * @author janv@mashreq.com
+ */
+@Getter
+final class WaitlistTicket {
+
+    /**
+     * Highest priority first, then first come first served
+     */
+    static final Comparator<WaitlistTicket> PROMOTION_ORDER = Comparator.comparingInt(WaitlistTicket::getPriority).reversed()
+            .thenComparingLong(WaitlistTicket::getSequence);
+
+    private final String ticketId;
+    private final BookingRequest bookingRequest;
+    private final int priority;
+    private final long sequence;
+    private final long maskLow;
+    private final long maskHigh;
+    private final AtomicReference<WaitlistStatus> status = new AtomicReference<>(WaitlistStatus.WAITING);
+    private volatile BookingResponse booking;
+
+    /**
+     * Create a waiting ticket
+     *
+     * @param ticketId       the ticket id
+     * @param bookingRequest the booking request, with its booking date set
+     * @param priority       the priority of the ticket, higher is promoted first
+     * @param sequence       the arrival order of the ticket
+     */
+    WaitlistTicket(String ticketId, BookingRequest bookingRequest, int priority, long sequence) {
+        this.ticketId = ticketId;
+        this.bookingRequest = bookingRequest;
+        this.priority = priority;
+        this.sequence = sequence;
+        int startSlot = SlotBitmap.slotOf(bookingRequest.getStartTime());
+        int endSlot = SlotBitmap.slotCeil(bookingRequest.getEndTime());
+        this.maskLow = SlotBitmap.lowMask(startSlot, endSlot);
+        this.maskHigh = SlotBitmap.highMask(startSlot, endSlot);
+    }
+
+    LocalDate getBookingDay() {
+        return bookingRequest.getBookingDate();
+    }
+
+    /**
+     * Check if the time range of the ticket has started
+     *
+     * @param now the current time
+     * @return true if the ticket can no longer be booked
+     */
+    boolean isStarted(LocalDateTime now) {
+        return !LocalDateTime.of(bookingRequest.getBookingDate(), bookingRequest.getStartTime()).isAfter(now);
+    }
+
+    WaitlistStatus getStatus() {
+        return status.get();
+    }
+
+    /**
+     * Move the ticket to the next status if it is still in the expected one. A ticket is claimed for a promotion by
+     * moving it from waiting to promoting, so it is booked once, and neither a leave nor an expiry waits for the booking.
+     *
+     * @param expected the expected status
+     * @param next     the next status
+     * @return true if the ticket was moved
+     */
+    boolean transition(WaitlistStatus expected, WaitlistStatus next) {
+        return status.compareAndSet(expected, next);
+    }
+
+    /**
+     * Move a ticket being promoted to booked, unless it was cancelled meanwhile
+     *
+     * @param bookingResponse the booking of the ticket
+     * @return true if the ticket was booked, false if its booking has to be given back
+     */
+    boolean booked(BookingResponse bookingResponse) {
+        // The booking is set first, so a reader seeing the booked status also sees the booking
+        this.booking = bookingResponse;
+        if (status.compareAndSet(WaitlistStatus.PROMOTING, WaitlistStatus.BOOKED)) {
+            return true;
+        }
+        this.booking = null;
+        return false;
+    }
+
+    WaitlistResponse toWaitlistResponse() {
+        return new WaitlistResponse(ticketId, status.get(), priority, bookingRequest.getBookingDate(), bookingRequest.getStartTime(),
+                bookingRequest.getEndTime(), bookingRequest.getPersons(), booking);
+    }
+}
@@ -0,0 +1,8 @@
+merge into CONFERENCE_ROOMS (NAME, CAPACITY) key (NAME) values ('Amaze', 3);
+merge into CONFERENCE_ROOMS (NAME, CAPACITY) key (NAME) values ('Beauty', 7);
+merge into CONFERENCE_ROOMS (NAME, CAPACITY) key (NAME) values ('Inspire', 12);
+merge into CONFERENCE_ROOMS (NAME, CAPACITY) key (NAME) values ('Strive', 20);
+
+merge into MAINTENANCE_TIME (START_TIME, END_TIME) key (START_TIME, END_TIME) values ('09:00', '09:15');
+merge into MAINTENANCE_TIME (START_TIME, END_TIME) key (START_TIME, END_TIME) values ('13:00', '13:15');
+merge into MAINTENANCE_TIME (START_TIME, END_TIME) key (START_TIME, END_TIME) values ('17:00', '17:15');
@@ -0,0 +1,50 @@
+package com.mashreq.booking.archive;
+
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+
+/**
+ * The type Booking archiver test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class BookingArchiverTest {
+
+    @Mock
+    private BookedRoomRepository bookedRoomRepository;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    /**
+     * Test archive of the days before the retention period.
+     */
+    @Test
+    void testArchive() {
+        Clock clock = Clock.fixed(LocalDateTime.of(2024, 3, 3, 2, 30).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        BookingArchiver bookingArchiver = new BookingArchiver(bookedRoomRepository, idempotencyKeyRepository, clock, Period.ofDays(30));
+        LocalDate archiveBefore = LocalDate.of(2024, 2, 2);
+        Mockito.when(bookedRoomRepository.archiveBookingsBefore(archiveBefore)).thenReturn(3);
+        Mockito.when(bookedRoomRepository.deleteBookingsBefore(archiveBefore)).thenReturn(3);
+
+        bookingArchiver.archive();
+
+        InOrder inOrder = Mockito.inOrder(bookedRoomRepository);
+        inOrder.verify(bookedRoomRepository).archiveBookingsBefore(archiveBefore);
+        inOrder.verify(bookedRoomRepository).deleteBookingsBefore(archiveBefore);
+        Mockito.verify(idempotencyKeyRepository).deleteCreatedBefore(archiveBefore.atStartOfDay());
+    }
+}
@@ -0,0 +1,46 @@
+package com.mashreq.booking.availability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * The type Free room counters test.
+ *
+ * @author janv @mashreq.com
+ */
+class FreeRoomCountersTest {
+
+    private final RoomCapacityIndex capacityIndex = RoomCapacityIndex.of(List.of(
+            new RoomInfo("Amaze", 3),
+            new RoomInfo("Beauty", 7),
+            new RoomInfo("Focus", 7),
+            new RoomInfo("Strive", 20)));
+
+    /**
+     * Test free rooms per capacity bucket as rooms are booked and freed.
+     */
+    @Test
+    void testMinFreeRooms() {
+        FreeRoomCounters counters = new FreeRoomCounters(capacityIndex);
+        long maskLow = SlotBitmap.lowMask(40, 44);
+        long maskHigh = SlotBitmap.highMask(40, 44);
+        Assertions.assertEquals(4, counters.minFreeRooms(2, maskLow, maskHigh));
+        Assertions.assertEquals(3, counters.minFreeRooms(5, maskLow, maskHigh));
+        Assertions.assertEquals(1, counters.minFreeRooms(20, maskLow, maskHigh));
+        Assertions.assertEquals(0, counters.minFreeRooms(21, maskLow, maskHigh));
+
+        counters.booked("Beauty", SlotBitmap.lowMask(42, 43), SlotBitmap.highMask(42, 43));
+        counters.booked("Strive", SlotBitmap.lowMask(40, 41), SlotBitmap.highMask(40, 41));
+        Assertions.assertEquals(3, counters.minFreeRooms(2, maskLow, maskHigh));
+        Assertions.assertEquals(2, counters.minFreeRooms(7, maskLow, maskHigh));
+        Assertions.assertEquals(0, counters.minFreeRooms(8, maskLow, maskHigh));
+        Assertions.assertEquals(1, counters.minFreeRooms(8, SlotBitmap.lowMask(41, 44), SlotBitmap.highMask(41, 44)));
+
+        counters.freed("Strive", SlotBitmap.lowMask(40, 41), SlotBitmap.highMask(40, 41));
+        counters.booked("Removed", maskLow, maskHigh);
+        Assertions.assertEquals(1, counters.minFreeRooms(20, maskLow, maskHigh));
+        Assertions.assertEquals(3, counters.minFreeRooms(2, maskLow, maskHigh));
+    }
+}
@@ -0,0 +1,45 @@
+package com.mashreq.booking.availability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * The type Maintenance window test.
+ *
+ * @author janv @mashreq.com
+ */
+class MaintenanceWindowTest {
+
+    /**
+     * Test slots touched by the maintenance window.
+     */
+    @Test
+    void testSlots() {
+        MaintenanceWindow window = MaintenanceWindow.of(LocalTime.of(9, 0), LocalTime.of(9, 15));
+        Assertions.assertEquals(540, window.startMinute());
+        Assertions.assertEquals(555, window.endMinute());
+        Assertions.assertEquals(36, window.startSlot());
+        Assertions.assertEquals(37, window.endSlot());
+
+        MaintenanceWindow unaligned = MaintenanceWindow.of(LocalTime.of(9, 10), LocalTime.of(9, 20));
+        Assertions.assertEquals(36, unaligned.startSlot());
+        Assertions.assertEquals(38, unaligned.endSlot());
+    }
+
+    /**
+     * Test maintenance slot mask of the catalog snapshot.
+     */
+    @Test
+    void testCatalogSnapshotMask() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(), List.of(MaintenanceWindow.of(LocalTime.of(9, 10), LocalTime.of(9, 20)),
+                MaintenanceWindow.of(LocalTime.of(17, 0), LocalTime.of(17, 15))));
+        Assertions.assertEquals(SlotBitmap.lowMask(36, 38), snapshot.maintenanceLow());
+        Assertions.assertEquals(SlotBitmap.highMask(68, 69), snapshot.maintenanceHigh());
+        Assertions.assertTrue(snapshot.isUnderMaintenance(SlotBitmap.lowMask(37, 40), SlotBitmap.highMask(37, 40)));
+        Assertions.assertTrue(snapshot.isUnderMaintenance(SlotBitmap.lowMask(60, 70), SlotBitmap.highMask(60, 70)));
+        Assertions.assertFalse(snapshot.isUnderMaintenance(SlotBitmap.lowMask(38, 68), SlotBitmap.highMask(38, 68)));
+    }
+}
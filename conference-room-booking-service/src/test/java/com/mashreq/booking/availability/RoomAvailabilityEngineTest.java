@@ -0,0 +1,275 @@
+package com.mashreq.booking.availability;
+
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.BookedSlotView;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The type Room availability engine test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomAvailabilityEngineTest {
+
+    @InjectMocks
+    private RoomAvailabilityEngine roomAvailabilityEngine;
+
+    @Mock
+    private BookedRoomRepository bookedRoomRepository;
+
+    /**
+     * Test load of the bookings overlapping a window of the day.
+     */
+    @Test
+    void testLoad() {
+        LocalDate today = LocalDate.of(2024, 3, 3);
+        Mockito.when(bookedRoomRepository.findBookedSlots(today, LocalTime.of(8, 0), LocalTime.of(10, 0)))
+                .thenReturn(List.of(bookedSlot("Amaze", LocalTime.of(7, 45), LocalTime.of(8, 30)), bookedSlot("Beauty", LocalTime.of(9, 45), LocalTime.of(10, 15))));
+
+        roomAvailabilityEngine.load(today, 32, 40);
+        roomAvailabilityEngine.load(today, 33, 36);
+
+        Assertions.assertTrue(roomAvailabilityEngine.isLoaded(today, 33, 40));
+        Assertions.assertFalse(roomAvailabilityEngine.isLoaded(today, 30, 34));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(today, "Amaze", 31));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(today, "Amaze", 33));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(today, "Amaze", 34));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(today, "Beauty", 40));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(today.plusDays(1), "Amaze", 33));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(today, "Inspire", 33));
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).findBookedSlots(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Test load of a window while bookings read by its query are cancelled and released.
+     */
+    @Test
+    void testLoad_releasedWhileLoading() {
+        LocalDate today = LocalDate.of(2024, 3, 3);
+        roomAvailabilityEngine.markBooked(today, "Beauty", SlotBitmap.lowMask(60, 62), SlotBitmap.highMask(60, 62));
+        Mockito.when(bookedRoomRepository.findBookedSlots(today, LocalTime.of(8, 0), LocalTime.of(10, 0)))
+                .thenAnswer(invocation -> {
+                    // The bookings are deleted once the query has read them and released on another thread
+                    Thread releaser = new Thread(() -> {
+                        roomAvailabilityEngine.release(today, "Amaze", SlotBitmap.lowMask(33, 34), SlotBitmap.highMask(33, 34));
+                        roomAvailabilityEngine.release(today, "Beauty", SlotBitmap.lowMask(34, 36), SlotBitmap.highMask(34, 36));
+                    });
+                    releaser.start();
+                    releaser.join();
+                    return List.of(bookedSlot("Amaze", LocalTime.of(8, 15), LocalTime.of(8, 30)), bookedSlot("Beauty", LocalTime.of(8, 30), LocalTime.of(9, 0)));
+                })
+                .thenReturn(List.of());
+
+        roomAvailabilityEngine.load(today, 32, 40);
+
+        Assertions.assertTrue(roomAvailabilityEngine.isLoaded(today, 32, 40));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(today, "Amaze", 33));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(today, "Beauty", 34));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(today, "Beauty", 60));
+        Mockito.verify(bookedRoomRepository, Mockito.times(2)).findBookedSlots(today, LocalTime.of(8, 0), LocalTime.of(10, 0));
+    }
+
+    /**
+     * Test availability check of the requested slots.
+     */
+    @Test
+    void testIsAvailable() {
+        LocalDate today = LocalDate.of(2024, 3, 3);
+        roomAvailabilityEngine.markBooked(today, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+
+        Assertions.assertFalse(roomAvailabilityEngine.isAvailable(today, "Amaze", SlotBitmap.lowMask(43, 46), SlotBitmap.highMask(43, 46)));
+        Assertions.assertTrue(roomAvailabilityEngine.isAvailable(today, "Amaze", SlotBitmap.lowMask(44, 46), SlotBitmap.highMask(44, 46)));
+        Assertions.assertTrue(roomAvailabilityEngine.isAvailable(today, "Beauty", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44)));
+        Assertions.assertTrue(roomAvailabilityEngine.isAvailable(today.minusDays(1), "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44)));
+    }
+
+    /**
+     * Test eviction of the past days.
+     */
+    @Test
+    void testEvictBefore() {
+        LocalDate today = LocalDate.of(2024, 3, 3);
+        roomAvailabilityEngine.markBooked(today.minusDays(2), "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+        roomAvailabilityEngine.markBooked(today.minusDays(1), "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+        roomAvailabilityEngine.markBooked(today, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+
+        Assertions.assertEquals(2, roomAvailabilityEngine.evictBefore(today));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(today.minusDays(1), "Amaze", 40));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(today, "Amaze", 40));
+    }
+
+    /**
+     * Test concurrent reservations of the same slots of a room.
+     */
+    @Test
+    void testTryReserve_concurrent() throws InterruptedException {
+        LocalDate today = LocalDate.of(2024, 3, 3);
+        long maskLow = SlotBitmap.lowMask(40, 44);
+        long maskHigh = SlotBitmap.highMask(40, 44);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (roomAvailabilityEngine.tryReserve(today, "Amaze", maskLow, maskHigh)) {
+                    reserved.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(1, reserved.get());
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(today, "Beauty", maskLow, maskHigh));
+        roomAvailabilityEngine.release(today, "Amaze", maskLow, maskHigh);
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(today, "Amaze", maskLow, maskHigh));
+    }
+
+    /**
+     * Test free room counters follow the bookings, the releases and the room capacities.
+     */
+    @Test
+    void testMinFreeRooms() {
+        LocalDate today = LocalDate.of(2024, 3, 3);
+        RoomCapacityIndex capacityIndex = RoomCapacityIndex.of(List.of(new RoomInfo("Amaze", 3), new RoomInfo("Beauty", 7)));
+        long maskLow = SlotBitmap.lowMask(40, 44);
+        long maskHigh = SlotBitmap.highMask(40, 44);
+        roomAvailabilityEngine.markBooked(today, "Beauty", SlotBitmap.lowMask(42, 43), SlotBitmap.highMask(42, 43));
+
+        Assertions.assertEquals(1, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 2, maskLow, maskHigh));
+        Assertions.assertEquals(0, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 5, maskLow, maskHigh));
+        Assertions.assertTrue(roomAvailabilityEngine.isFull(today, capacityIndex, 5, maskLow, maskHigh));
+        Assertions.assertFalse(roomAvailabilityEngine.isFull(today, capacityIndex, 2, maskLow, maskHigh));
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(today, "Amaze", SlotBitmap.lowMask(40, 41), SlotBitmap.highMask(40, 41)));
+        Assertions.assertEquals(1, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 2, SlotBitmap.lowMask(40, 41), SlotBitmap.highMask(40, 41)));
+        Assertions.assertEquals(1, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 2, maskLow, maskHigh));
+
+        // Slots already booked or already free must not be counted twice
+        roomAvailabilityEngine.markBooked(today, "Beauty", SlotBitmap.lowMask(42, 44), SlotBitmap.highMask(42, 44));
+        roomAvailabilityEngine.release(today, "Beauty", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+        roomAvailabilityEngine.release(today, "Beauty", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+        Assertions.assertEquals(1, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 2, maskLow, maskHigh));
+        Assertions.assertEquals(1, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 5, maskLow, maskHigh));
+        Assertions.assertFalse(roomAvailabilityEngine.isFull(today, capacityIndex, 5, maskLow, maskHigh));
+
+        // New capacities rebuild the counters from the bookings of the day
+        RoomCapacityIndex resized = RoomCapacityIndex.of(List.of(new RoomInfo("Amaze", 8), new RoomInfo("Beauty", 7)));
+        Assertions.assertEquals(1, roomAvailabilityEngine.minFreeRooms(today, resized, 8, SlotBitmap.lowMask(41, 44), SlotBitmap.highMask(41, 44)));
+        Assertions.assertEquals(0, roomAvailabilityEngine.minFreeRooms(today, resized, 8, maskLow, maskHigh));
+
+        // A day that is not in memory is answered without holding a shard for it
+        LocalDate farDay = LocalDate.of(9999, 12, 31);
+        Assertions.assertEquals(2, roomAvailabilityEngine.minFreeRooms(farDay, capacityIndex, 2, maskLow, maskHigh));
+        Assertions.assertEquals(1, roomAvailabilityEngine.minFreeRooms(farDay, capacityIndex, 5, maskLow, maskHigh));
+        Assertions.assertEquals(0, roomAvailabilityEngine.minFreeRooms(farDay, capacityIndex, 8, maskLow, maskHigh));
+        Assertions.assertTrue(roomAvailabilityEngine.isFull(farDay, capacityIndex, 8, maskLow, maskHigh));
+        Assertions.assertTrue(roomAvailabilityEngine.daySlots(farDay).isEmpty());
+    }
+
+    /**
+     * Test refresh of the changed slots of a room from the stored bookings.
+     */
+    @Test
+    void testRefresh() {
+        LocalDate today = LocalDate.of(2024, 3, 3);
+        RoomCapacityIndex capacityIndex = RoomCapacityIndex.of(List.of(new RoomInfo("Amaze", 3)));
+        roomAvailabilityEngine.markBooked(today, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+        roomAvailabilityEngine.markBooked(today, "Amaze", SlotBitmap.lowMask(50, 52), SlotBitmap.highMask(50, 52));
+        Assertions.assertEquals(0, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 2, SlotBitmap.lowMask(40, 41), SlotBitmap.highMask(40, 41)));
+        BookedRoomEntity booking = new BookedRoomEntity();
+        booking.setRoomName("Amaze");
+        booking.setBookingDate(today);
+        booking.setStartTime(LocalTime.of(11, 0));
+        booking.setEndTime(LocalTime.of(11, 30));
+        Mockito.when(bookedRoomRepository.findOverlappingBookings(today, "Amaze", LocalTime.of(10, 0), LocalTime.of(11, 30)))
+                .thenReturn(List.of(booking));
+
+        // Another node cancelled 10:00 - 11:00 and booked 11:00 - 11:30
+        roomAvailabilityEngine.refresh(today, "Amaze", SlotBitmap.lowMask(40, 46), SlotBitmap.highMask(40, 46));
+
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(today, "Amaze", 40));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(today, "Amaze", 43));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(today, "Amaze", 44));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(today, "Amaze", 45));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(today, "Amaze", 50));
+        Assertions.assertEquals(1, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 2, SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44)));
+        Assertions.assertEquals(0, roomAvailabilityEngine.minFreeRooms(today, capacityIndex, 2, SlotBitmap.lowMask(44, 46), SlotBitmap.highMask(44, 46)));
+
+        // Days this node does not hold are read from the database when they are first needed
+        roomAvailabilityEngine.refresh(today.plusDays(1), "Amaze", SlotBitmap.lowMask(40, 46), SlotBitmap.highMask(40, 46));
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).findOverlappingBookings(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Test a copy of the days restores the same slots in another engine, and the changes are seen by the listeners
+     * while the slots read from the database are not.
+     */
+    @Test
+    void testDaySlots_restore() {
+        LocalDate today = LocalDate.of(2024, 3, 3);
+        List<String> changes = new ArrayList<>();
+        roomAvailabilityEngine.addChangeListener((day, roomName) -> changes.add(day + " " + roomName));
+        Mockito.when(bookedRoomRepository.findBookedSlots(today, LocalTime.of(8, 0), LocalTime.of(10, 0)))
+                .thenReturn(List.of(bookedSlot("Amaze", LocalTime.of(8, 0), LocalTime.of(8, 30))));
+        roomAvailabilityEngine.load(today, 32, 40);
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(today, "Beauty", SlotBitmap.lowMask(60, 70), SlotBitmap.highMask(60, 70)));
+        Assertions.assertFalse(roomAvailabilityEngine.tryReserve(today, "Beauty", SlotBitmap.lowMask(60, 61), SlotBitmap.highMask(60, 61)));
+        roomAvailabilityEngine.release(today, "Amaze", SlotBitmap.lowMask(50, 52), SlotBitmap.highMask(50, 52));
+        roomAvailabilityEngine.markBooked(today.minusDays(1), "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+        Assertions.assertEquals(List.of(today + " Beauty", today.minusDays(1) + " Amaze"), changes);
+
+        List<DaySlots> daySlots = roomAvailabilityEngine.daySlots(today);
+        RoomAvailabilityEngine restoredEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        restoredEngine.markBooked(today, "Amaze", SlotBitmap.lowMask(50, 52), SlotBitmap.highMask(50, 52));
+        daySlots.forEach(restoredEngine::restore);
+
+        Assertions.assertEquals(1, daySlots.size());
+        Assertions.assertTrue(restoredEngine.isLoaded(today, 32, 40));
+        Assertions.assertTrue(restoredEngine.isBooked(today, "Amaze", 33));
+        Assertions.assertFalse(restoredEngine.isBooked(today, "Amaze", 34));
+        Assertions.assertFalse(restoredEngine.isBooked(today, "Amaze", 50));
+        Assertions.assertEquals(roomAvailabilityEngine.roomSlots(today, "Beauty"), restoredEngine.roomSlots(today, "Beauty"));
+        Assertions.assertFalse(restoredEngine.isBooked(today.minusDays(1), "Amaze", 40));
+    }
+
+    private BookedSlotView bookedSlot(String roomName, LocalTime startTime, LocalTime endTime) {
+        return new BookedSlotView() {
+            @Override
+            public String getRoomName() {
+                return roomName;
+            }
+
+            @Override
+            public LocalTime getStartTime() {
+                return startTime;
+            }
+
+            @Override
+            public LocalTime getEndTime() {
+                return endTime;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.mashreq.booking.availability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * The type Room capacity index test.
+ *
+ * @author janv @mashreq.com
+ */
+class RoomCapacityIndexTest {
+
+    /**
+     * Test ceiling search over the capacity ordered rooms.
+     */
+    @Test
+    void testCeilingIndex() {
+        RoomCapacityIndex index = RoomCapacityIndex.of(List.of(
+                new RoomInfo("Strive", 20),
+                new RoomInfo("Amaze", 3),
+                new RoomInfo("Inspire", 12),
+                new RoomInfo("Beauty", 7),
+                new RoomInfo("Focus", 7)));
+
+        Assertions.assertEquals(5, index.size());
+        Assertions.assertEquals(20, index.maxCapacity());
+        Assertions.assertEquals("Amaze", index.roomAt(index.ceilingIndex(2)));
+        Assertions.assertEquals("Amaze", index.roomAt(index.ceilingIndex(3)));
+        Assertions.assertEquals("Beauty", index.roomAt(index.ceilingIndex(4)));
+        Assertions.assertEquals("Focus", index.roomAt(index.ceilingIndex(4) + 1));
+        Assertions.assertEquals(12, index.capacityAt(index.ceilingIndex(8)));
+        Assertions.assertEquals("Strive", index.roomAt(index.ceilingIndex(20)));
+        Assertions.assertEquals(index.size(), index.ceilingIndex(21));
+    }
+
+    /**
+     * Test index without rooms.
+     */
+    @Test
+    void testEmptyIndex() {
+        RoomCapacityIndex index = RoomCapacityIndex.of(List.of());
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertEquals(0, index.maxCapacity());
+        Assertions.assertEquals(0, index.ceilingIndex(2));
+    }
+}
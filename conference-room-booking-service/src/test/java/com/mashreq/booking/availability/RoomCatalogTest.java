@@ -0,0 +1,76 @@
+package com.mashreq.booking.availability;
+
+import com.mashreq.booking.entity.ConferenceRoomsEntity;
+import com.mashreq.booking.entity.MaintenanceTimeEntity;
+import com.mashreq.booking.repo.ConferenceRoomRepository;
+import com.mashreq.booking.repo.MaintenanceTimeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * The type Room catalog test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomCatalogTest {
+
+    @InjectMocks
+    private RoomCatalog roomCatalog;
+
+    @Mock
+    private ConferenceRoomRepository conferenceRoomRepository;
+
+    @Mock
+    private MaintenanceTimeRepository maintenanceTimeRepository;
+
+    /**
+     * Test that the snapshot is read once and swapped after a change.
+     */
+    @Test
+    void testGetSnapshot() {
+        Mockito.when(conferenceRoomRepository.findAll())
+                .thenReturn(List.of(new ConferenceRoomsEntity(1L, "Amaze", 3)))
+                .thenReturn(List.of(new ConferenceRoomsEntity(1L, "Amaze", 3), new ConferenceRoomsEntity(2L, "Strive", 20)));
+        Mockito.when(maintenanceTimeRepository.findAll())
+                .thenReturn(List.of(new MaintenanceTimeEntity(1L, LocalTime.of(9, 0), LocalTime.of(9, 15))));
+
+        CatalogSnapshot snapshot = roomCatalog.getSnapshot();
+        Assertions.assertSame(snapshot, roomCatalog.getSnapshot());
+        Assertions.assertEquals(List.of(new RoomInfo("Amaze", 3)), snapshot.rooms());
+        Assertions.assertEquals(List.of(new MaintenanceWindow(540, 555)), snapshot.maintenanceWindows());
+        Assertions.assertEquals(3, roomCatalog.getCapacityIndex().maxCapacity());
+
+        roomCatalog.onCatalogChanged(new CatalogChangedEvent(new ConferenceRoomsEntity()));
+        Assertions.assertEquals(20, roomCatalog.getCapacityIndex().maxCapacity());
+        Mockito.verify(conferenceRoomRepository, Mockito.times(2)).findAll();
+
+        roomCatalog.refresh();
+        Mockito.verify(conferenceRoomRepository, Mockito.times(3)).findAll();
+    }
+
+    /**
+     * Test the hit, miss and reload metrics.
+     */
+    @Test
+    void testBindTo() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        roomCatalog.bindTo(registry);
+        roomCatalog.getSnapshot();
+        roomCatalog.getSnapshot();
+        roomCatalog.getSnapshot();
+
+        Assertions.assertEquals(2.0, registry.get("booking.catalog.requests").tag("result", "hit").functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("booking.catalog.requests").tag("result", "miss").functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("booking.catalog.reloads").functionCounter().count());
+    }
+}
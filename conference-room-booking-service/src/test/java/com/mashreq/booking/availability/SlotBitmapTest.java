@@ -0,0 +1,95 @@
+package com.mashreq.booking.availability;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+
+/**
+ * The type Slot bitmap test.
+ *
+ * @author janv @mashreq.com
+ */
+class SlotBitmapTest {
+
+    /**
+     * Test slot of time.
+     */
+    @Test
+    void testSlotOf() {
+        Assertions.assertEquals(0, SlotBitmap.slotOf(LocalTime.MIDNIGHT));
+        Assertions.assertEquals(32, SlotBitmap.slotOf(LocalTime.of(8, 0)));
+        Assertions.assertEquals(32, SlotBitmap.slotOf(LocalTime.of(8, 10)));
+        Assertions.assertEquals(95, SlotBitmap.slotOf(LocalTime.of(23, 45)));
+        Assertions.assertEquals(32, SlotBitmap.slotCeil(LocalTime.of(8, 0)));
+        Assertions.assertEquals(33, SlotBitmap.slotCeil(LocalTime.of(8, 10)));
+        Assertions.assertEquals(96, SlotBitmap.slotCeil(LocalTime.of(23, 50)));
+        Assertions.assertEquals(LocalTime.of(8, 15), SlotBitmap.timeOf(33));
+        Assertions.assertEquals(LocalTime.MAX, SlotBitmap.timeOf(96));
+    }
+
+    /**
+     * Test masks across the low and high words.
+     */
+    @Test
+    void testMasks() {
+        Assertions.assertEquals(0b110L << 30, SlotBitmap.lowMask(31, 33));
+        Assertions.assertEquals(0L, SlotBitmap.highMask(31, 33));
+        Assertions.assertEquals(-1L, SlotBitmap.lowMask(0, 96));
+        Assertions.assertEquals(0xFFFFFFFFL, SlotBitmap.highMask(0, 96));
+        Assertions.assertEquals(1L << 63, SlotBitmap.lowMask(63, 65));
+        Assertions.assertEquals(1L, SlotBitmap.highMask(63, 65));
+        Assertions.assertEquals(0L, SlotBitmap.lowMask(70, 72));
+        Assertions.assertEquals(0L, SlotBitmap.lowMask(10, 10));
+    }
+
+    /**
+     * Test set, check and clear of slots.
+     */
+    @Test
+    void testSetAndClear() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.set(SlotBitmap.lowMask(62, 66), SlotBitmap.highMask(62, 66));
+        Assertions.assertTrue(bitmap.isSet(62));
+        Assertions.assertTrue(bitmap.isSet(65));
+        Assertions.assertFalse(bitmap.isSet(66));
+        Assertions.assertTrue(bitmap.intersects(SlotBitmap.lowMask(65, 70), SlotBitmap.highMask(65, 70)));
+        Assertions.assertFalse(bitmap.intersects(SlotBitmap.lowMask(66, 70), SlotBitmap.highMask(66, 70)));
+        Assertions.assertTrue(bitmap.covers(SlotBitmap.lowMask(62, 66), SlotBitmap.highMask(62, 66)));
+        Assertions.assertFalse(bitmap.covers(SlotBitmap.lowMask(62, 67), SlotBitmap.highMask(62, 67)));
+
+        bitmap.clear(SlotBitmap.lowMask(64, 66), SlotBitmap.highMask(64, 66));
+        Assertions.assertTrue(bitmap.isSet(63));
+        Assertions.assertFalse(bitmap.isSet(64));
+    }
+
+    /**
+     * Test slot labels and iteration over the set slots.
+     */
+    @Test
+    void testLabelsAndNextSlot() {
+        Assertions.assertEquals("08:00 - 08:15", SlotBitmap.labelOf(32));
+        Assertions.assertEquals("23:45 - 00:00", SlotBitmap.labelOf(95));
+
+        long maskLow = SlotBitmap.lowMask(10, 12) | SlotBitmap.lowMask(63, 64);
+        long maskHigh = SlotBitmap.highMask(70, 71) | SlotBitmap.highMask(95, 96);
+        Assertions.assertEquals(10, SlotBitmap.nextSlot(maskLow, maskHigh, 0));
+        Assertions.assertEquals(11, SlotBitmap.nextSlot(maskLow, maskHigh, 11));
+        Assertions.assertEquals(63, SlotBitmap.nextSlot(maskLow, maskHigh, 12));
+        Assertions.assertEquals(70, SlotBitmap.nextSlot(maskLow, maskHigh, 64));
+        Assertions.assertEquals(95, SlotBitmap.nextSlot(maskLow, maskHigh, 71));
+        Assertions.assertEquals(-1, SlotBitmap.nextSlot(maskLow, maskHigh, 96));
+        Assertions.assertEquals(-1, SlotBitmap.nextSlot(0L, 0L, 0));
+    }
+
+    /**
+     * Test free slots of the bitmap.
+     */
+    @Test
+    void testFreeSlots() {
+        SlotBitmap bitmap = new SlotBitmap();
+        bitmap.set(SlotBitmap.lowMask(62, 66), SlotBitmap.highMask(62, 66));
+        Assertions.assertEquals(SlotBitmap.lowMask(60, 62), bitmap.freeLow(SlotBitmap.lowMask(60, 70)));
+        Assertions.assertEquals(SlotBitmap.highMask(66, 70), bitmap.freeHigh(SlotBitmap.highMask(60, 70)));
+    }
+}
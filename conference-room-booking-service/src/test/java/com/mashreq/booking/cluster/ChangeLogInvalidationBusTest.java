@@ -0,0 +1,99 @@
+package com.mashreq.booking.cluster;
+
+import com.mashreq.booking.entity.BookingChangeLogEntity;
+import com.mashreq.booking.repo.BookingChangeLogRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The type Change log invalidation bus test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class ChangeLogInvalidationBusTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private BookingChangeLogRepository bookingChangeLogRepository;
+
+    @Mock
+    private Clock clock;
+
+    private ChangeLogInvalidationBus changeLogInvalidationBus;
+
+    private final List<String> received = new ArrayList<>();
+
+    /**
+     * Sets up a bus that has read the change log up to id 10.
+     */
+    @BeforeEach
+    void setUp() {
+        changeLogInvalidationBus = new ChangeLogInvalidationBus(bookingChangeLogRepository, clock, Duration.ofHours(1), Duration.ofMinutes(5));
+        changeLogInvalidationBus.subscribe(changes -> changes.forEach(change -> received.add(change.roomName())));
+        Mockito.when(bookingChangeLogRepository.findMaxId()).thenReturn(10L);
+        changeLogInvalidationBus.sync();
+    }
+
+    /**
+     * Test a row committed after a row with a higher id was read is still handed to the listeners, once.
+     */
+    @Test
+    void testSync_lateCommit() {
+        Mockito.when(clock.instant()).thenReturn(Instant.parse("2024-03-04T08:00:00Z"));
+        Mockito.when(bookingChangeLogRepository.findByIdGreaterThanOrderById(Mockito.eq(10L), Mockito.any())).thenReturn(List.of(row(13L, "Amaze")));
+        Mockito.when(bookingChangeLogRepository.findByIdGreaterThanOrderById(Mockito.eq(13L), Mockito.any())).thenReturn(List.of());
+        changeLogInvalidationBus.sync();
+
+        // Id 11 commits now, id 12 is still open
+        Mockito.when(bookingChangeLogRepository.findByIdInOrderById(List.of(11L, 12L))).thenReturn(List.of(row(11L, "Beauty")));
+        changeLogInvalidationBus.sync();
+        Mockito.when(bookingChangeLogRepository.findByIdInOrderById(List.of(12L))).thenReturn(List.of(row(12L, "Inspire")));
+        changeLogInvalidationBus.sync();
+        changeLogInvalidationBus.sync();
+
+        Assertions.assertEquals(List.of("Amaze", "Beauty", "Inspire"), received);
+        Mockito.verify(bookingChangeLogRepository, Mockito.times(1)).findByIdInOrderById(List.of(12L));
+    }
+
+    /**
+     * Test an id of a rolled back transaction is given up on after the gap timeout.
+     */
+    @Test
+    void testSync_gapTimeout() {
+        Mockito.when(clock.instant()).thenReturn(Instant.parse("2024-03-04T08:00:00Z"));
+        Mockito.when(bookingChangeLogRepository.findByIdGreaterThanOrderById(Mockito.eq(10L), Mockito.any())).thenReturn(List.of(row(12L, "Amaze")));
+        Mockito.when(bookingChangeLogRepository.findByIdGreaterThanOrderById(Mockito.eq(12L), Mockito.any())).thenReturn(List.of());
+        changeLogInvalidationBus.sync();
+        Mockito.when(bookingChangeLogRepository.findByIdInOrderById(List.of(11L))).thenReturn(List.of());
+        changeLogInvalidationBus.sync();
+
+        Mockito.when(clock.instant()).thenReturn(Instant.parse("2024-03-04T08:06:00Z"));
+        changeLogInvalidationBus.sync();
+
+        Assertions.assertEquals(List.of("Amaze"), received);
+        Mockito.verify(bookingChangeLogRepository, Mockito.times(1)).findByIdInOrderById(Mockito.any());
+    }
+
+    private static BookingChangeLogEntity row(long id, String roomName) {
+        BookingChangeLogEntity bookingChangeLogEntity = new BookingChangeLogEntity();
+        bookingChangeLogEntity.setId(id);
+        bookingChangeLogEntity.setNodeId("node-a");
+        bookingChangeLogEntity.setBookingDate(DAY);
+        bookingChangeLogEntity.setRoomName(roomName);
+        return bookingChangeLogEntity;
+    }
+}
@@ -0,0 +1,165 @@
+package com.mashreq.booking.cluster;
+
+import com.mashreq.booking.availability.CatalogChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.idempotency.IdempotencyCache;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * The type Cluster sync test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class ClusterSyncTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private BookedRoomRepository bookedRoomRepository;
+
+    @Mock
+    private BookingOverlapGuard bookingOverlapGuard;
+
+    @Mock
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @Mock
+    private IdempotencyCache idempotencyCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisherA;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisherB;
+
+    private RoomAvailabilityEngine roomAvailabilityEngineA;
+
+    private RoomAvailabilityEngine roomAvailabilityEngineB;
+
+    private ClusterSync nodeA;
+
+    private ClusterSync nodeB;
+
+    /**
+     * Sets up two nodes sharing one bus.
+     */
+    @BeforeEach
+    void setUp() {
+        InProcessInvalidationBus clusterInvalidationBus = new InProcessInvalidationBus();
+        roomAvailabilityEngineA = new RoomAvailabilityEngine(bookedRoomRepository);
+        roomAvailabilityEngineB = new RoomAvailabilityEngine(bookedRoomRepository);
+        nodeA = new ClusterSync(clusterInvalidationBus, roomAvailabilityEngineA, eventPublisherA, bookingOverlapGuard, idempotencyCache, "node-a");
+        nodeB = new ClusterSync(clusterInvalidationBus, roomAvailabilityEngineB, eventPublisherB, bookingOverlapGuard, idempotencyCache, "node-b");
+    }
+
+    /**
+     * Test a booking of one node refreshes the slots of the other node only.
+     */
+    @Test
+    void testOnAvailabilityChanged() {
+        long maskLow = SlotBitmap.lowMask(40, 44);
+        long maskHigh = SlotBitmap.highMask(40, 44);
+        // Both nodes hold the day, node B has not seen the booking of node A yet
+        roomAvailabilityEngineA.markBooked(DAY, "Amaze", maskLow, maskHigh);
+        roomAvailabilityEngineB.markBooked(DAY, "Beauty", maskLow, maskHigh);
+        BookedRoomEntity booking = new BookedRoomEntity();
+        booking.setRoomName("Amaze");
+        booking.setBookingDate(DAY);
+        booking.setStartTime(LocalTime.of(10, 0));
+        booking.setEndTime(LocalTime.of(11, 0));
+        Mockito.when(bookedRoomRepository.findOverlappingBookings(DAY, "Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0)))
+                .thenReturn(List.of(booking));
+        // The events of node B reach its listeners while they are published, as they do in the application context
+        Mockito.doAnswer(invocation -> {
+            nodeB.onAvailabilityChanged(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisherB).publishEvent(Mockito.any(RoomAvailabilityChangedEvent.class));
+
+        nodeA.onAvailabilityChanged(new RoomAvailabilityChangedEvent(DAY, "Amaze", maskLow, maskHigh));
+
+        Assertions.assertTrue(roomAvailabilityEngineB.isBooked(DAY, "Amaze", 40));
+        Assertions.assertFalse(roomAvailabilityEngineB.isBooked(DAY, "Amaze", 44));
+        ArgumentCaptor<RoomAvailabilityChangedEvent> eventCaptor = ArgumentCaptor.forClass(RoomAvailabilityChangedEvent.class);
+        Mockito.verify(eventPublisherB).publishEvent(eventCaptor.capture());
+        Assertions.assertEquals(new RoomAvailabilityChangedEvent(DAY, "Amaze", maskLow, maskHigh), eventCaptor.getValue());
+        // The republished event of node B is not sent back to the cluster
+        Mockito.verifyNoInteractions(eventPublisherA);
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).findOverlappingBookings(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Test the changes of a batch are coalesced per room and day, a catalog change reloads the catalog and a released
+     * booking is evicted from the idempotency cache.
+     */
+    @Test
+    void testApply_coalesced() {
+        roomAvailabilityEngineB.markBooked(DAY, "Amaze", SlotBitmap.lowMask(40, 48), SlotBitmap.highMask(40, 48));
+        Mockito.when(bookedRoomRepository.findOverlappingBookings(DAY, "Amaze", LocalTime.of(10, 0), LocalTime.of(12, 0)))
+                .thenReturn(List.of());
+
+        nodeB.apply(List.of(ClusterChange.availability("node-a", DAY, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44)),
+                ClusterChange.availability("node-a", DAY, "Amaze", SlotBitmap.lowMask(44, 48), SlotBitmap.highMask(44, 48)),
+                ClusterChange.availability("node-b", DAY, "Beauty", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44)),
+                ClusterChange.released("node-a", DAY, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44), "ref-1"),
+                ClusterChange.released("node-b", DAY, "Beauty", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44), "ref-2"),
+                ClusterChange.catalog("node-a")));
+
+        Assertions.assertFalse(roomAvailabilityEngineB.isBooked(DAY, "Amaze", 40));
+        Assertions.assertFalse(roomAvailabilityEngineB.isBooked(DAY, "Amaze", 47));
+        Mockito.verify(eventPublisherB).publishEvent(Mockito.any(CatalogChangedEvent.class));
+        Mockito.verify(eventPublisherB).publishEvent(new RoomAvailabilityChangedEvent(DAY, "Amaze", SlotBitmap.lowMask(40, 48), SlotBitmap.highMask(40, 48)));
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).findOverlappingBookings(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        // Only the bookings released on another node are evicted, this node evicted its own already
+        Mockito.verify(idempotencyCache).evict("ref-1");
+        Mockito.verifyNoMoreInteractions(idempotencyCache);
+    }
+
+    /**
+     * Test the rows written and released by a booking are written to the bus in its transaction.
+     */
+    @Test
+    void testRecord() {
+        ClusterSync nodeC = new ClusterSync(clusterInvalidationBus, roomAvailabilityEngineA, eventPublisherA, bookingOverlapGuard, idempotencyCache, "node-c");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<BiConsumer<List<BookedRoomEntity>, List<BookedRoomEntity>>> recorder = ArgumentCaptor.forClass(BiConsumer.class);
+        Mockito.verify(bookingOverlapGuard, Mockito.times(3)).setChangeRecorder(recorder.capture());
+        BookedRoomEntity booking = new BookedRoomEntity();
+        booking.setRoomName("Amaze");
+        booking.setBookingDate(DAY);
+        booking.setStartTime(LocalTime.of(10, 0));
+        booking.setEndTime(LocalTime.of(11, 0));
+        BookedRoomEntity released = new BookedRoomEntity();
+        released.setRoomName("Beauty");
+        released.setBookingDate(DAY);
+        released.setStartTime(LocalTime.of(9, 0));
+        released.setEndTime(LocalTime.of(9, 30));
+        released.setBookingReference("ref-1");
+
+        recorder.getValue().accept(List.of(booking), List.of(released));
+        recorder.getValue().accept(List.of(), List.of());
+
+        Mockito.verify(clusterInvalidationBus).publishInTransaction(List.of(
+                ClusterChange.availability("node-c", DAY, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44)),
+                ClusterChange.released("node-c", DAY, "Beauty", SlotBitmap.lowMask(36, 38), SlotBitmap.highMask(36, 38), "ref-1")));
+        Mockito.verify(clusterInvalidationBus, Mockito.never()).publish(Mockito.any());
+        Assertions.assertEquals("node-c", nodeC.getNodeId());
+    }
+}
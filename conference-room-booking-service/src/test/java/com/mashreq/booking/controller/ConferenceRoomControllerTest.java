@@ -1,11 +1,19 @@
 package com.mashreq.booking.controller;
 
+import com.mashreq.booking.enums.ViewFormat;
+import com.mashreq.booking.enums.WaitlistStatus;
+import com.mashreq.booking.model.AvailabilityResponse;
+import com.mashreq.booking.model.BatchBookingRequest;
+import com.mashreq.booking.model.BatchBookingResponse;
 import com.mashreq.booking.model.BookingRequest;
 import com.mashreq.booking.model.BookingResponse;
 import com.mashreq.booking.model.Response;
 import com.mashreq.booking.model.ViewRoomRequest;
 import com.mashreq.booking.model.ViewRoomResponse;
+import com.mashreq.booking.model.WaitlistResponse;
 import com.mashreq.booking.service.BookingService;
+import com.mashreq.booking.stream.AvailabilityStream;
+import com.mashreq.booking.waitlist.Waitlist;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,8 +24,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The type Conference room controller test.
@@ -33,15 +43,21 @@ class ConferenceRoomControllerTest {
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private AvailabilityStream availabilityStream;
+
+    @Mock
+    private Waitlist waitlist;
+
     /**
      * Test book room.
      */
     @Test
     void testBookRoom() {
         BookingRequest bookingRequest = new BookingRequest();
-        BookingResponse bookingResponse = new BookingResponse("Amaze", LocalTime.of(8, 0), LocalTime.of(8, 15));
-        Mockito.when(bookingService.bookConferenceRoom(bookingRequest)).thenReturn(bookingResponse);
-        ResponseEntity<Object> actual = conferenceRoomController.bookRoom(bookingRequest);
+        BookingResponse bookingResponse = new BookingResponse("Amaze", LocalTime.of(8, 0), LocalTime.of(8, 15), LocalDate.of(2024, 3, 3), "REF-1");
+        Mockito.when(bookingService.bookConferenceRoom(bookingRequest, "booking-1")).thenReturn(bookingResponse);
+        ResponseEntity<Object> actual = conferenceRoomController.bookRoom(bookingRequest, "booking-1");
         Assertions.assertNotNull(actual);
         Assertions.assertEquals(HttpStatusCode.valueOf(200), actual.getStatusCode());
         Assertions.assertNotNull(actual.getBody());
@@ -51,6 +67,75 @@ class ConferenceRoomControllerTest {
         Assertions.assertEquals(actualBookingResponse.getRoom(), bookingResponse.getRoom());
     }
 
+    /**
+     * Test join, follow and leave the waitlist.
+     */
+    @Test
+    void testWaitlist() {
+        BookingRequest bookingRequest = new BookingRequest();
+        WaitlistResponse waiting = new WaitlistResponse("TICKET-1", WaitlistStatus.WAITING, 5, LocalDate.of(2024, 3, 3),
+                LocalTime.of(8, 0), LocalTime.of(8, 15), 2, null);
+        WaitlistResponse cancelled = new WaitlistResponse("TICKET-1", WaitlistStatus.CANCELLED, 5, LocalDate.of(2024, 3, 3),
+                LocalTime.of(8, 0), LocalTime.of(8, 15), 2, null);
+        Mockito.when(waitlist.join(bookingRequest, 5)).thenReturn(waiting);
+        Mockito.when(waitlist.getTicket("TICKET-1")).thenReturn(waiting);
+        Mockito.when(waitlist.leave("TICKET-1")).thenReturn(cancelled);
+
+        Assertions.assertEquals(waiting, ((Response) conferenceRoomController.joinWaitlist(bookingRequest, 5).getBody()).getData());
+        Assertions.assertEquals(waiting, ((Response) conferenceRoomController.getWaitlistTicket("TICKET-1").getBody()).getData());
+        Assertions.assertEquals(cancelled, ((Response) conferenceRoomController.leaveWaitlist("TICKET-1").getBody()).getData());
+    }
+
+    /**
+     * Test cancel and reschedule booking.
+     */
+    @Test
+    void testCancelAndRescheduleBooking() {
+        BookingRequest bookingRequest = new BookingRequest();
+        BookingResponse cancelled = new BookingResponse("Amaze", LocalTime.of(8, 0), LocalTime.of(8, 15), LocalDate.of(2024, 3, 3), "REF-1");
+        BookingResponse moved = new BookingResponse("Amaze", LocalTime.of(9, 0), LocalTime.of(9, 15), LocalDate.of(2024, 3, 3), "REF-2");
+        Mockito.when(bookingService.cancelBooking("REF-1")).thenReturn(cancelled);
+        Mockito.when(bookingService.rescheduleBooking("REF-2", bookingRequest)).thenReturn(moved);
+
+        ResponseEntity<Object> actual = conferenceRoomController.cancelBooking("REF-1");
+        Assertions.assertEquals(HttpStatusCode.valueOf(200), actual.getStatusCode());
+        Assertions.assertEquals(cancelled, ((Response) actual.getBody()).getData());
+        actual = conferenceRoomController.rescheduleBooking("REF-2", bookingRequest);
+        Assertions.assertEquals(moved, ((Response) actual.getBody()).getData());
+    }
+
+    /**
+     * Test book rooms in a batch.
+     */
+    @Test
+    void testBookRooms() {
+        BatchBookingRequest batchBookingRequest = new BatchBookingRequest();
+        batchBookingRequest.setBookings(List.of(new BookingRequest()));
+        BatchBookingResponse batchBookingResponse = new BatchBookingResponse(
+                List.of(new BookingResponse("Amaze", LocalTime.of(8, 0), LocalTime.of(8, 15), LocalDate.of(2024, 3, 3), "REF-1")));
+        Mockito.when(bookingService.bookConferenceRooms(batchBookingRequest)).thenReturn(batchBookingResponse);
+        ResponseEntity<Object> actual = conferenceRoomController.bookRooms(batchBookingRequest);
+        Assertions.assertEquals(HttpStatusCode.valueOf(200), actual.getStatusCode());
+        Response actualResponse = (Response) actual.getBody();
+        Assertions.assertNotNull(actualResponse);
+        Assertions.assertEquals(batchBookingResponse, actualResponse.getData());
+    }
+
+    /**
+     * Test check availability.
+     */
+    @Test
+    void testCheckAvailability() {
+        BookingRequest bookingRequest = new BookingRequest();
+        AvailabilityResponse availabilityResponse = new AvailabilityResponse(LocalDate.of(2024, 3, 3), LocalTime.of(8, 0), LocalTime.of(8, 15), 3, true);
+        Mockito.when(bookingService.checkAvailability(bookingRequest)).thenReturn(availabilityResponse);
+        ResponseEntity<Object> actual = conferenceRoomController.checkAvailability(bookingRequest);
+        Assertions.assertEquals(HttpStatusCode.valueOf(200), actual.getStatusCode());
+        Response actualResponse = (Response) actual.getBody();
+        Assertions.assertNotNull(actualResponse);
+        Assertions.assertEquals(availabilityResponse, actualResponse.getData());
+    }
+
     /**
      * Test view room.
      */
@@ -60,8 +145,8 @@ class ConferenceRoomControllerTest {
         viewRoomResponse.setAvailableRooms(new ArrayList<>());
         viewRoomResponse.getAvailableRooms().add(new ViewRoomResponse.RoomDetails("Amaze", 3, new ArrayList<>()));
         ViewRoomRequest viewRoomRequest = new ViewRoomRequest();
-        Mockito.when(bookingService.findAvailableRooms(viewRoomRequest)).thenReturn(viewRoomResponse);
-        ResponseEntity<Object> actual = conferenceRoomController.viewAvailableRooms(viewRoomRequest);
+        Mockito.when(bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.SLOTS)).thenReturn(viewRoomResponse);
+        ResponseEntity<Object> actual = conferenceRoomController.viewAvailableRooms(viewRoomRequest, ViewFormat.SLOTS);
         Assertions.assertNotNull(actual);
         Assertions.assertEquals(HttpStatusCode.valueOf(200), actual.getStatusCode());
         Assertions.assertNotNull(actual.getBody());
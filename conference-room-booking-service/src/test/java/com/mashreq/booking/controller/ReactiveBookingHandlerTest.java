@@ -0,0 +1,195 @@
+package com.mashreq.booking.controller;
+
+import com.mashreq.booking.config.ReactiveRouterConfig;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.TransferFormat;
+import com.mashreq.booking.enums.TransferTable;
+import com.mashreq.booking.enums.ViewFormat;
+import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.metrics.BookingMetrics;
+import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.BookingResponse;
+import com.mashreq.booking.model.ImportResponse;
+import com.mashreq.booking.model.ViewRoomRequest;
+import com.mashreq.booking.model.ViewRoomResponse;
+import com.mashreq.booking.service.BookingService;
+import com.mashreq.booking.stream.AvailabilityStream;
+import com.mashreq.booking.transfer.BulkTransfer;
+import com.mashreq.booking.waitlist.Waitlist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The type Reactive booking handler test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveBookingHandlerTest {
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private AvailabilityStream availabilityStream;
+
+    @Mock
+    private Waitlist waitlist;
+
+    @Mock
+    private BulkTransfer bulkTransfer;
+
+    private WebTestClient webTestClient;
+
+    /**
+     * Bind the client to the booking routes.
+     */
+    @BeforeEach
+    void setUp() {
+        ReactiveBookingHandler reactiveBookingHandler = new ReactiveBookingHandler(bookingService, validator, availabilityStream,
+                new BookingMetrics(new SimpleMeterRegistry()), waitlist, bulkTransfer);
+        webTestClient = WebTestClient.bindToRouterFunction(new ReactiveRouterConfig().bookingRoutes(reactiveBookingHandler)).build();
+    }
+
+    /**
+     * Test book room.
+     */
+    @Test
+    void testBookRoom() {
+        Mockito.when(validator.validate(Mockito.any(BookingRequest.class))).thenReturn(Set.of());
+        Mockito.when(bookingService.bookConferenceRoom(Mockito.any(), Mockito.any()))
+                .thenReturn(new BookingResponse("Amaze", LocalTime.of(8, 0), LocalTime.of(8, 15), LocalDate.of(2024, 3, 3), "REF-1"));
+
+        webTestClient.post().uri("/v1/conference/room/book").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"persons\":2,\"startTime\":\"08:00\",\"endTime\":\"08:15\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("SUCCESS")
+                .jsonPath("$.data.room").isEqualTo("Amaze");
+    }
+
+    /**
+     * Test book room when no room is available.
+     */
+    @Test
+    void testBookRoom_noRoomsFound() {
+        Mockito.when(validator.validate(Mockito.any(BookingRequest.class))).thenReturn(Set.of());
+        Mockito.when(bookingService.bookConferenceRoom(Mockito.any(), Mockito.any())).thenThrow(new AppException(AppErrorCode.NO_ROOMS_FOUND));
+
+        webTestClient.post().uri("/v1/conference/room/book").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"persons\":2,\"startTime\":\"08:00\",\"endTime\":\"08:15\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("ERROR")
+                .jsonPath("$.errorCode").isEqualTo(AppErrorCode.NO_ROOMS_FOUND.getErrorCode())
+                .jsonPath("$.uriPath").isEqualTo("/v1/conference/room/book");
+    }
+
+    /**
+     * Test view room served from memory in the requested format.
+     */
+    @Test
+    void testViewRoom() {
+        ViewRoomResponse viewRoomResponse = new ViewRoomResponse();
+        viewRoomResponse.setAvailableRooms(List.of(new ViewRoomResponse.RoomDetails("Amaze", 3, List.of("08:00 - 08:15"))));
+        Mockito.when(validator.validate(Mockito.any(ViewRoomRequest.class))).thenReturn(Set.of());
+        Mockito.when(bookingService.isAvailabilityLoaded(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
+        Mockito.when(bookingService.findAvailableRooms(Mockito.any(), Mockito.eq(ViewFormat.RANGES))).thenReturn(viewRoomResponse);
+
+        webTestClient.post().uri("/v1/conference/room/view?format=RANGES").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"startTime\":\"08:00\",\"endTime\":\"08:15\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.availableRooms[0].room").isEqualTo("Amaze");
+    }
+
+    /**
+     * Test view room with an unknown format.
+     */
+    @Test
+    void testViewRoom_invalidFormat() {
+        webTestClient.post().uri("/v1/conference/room/view?format=CALENDAR").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"startTime\":\"08:00\",\"endTime\":\"08:15\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo(AppErrorCode.INVALID_REQUEST_PARAMETER.getErrorCode());
+        Mockito.verifyNoInteractions(bookingService);
+    }
+
+    /**
+     * Test export rows.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testExportRows() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(4);
+            outputStream.write("{\"name\":\"Amaze\",\"capacity\":3}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bulkTransfer).export(Mockito.eq(TransferTable.BOOKINGS), Mockito.eq(TransferFormat.NDJSON), Mockito.eq(LocalDate.of(2024, 3, 3)),
+                Mockito.isNull(), Mockito.any());
+
+        webTestClient.get().uri("/v1/conference/room/export/bookings?from=2024-03-03")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(TransferFormat.NDJSON.getMediaType())
+                .expectBody(String.class).isEqualTo("{\"name\":\"Amaze\",\"capacity\":3}\n");
+    }
+
+    /**
+     * Test export rows of an unknown table.
+     */
+    @Test
+    void testExportRows_invalidTable() {
+        webTestClient.get().uri("/v1/conference/room/export/desks")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo(AppErrorCode.INVALID_REQUEST_PARAMETER.getErrorCode());
+        Mockito.verifyNoInteractions(bulkTransfer);
+    }
+
+    /**
+     * Test import rows, the body reaches the import through the pipe.
+     */
+    @Test
+    void testImportRows() {
+        Mockito.when(bulkTransfer.importRows(Mockito.eq(TransferTable.ROOMS), Mockito.eq(TransferFormat.CSV), Mockito.any())).thenAnswer(invocation -> {
+            InputStream inputStream = invocation.getArgument(2);
+            long rows = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).lines().count() - 1;
+            return new ImportResponse("rooms", rows, 0L, List.of());
+        });
+
+        webTestClient.post().uri("/v1/conference/room/import/rooms?format=CSV").contentType(TransferFormat.CSV.getMediaType())
+                .bodyValue("name,capacity\nOrbit,8\nSummit,16\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("SUCCESS")
+                .jsonPath("$.data.imported").isEqualTo(2);
+    }
+}
@@ -0,0 +1,167 @@
+package com.mashreq.booking.journal;
+
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.BookedSlotView;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The type Booking journal test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class BookingJournalTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 4);
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private BookedRoomRepository bookedRoomRepository;
+
+    private Clock clock;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        clock = Clock.fixed(Instant.parse("2024-03-04T08:00:00Z"), ZoneOffset.UTC);
+    }
+
+    /**
+     * Test a restart restores the snapshot and replays the journal written after it, checked against the bookings of
+     * the database: a reservation whose booking was never written is dropped.
+     */
+    @Test
+    void testOpen_restoresSnapshotAndJournal() throws IOException {
+        RoomAvailabilityEngine roomAvailabilityEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        BookingJournal bookingJournal = new BookingJournal(roomAvailabilityEngine, clock, directory, false);
+        bookingJournal.open();
+        Mockito.when(bookedRoomRepository.findBookedSlots(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(List.of());
+        roomAvailabilityEngine.load(TODAY, 32, 72);
+        roomAvailabilityEngine.markBooked(TODAY.minusDays(1), "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(TODAY, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44)));
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(TODAY, "Beauty", SlotBitmap.lowMask(60, 70), SlotBitmap.highMask(60, 70)));
+        bookingJournal.snapshot();
+        // Changes after the snapshot are only in the journal, the process then stops without a last snapshot
+        roomAvailabilityEngine.release(TODAY, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44));
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(TODAY.plusDays(1), "Strive", SlotBitmap.lowMask(80, 84), SlotBitmap.highMask(80, 84)));
+        // The process stops before the booking of the last reservation is written
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(TODAY, "Inspire", SlotBitmap.lowMask(48, 52), SlotBitmap.highMask(48, 52)));
+        Mockito.when(bookedRoomRepository.findBookedSlots(TODAY, LocalTime.of(8, 0), LocalTime.of(18, 0)))
+                .thenReturn(List.of(bookedSlot("Beauty", LocalTime.of(15, 0), LocalTime.of(17, 30))));
+
+        RoomAvailabilityEngine restoredEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        new BookingJournal(restoredEngine, clock, directory, false).open();
+
+        Assertions.assertFalse(restoredEngine.isBooked(TODAY, "Amaze", 40));
+        Assertions.assertTrue(restoredEngine.isBooked(TODAY, "Beauty", 64));
+        Assertions.assertTrue(restoredEngine.isBooked(TODAY, "Beauty", 69));
+        Assertions.assertFalse(restoredEngine.isBooked(TODAY, "Beauty", 70));
+        Assertions.assertFalse(restoredEngine.isBooked(TODAY, "Inspire", 48));
+        // A day without a loaded window is read from the database on first use
+        Assertions.assertFalse(restoredEngine.isBooked(TODAY.plusDays(1), "Strive", 83));
+        Assertions.assertFalse(restoredEngine.isBooked(TODAY.minusDays(1), "Amaze", 40));
+        Assertions.assertTrue(restoredEngine.isLoaded(TODAY, 32, 72));
+        Assertions.assertFalse(restoredEngine.isLoaded(TODAY.plusDays(1), 80, 84));
+        Mockito.verify(bookedRoomRepository, Mockito.times(2)).findBookedSlots(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Test the bookings read from the database are not written to the journal, a restart reads them again.
+     */
+    @Test
+    void testLoad_notJournaled() throws IOException {
+        RoomAvailabilityEngine roomAvailabilityEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        new BookingJournal(roomAvailabilityEngine, clock, directory, true).open();
+        Mockito.when(bookedRoomRepository.findBookedSlots(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(bookedSlot("Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0))));
+        Path journalFile;
+        try (Stream<Path> files = Files.list(directory)) {
+            journalFile = files.filter(file -> file.getFileName().toString().startsWith("journal-")).findFirst().orElseThrow();
+        }
+        long journalSize = Files.size(journalFile);
+
+        roomAvailabilityEngine.load(TODAY, 32, 72);
+
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(TODAY, "Amaze", 40));
+        Assertions.assertEquals(journalSize, Files.size(journalFile));
+        RoomAvailabilityEngine restoredEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        new BookingJournal(restoredEngine, clock, directory, true).open();
+        Assertions.assertFalse(restoredEngine.isLoaded(TODAY, 32, 72));
+    }
+
+    /**
+     * Test a record cut short by a crash is dropped along with whatever follows it.
+     */
+    @Test
+    void testOpen_tornJournalTail() throws IOException {
+        RoomAvailabilityEngine roomAvailabilityEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        BookingJournal bookingJournal = new BookingJournal(roomAvailabilityEngine, clock, directory, true);
+        bookingJournal.open();
+        Mockito.when(bookedRoomRepository.findBookedSlots(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(List.of());
+        roomAvailabilityEngine.load(TODAY, 32, 72);
+        bookingJournal.snapshot();
+        Assertions.assertTrue(roomAvailabilityEngine.tryReserve(TODAY, "Amaze", SlotBitmap.lowMask(40, 44), SlotBitmap.highMask(40, 44)));
+        Mockito.when(bookedRoomRepository.findBookedSlots(TODAY, LocalTime.of(8, 0), LocalTime.of(18, 0)))
+                .thenReturn(List.of(bookedSlot("Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0))));
+        Path journalFile;
+        try (Stream<Path> files = Files.list(directory)) {
+            journalFile = files.filter(file -> file.getFileName().toString().startsWith("journal-")).findFirst().orElseThrow();
+        }
+        Files.write(journalFile, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        RoomAvailabilityEngine restoredEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        BookingJournal restoredJournal = new BookingJournal(restoredEngine, clock, directory, true);
+        restoredJournal.open();
+
+        Assertions.assertTrue(restoredEngine.isBooked(TODAY, "Amaze", 43));
+        Assertions.assertFalse(restoredEngine.isBooked(TODAY, "Amaze", 44));
+        // The restart wrote a snapshot of its own, the torn journal is not needed anymore
+        restoredJournal.close();
+        Assertions.assertTrue(Files.exists(directory.resolve(BookingJournal.SNAPSHOT_FILE)));
+        Assertions.assertFalse(Files.exists(journalFile));
+    }
+
+    private static BookedSlotView bookedSlot(String roomName, LocalTime startTime, LocalTime endTime) {
+        return new BookedSlotView() {
+            @Override
+            public String getRoomName() {
+                return roomName;
+            }
+
+            @Override
+            public LocalTime getStartTime() {
+                return startTime;
+            }
+
+            @Override
+            public LocalTime getEndTime() {
+                return endTime;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.mashreq.booking.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Query count inspector test.
+ *
+ * @author janv @mashreq.com
+ */
+class QueryCountInspectorTest {
+
+    /**
+     * Test statements are only counted between begin and end.
+     */
+    @Test
+    void testCount() {
+        QueryCountInspector queryCountInspector = new QueryCountInspector();
+        Assertions.assertEquals("select 1", queryCountInspector.inspect("select 1"));
+
+        QueryCountInspector.begin();
+        queryCountInspector.inspect("select 1");
+        queryCountInspector.inspect("insert into booked_room values (?)");
+        Assertions.assertEquals(2, QueryCountInspector.end());
+        Assertions.assertEquals(0, QueryCountInspector.end());
+    }
+}
@@ -0,0 +1,65 @@
+package com.mashreq.booking.migration;
+
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * The type Slot row migration test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class SlotRowMigrationTest {
+
+    @InjectMocks
+    private SlotRowMigration slotRowMigration;
+
+    @Mock
+    private BookedRoomRepository bookedRoomRepository;
+
+    /**
+     * Test merge of per-slot rows into one row per booking.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMigrate() {
+        BookedRoomEntity first = bookedRoom("ref-1", "Amaze", LocalTime.of(8, 0), LocalTime.of(8, 15));
+        BookedRoomEntity second = bookedRoom("ref-1", "Amaze", LocalTime.of(8, 15), LocalTime.of(8, 30));
+        BookedRoomEntity third = bookedRoom("ref-1", "Amaze", LocalTime.of(8, 30), LocalTime.of(8, 45));
+        BookedRoomEntity single = bookedRoom("ref-2", "Beauty", LocalTime.of(8, 0), LocalTime.of(9, 0));
+        BookedRoomEntity other = bookedRoom("ref-3", "Beauty", LocalTime.of(9, 0), LocalTime.of(9, 15));
+        Mockito.when(bookedRoomRepository.findAll(Mockito.any(Sort.class))).thenReturn(List.of(first, second, third, single, other));
+
+        slotRowMigration.migrate();
+
+        ArgumentCaptor<List<BookedRoomEntity>> merged = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<BookedRoomEntity>> obsolete = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(bookedRoomRepository).saveAll(merged.capture());
+        Mockito.verify(bookedRoomRepository).deleteAllInBatch(obsolete.capture());
+        Assertions.assertEquals(List.of(first), merged.getValue());
+        Assertions.assertEquals(LocalTime.of(8, 45), first.getEndTime());
+        Assertions.assertEquals(List.of(second, third), obsolete.getValue());
+        Assertions.assertEquals(LocalTime.of(9, 0), single.getEndTime());
+    }
+
+    private BookedRoomEntity bookedRoom(String reference, String roomName, LocalTime startTime, LocalTime endTime) {
+        BookedRoomEntity bookedRoom = new BookedRoomEntity();
+        bookedRoom.setBookingReference(reference);
+        bookedRoom.setRoomName(roomName);
+        bookedRoom.setStartTime(startTime);
+        bookedRoom.setEndTime(endTime);
+        return bookedRoom;
+    }
+}
@@ -1,28 +1,51 @@
 package com.mashreq.booking.service.impl;
 
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.RoomCatalog;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.cluster.BookingOverlapGuard;
+import com.mashreq.booking.constants.AppConstants;
 import com.mashreq.booking.entity.BookedRoomEntity;
 import com.mashreq.booking.entity.ConferenceRoomsEntity;
+import com.mashreq.booking.entity.IdempotencyKeyEntity;
 import com.mashreq.booking.entity.MaintenanceTimeEntity;
 import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.ViewFormat;
 import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.idempotency.IdempotencyCache;
+import com.mashreq.booking.metrics.BookingMetrics;
+import com.mashreq.booking.model.AvailabilityResponse;
+import com.mashreq.booking.model.BatchBookingRequest;
+import com.mashreq.booking.model.BatchBookingResponse;
 import com.mashreq.booking.model.BookingRequest;
 import com.mashreq.booking.model.BookingResponse;
 import com.mashreq.booking.model.ViewRoomRequest;
 import com.mashreq.booking.model.ViewRoomResponse;
 import com.mashreq.booking.repo.BookedRoomRepository;
 import com.mashreq.booking.repo.ConferenceRoomRepository;
+import com.mashreq.booking.repo.IdempotencyKeyRepository;
 import com.mashreq.booking.repo.MaintenanceTimeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 
 
 /**
@@ -33,9 +56,18 @@ import java.util.List;
 @ExtendWith(MockitoExtension.class)
 class BookingServiceImplTest {
 
-    @InjectMocks
     private BookingServiceImpl bookingService;
 
+    private RoomAvailabilityEngine roomAvailabilityEngine;
+
+    private IdempotencyCache idempotencyCache;
+
+    private final Clock clock = Clock.systemDefaultZone();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final BookingMetrics bookingMetrics = new BookingMetrics(meterRegistry);
+
     @Mock
     private ConferenceRoomRepository conferenceRoomRepository;
 
@@ -45,14 +77,43 @@ class BookingServiceImplTest {
     @Mock
     private MaintenanceTimeRepository maintenanceTimeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        roomAvailabilityEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        bookingService = this.newBookingService(false);
+    }
+
+    private BookingServiceImpl newBookingService(boolean clustered) {
+        idempotencyCache = new IdempotencyCache(bookedRoomRepository, idempotencyKeyRepository, clock, Duration.ofHours(1), 100);
+        return new BookingServiceImpl(bookedRoomRepository, roomAvailabilityEngine,
+                new RoomCatalog(conferenceRoomRepository, maintenanceTimeRepository), clock, eventPublisher, bookingMetrics,
+                idempotencyCache,
+                new BookingOverlapGuard(conferenceRoomRepository, bookedRoomRepository, clustered));
+    }
+
+    private void book(String roomName, LocalTime startTime, LocalTime endTime) {
+        int startSlot = SlotBitmap.slotOf(startTime);
+        int endSlot = SlotBitmap.slotCeil(endTime);
+        roomAvailabilityEngine.markBooked(LocalDate.now(clock), roomName, SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot));
+    }
+
     /**
      * Test book conference room request within maintenance time.
      */
     @Test
     void testBookConferenceRoom_requestWithinMaintenanceTime() {
         List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, "08:00", "08:15"));
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, "09:00", "09:15"));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(8, 0), LocalTime.of(8, 15)));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
         Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
 
         BookingRequest bookingRequest = new BookingRequest();
@@ -105,8 +166,8 @@ class BookingServiceImplTest {
     @Test
     void testBookConferenceRoom_maxRoomCapacityException() {
         List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, "08:00", "08:15"));
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, "09:00", "09:15"));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(8, 0), LocalTime.of(8, 15)));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
         Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
 
         List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
@@ -128,8 +189,8 @@ class BookingServiceImplTest {
     @Test
     void testBookConferenceRoom_noRoomFoundException() {
         List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, "08:00", "08:15"));
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, "09:00", "09:15"));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(8, 0), LocalTime.of(8, 15)));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
         Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
 
         List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
@@ -137,12 +198,7 @@ class BookingServiceImplTest {
         conferenceRooms.add(new ConferenceRoomsEntity(2L, "Beauty", 7));
         Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
 
-        List<BookedRoomEntity> beautyRoomList = new ArrayList<>();
-        BookedRoomEntity beautyRoom = new BookedRoomEntity();
-        beautyRoom.setStartTime("08:15");
-        beautyRoom.setEndTime("08:30");
-        beautyRoomList.add(beautyRoom);
-        Mockito.when(bookedRoomRepository.findByRoomName("Beauty")).thenReturn(beautyRoomList);
+        book("Beauty", LocalTime.of(8, 15), LocalTime.of(8, 30));
 
         BookingRequest bookingRequest = new BookingRequest();
         bookingRequest.setStartTime(LocalTime.of(8,15));
@@ -151,6 +207,8 @@ class BookingServiceImplTest {
         AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.bookConferenceRoom(bookingRequest));
         Assertions.assertNotNull(exception);
         Assertions.assertEquals(AppErrorCode.NO_ROOMS_FOUND.getErrorCode(), exception.getErrorCode());
+        Assertions.assertEquals(0, exception.getStackTrace().length);
+        Assertions.assertTrue(new AppException(AppErrorCode.SYSTEM_ERROR).getStackTrace().length > 0);
     }
 
     /**
@@ -159,8 +217,8 @@ class BookingServiceImplTest {
     @Test
     void testBookConferenceRoom_saveBookingDetails() {
         List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, "08:00", "08:15"));
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, "09:00", "09:15"));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(8, 0), LocalTime.of(8, 15)));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
         Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
 
         List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
@@ -170,13 +228,7 @@ class BookingServiceImplTest {
         conferenceRooms.add(new ConferenceRoomsEntity(4L, "Strive", 20));
         Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
 
-        List<BookedRoomEntity> beautyRoomList = new ArrayList<>();
-        BookedRoomEntity beautyRoom = new BookedRoomEntity();
-        beautyRoom.setStartTime("08:15");
-        beautyRoom.setEndTime("08:30");
-        beautyRoomList.add(beautyRoom);
-        Mockito.when(bookedRoomRepository.findByRoomName("Beauty")).thenReturn(beautyRoomList);
-        Mockito.when(bookedRoomRepository.findByRoomName("Inspire")).thenReturn(new ArrayList<>());
+        book("Beauty", LocalTime.of(8, 15), LocalTime.of(8, 30));
 
         BookingRequest bookingRequest = new BookingRequest();
         bookingRequest.setStartTime(LocalTime.of(8,15));
@@ -185,6 +237,14 @@ class BookingServiceImplTest {
         BookingResponse actual = bookingService.bookConferenceRoom(bookingRequest);
         Assertions.assertNotNull(actual);
         Assertions.assertEquals("Inspire", actual.getRoom());
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Inspire", SlotBitmap.slotOf(LocalTime.of(8, 15))));
+        Mockito.verify(bookedRoomRepository).save(Mockito.any());
+        int slot = SlotBitmap.slotOf(LocalTime.of(8, 15));
+        Mockito.verify(eventPublisher).publishEvent(new RoomAvailabilityChangedEvent(LocalDate.now(clock), "Inspire",
+                SlotBitmap.lowMask(slot, slot + 1), SlotBitmap.highMask(slot, slot + 1)));
+        Assertions.assertEquals(2.0, meterRegistry.get("booking.rooms.scanned").summary().totalAmount());
+        Assertions.assertEquals(1.0, meterRegistry.get("booking.slots.written").summary().totalAmount());
+        Assertions.assertEquals(1, meterRegistry.get("booking.stage").tags("operation", "book", "stage", "save").timer().count());
     }
 
     /**
@@ -193,8 +253,8 @@ class BookingServiceImplTest {
     @Test
     void testBookConferenceRoom_saveBookingDetailsForAvailableTime() {
         List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, "08:00", "08:15"));
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, "09:00", "09:15"));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(8, 0), LocalTime.of(8, 15)));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
         Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
 
         List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
@@ -204,18 +264,8 @@ class BookingServiceImplTest {
         conferenceRooms.add(new ConferenceRoomsEntity(4L, "Strive", 20));
         Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
 
-        List<BookedRoomEntity> beautyRoomList = new ArrayList<>();
-        BookedRoomEntity beautyRoom = new BookedRoomEntity();
-        beautyRoom.setStartTime("08:15");
-        beautyRoom.setEndTime("08:30");
-        beautyRoomList.add(beautyRoom);
-        Mockito.when(bookedRoomRepository.findByRoomName("Beauty")).thenReturn(beautyRoomList);
-        List<BookedRoomEntity> inspireRoomList = new ArrayList<>();
-        BookedRoomEntity inspireRoom = new BookedRoomEntity();
-        inspireRoom.setStartTime("09:15");
-        inspireRoom.setEndTime("09:30");
-        inspireRoomList.add(inspireRoom);
-        Mockito.when(bookedRoomRepository.findByRoomName("Inspire")).thenReturn(inspireRoomList);
+        book("Beauty", LocalTime.of(8, 15), LocalTime.of(8, 30));
+        book("Inspire", LocalTime.of(9, 15), LocalTime.of(9, 30));
 
         BookingRequest bookingRequest = new BookingRequest();
         bookingRequest.setStartTime(LocalTime.of(8,15));
@@ -226,6 +276,440 @@ class BookingServiceImplTest {
         Assertions.assertEquals("Inspire", actual.getRoom());
     }
 
+    /**
+     * Test book conference room saves a single row for a multi slot booking.
+     */
+    @Test
+    void testBookConferenceRoom_saveSingleRowPerBooking() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(20,0));
+        bookingRequest.setPersons(3);
+        BookingResponse actual = bookingService.bookConferenceRoom(bookingRequest);
+        Assertions.assertEquals("Amaze", actual.getRoom());
+
+        ArgumentCaptor<BookedRoomEntity> saved = ArgumentCaptor.forClass(BookedRoomEntity.class);
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).save(saved.capture());
+        Assertions.assertEquals(LocalTime.of(10, 0), saved.getValue().getStartTime());
+        Assertions.assertEquals(LocalTime.of(20, 0), saved.getValue().getEndTime());
+        Assertions.assertEquals("Guest", saved.getValue().getBookedBy());
+    }
+
+    /**
+     * Test book conference room for a future date is kept apart from the bookings of today.
+     */
+    @Test
+    void testBookConferenceRoom_futureBookingDate() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        book("Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0));
+
+        LocalDate tomorrow = LocalDate.now(clock).plusDays(1);
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setBookingDate(tomorrow);
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        bookingRequest.setPersons(3);
+        BookingResponse actual = bookingService.bookConferenceRoom(bookingRequest);
+        Assertions.assertEquals("Amaze", actual.getRoom());
+        Assertions.assertEquals(tomorrow, actual.getBookingDate());
+
+        ArgumentCaptor<BookedRoomEntity> saved = ArgumentCaptor.forClass(BookedRoomEntity.class);
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).save(saved.capture());
+        Assertions.assertEquals(tomorrow, saved.getValue().getBookingDate());
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).findBookedSlots(tomorrow, LocalTime.of(10, 0), LocalTime.of(11, 0));
+
+        bookingRequest.setBookingDate(null);
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.bookConferenceRoom(bookingRequest));
+        Assertions.assertEquals(AppErrorCode.NO_ROOMS_FOUND.getErrorCode(), exception.getErrorCode());
+    }
+
+    /**
+     * Test book conference room releases the reserved slots when the booking cannot be saved.
+     */
+    @Test
+    void testBookConferenceRoom_releaseOnSaveFailure() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        Mockito.when(bookedRoomRepository.save(Mockito.any())).thenThrow(new IllegalStateException("Database down"));
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        bookingRequest.setPersons(3);
+        Assertions.assertThrows(IllegalStateException.class, () -> bookingService.bookConferenceRoom(bookingRequest));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(10, 0))));
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * Test book conference room keeps the slots booked when another node already booked them in the database.
+     */
+    @Test
+    void testBookConferenceRoom_clusterConflict() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        Mockito.when(bookedRoomRepository.existsOverlappingBooking(Mockito.any(), Mockito.eq("Amaze"), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(true);
+        BookedRoomEntity otherNodeBooking = new BookedRoomEntity();
+        otherNodeBooking.setRoomName("Amaze");
+        otherNodeBooking.setBookingDate(LocalDate.now(clock));
+        otherNodeBooking.setStartTime(LocalTime.of(10, 0));
+        otherNodeBooking.setEndTime(LocalTime.of(11, 0));
+        Mockito.when(bookedRoomRepository.findOverlappingBookings(Mockito.any(), Mockito.eq("Amaze"), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(otherNodeBooking));
+        BookingServiceImpl clusteredBookingService = this.newBookingService(true);
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        bookingRequest.setPersons(3);
+        AppException exception = Assertions.assertThrows(AppException.class, () -> clusteredBookingService.bookConferenceRoom(bookingRequest));
+        Assertions.assertEquals(AppErrorCode.BOOKING_CONFLICT.getErrorCode(), exception.getErrorCode());
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(10, 0))));
+        Mockito.verify(conferenceRoomRepository).lockByName("Amaze");
+        Mockito.verify(bookedRoomRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    /**
+     * Test a booking retried with the same idempotency key gets the original room without a second booking.
+     */
+    @Test
+    void testBookConferenceRoom_idempotencyKeyReplay() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        conferenceRooms.add(new ConferenceRoomsEntity(2L, "Beauty", 7));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        bookingRequest.setPersons(3);
+        BookingResponse actual = bookingService.bookConferenceRoom(bookingRequest, "booking-1");
+        BookingResponse replayed = bookingService.bookConferenceRoom(bookingRequest, "booking-1");
+        Assertions.assertEquals("Amaze", actual.getRoom());
+        Assertions.assertEquals(actual, replayed);
+
+        ArgumentCaptor<IdempotencyKeyEntity> savedKey = ArgumentCaptor.forClass(IdempotencyKeyEntity.class);
+        Mockito.verify(idempotencyKeyRepository, Mockito.times(1)).save(savedKey.capture());
+        Assertions.assertEquals("booking-1", savedKey.getValue().getIdempotencyKey());
+        Assertions.assertEquals(actual.getBookingReference(), savedKey.getValue().getBookingReference());
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).save(Mockito.any());
+
+        BookingRequest otherRequest = new BookingRequest();
+        otherRequest.setStartTime(LocalTime.of(12,0));
+        otherRequest.setEndTime(LocalTime.of(13,0));
+        otherRequest.setPersons(3);
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.bookConferenceRoom(otherRequest, "booking-1"));
+        Assertions.assertEquals(AppErrorCode.IDEMPOTENCY_KEY_REUSED.getErrorCode(), exception.getErrorCode());
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).save(Mockito.any());
+
+        // Another client picking the same key gets its own booking
+        otherRequest.setUserName("jane");
+        BookingResponse other = bookingService.bookConferenceRoom(otherRequest, "booking-1");
+        Assertions.assertNotEquals(actual.getBookingReference(), other.getBookingReference());
+        Mockito.verify(idempotencyKeyRepository, Mockito.times(2)).save(savedKey.capture());
+        Assertions.assertEquals("jane", savedKey.getValue().getClient());
+        Mockito.verify(bookedRoomRepository, Mockito.times(2)).save(Mockito.any());
+    }
+
+    /**
+     * Test a booking retried after its idempotency key left the cache replays the saved booking as it is now, moved or
+     * cancelled, without booking it again.
+     */
+    @Test
+    void testBookConferenceRoom_idempotencyKeySaved() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        conferenceRooms.add(new ConferenceRoomsEntity(2L, "Beauty", 7));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        bookingRequest.setPersons(5);
+        BookingResponse booked = bookingService.bookConferenceRoom(bookingRequest, "booking-2");
+        ArgumentCaptor<IdempotencyKeyEntity> savedKey = ArgumentCaptor.forClass(IdempotencyKeyEntity.class);
+        Mockito.verify(idempotencyKeyRepository).save(savedKey.capture());
+        Assertions.assertEquals(AppConstants.DEFAULT_USER_NAME, savedKey.getValue().getClient());
+        Mockito.when(idempotencyKeyRepository.findByClientAndIdempotencyKey(AppConstants.DEFAULT_USER_NAME, "booking-2")).thenReturn(Optional.of(savedKey.getValue()));
+
+        // Moved in the meantime, the retry gets the booking as it is now
+        BookedRoomEntity moved = new BookedRoomEntity();
+        moved.setRoomName("Beauty");
+        moved.setStartTime(LocalTime.of(12, 0));
+        moved.setEndTime(LocalTime.of(13, 0));
+        moved.setBookingDate(LocalDate.now(clock));
+        moved.setNumberOfPersons(5);
+        moved.setBookingReference(booked.getBookingReference());
+        Mockito.when(bookedRoomRepository.findByBookingReferenceOrderByStartTime(booked.getBookingReference())).thenReturn(List.of(moved));
+        bookingService = this.newBookingService(false);
+        BookingResponse actual = bookingService.bookConferenceRoom(bookingRequest, "booking-2");
+        Assertions.assertEquals("Beauty", actual.getRoom());
+        Assertions.assertEquals(LocalTime.of(12, 0), actual.getStartTime());
+        Assertions.assertEquals(booked.getBookingReference(), actual.getBookingReference());
+
+        // Cancelled in the meantime, the cancel evicting the key, the retry does not book the meeting again
+        Mockito.when(bookedRoomRepository.findByBookingReferenceOrderByStartTime(booked.getBookingReference())).thenReturn(List.of());
+        Mockito.when(idempotencyKeyRepository.findByBookingReference(booked.getBookingReference())).thenReturn(List.of(savedKey.getValue()));
+        idempotencyCache.evict(booked.getBookingReference());
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.bookConferenceRoom(bookingRequest, "booking-2"));
+        Assertions.assertEquals(AppErrorCode.BOOKING_CANCELLED.getErrorCode(), exception.getErrorCode());
+
+        BookingRequest otherRequest = new BookingRequest();
+        otherRequest.setStartTime(LocalTime.of(10,0));
+        otherRequest.setEndTime(LocalTime.of(11,0));
+        otherRequest.setPersons(6);
+        exception = Assertions.assertThrows(AppException.class, () -> bookingService.bookConferenceRoom(otherRequest, "booking-2"));
+        Assertions.assertEquals(AppErrorCode.IDEMPOTENCY_KEY_REUSED.getErrorCode(), exception.getErrorCode());
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).save(Mockito.any());
+        Mockito.verify(idempotencyKeyRepository, Mockito.times(1)).save(Mockito.any());
+    }
+
+    /**
+     * Test book conference room rejects a request without trying the rooms when a slot has no free room that fits.
+     */
+    @Test
+    void testBookConferenceRoom_noFreeRoomCount() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        conferenceRooms.add(new ConferenceRoomsEntity(2L, "Beauty", 7));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        book("Amaze", LocalTime.of(10, 30), LocalTime.of(10, 45));
+        book("Beauty", LocalTime.of(10, 30), LocalTime.of(10, 45));
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        bookingRequest.setPersons(3);
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.bookConferenceRoom(bookingRequest));
+        Assertions.assertEquals(AppErrorCode.NO_ROOMS_FOUND.getErrorCode(), exception.getErrorCode());
+        Assertions.assertEquals(0.0, meterRegistry.get("booking.rooms.scanned").summary().totalAmount());
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(10, 0))));
+    }
+
+    /**
+     * Test check availability from the free room counters and from the rooms themselves.
+     */
+    @Test
+    void testCheckAvailability() {
+        List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        conferenceRooms.add(new ConferenceRoomsEntity(2L, "Beauty", 7));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        book("Amaze", LocalTime.of(10, 0), LocalTime.of(10, 30));
+        book("Beauty", LocalTime.of(10, 30), LocalTime.of(11, 0));
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(11,0));
+        bookingRequest.setEndTime(LocalTime.of(12,0));
+        bookingRequest.setPersons(3);
+        AvailabilityResponse actual = bookingService.checkAvailability(bookingRequest);
+        Assertions.assertTrue(actual.isAvailable());
+        Assertions.assertEquals(LocalDate.now(clock), actual.getBookingDate());
+
+        // A room is free at every slot, but not the same room
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        Assertions.assertFalse(bookingService.checkAvailability(bookingRequest).isAvailable());
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(10,30));
+        Assertions.assertTrue(bookingService.checkAvailability(bookingRequest).isAvailable());
+        bookingRequest.setPersons(5);
+        bookingRequest.setStartTime(LocalTime.of(10,30));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        Assertions.assertFalse(bookingService.checkAvailability(bookingRequest).isAvailable());
+        bookingRequest.setPersons(8);
+        Assertions.assertFalse(bookingService.checkAvailability(bookingRequest).isAvailable());
+        bookingRequest.setPersons(3);
+        bookingRequest.setStartTime(LocalTime.of(8,45));
+        bookingRequest.setEndTime(LocalTime.of(9,15));
+        Assertions.assertFalse(bookingService.checkAvailability(bookingRequest).isAvailable());
+        Mockito.verify(bookedRoomRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    /**
+     * Test cancel booking releases only the slots of the booking.
+     */
+    @Test
+    void testCancelBooking() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        book("Amaze", LocalTime.of(11, 0), LocalTime.of(11, 15));
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(10,0));
+        bookingRequest.setEndTime(LocalTime.of(11,0));
+        bookingRequest.setPersons(3);
+        BookingResponse booked = bookingService.bookConferenceRoom(bookingRequest);
+        ArgumentCaptor<BookedRoomEntity> saved = ArgumentCaptor.forClass(BookedRoomEntity.class);
+        Mockito.verify(bookedRoomRepository).save(saved.capture());
+        Assertions.assertEquals(saved.getValue().getBookingReference(), booked.getBookingReference());
+        Mockito.when(bookedRoomRepository.findByBookingReferenceOrderByStartTime(booked.getBookingReference())).thenReturn(List.of(saved.getValue()));
+        Mockito.when(bookedRoomRepository.deleteBooking(saved.getValue())).thenReturn(1);
+
+        BookingResponse actual = bookingService.cancelBooking(booked.getBookingReference());
+        Assertions.assertEquals(booked, actual);
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(10, 0))));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(11, 0))));
+        Assertions.assertTrue(bookingService.checkAvailability(bookingRequest).isAvailable());
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(Mockito.any(RoomAvailabilityChangedEvent.class));
+
+        // Cancelled in the meantime by another request
+        Mockito.when(bookedRoomRepository.deleteBooking(saved.getValue())).thenReturn(0);
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.cancelBooking(booked.getBookingReference()));
+        Assertions.assertEquals(AppErrorCode.BOOKING_NOT_FOUND.getErrorCode(), exception.getErrorCode());
+        exception = Assertions.assertThrows(AppException.class, () -> bookingService.cancelBooking("unknown"));
+        Assertions.assertEquals(AppErrorCode.BOOKING_NOT_FOUND.getErrorCode(), exception.getErrorCode());
+    }
+
+    /**
+     * Test reschedule booking keeps the slots shared by the old and the new time range and releases the others.
+     */
+    @Test
+    void testRescheduleBooking() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        BookedRoomEntity bookedRoomEntity = new BookedRoomEntity();
+        bookedRoomEntity.setId(1L);
+        bookedRoomEntity.setBookingDate(LocalDate.now(clock));
+        bookedRoomEntity.setRoomName("Amaze");
+        bookedRoomEntity.setStartTime(LocalTime.of(10, 0));
+        bookedRoomEntity.setEndTime(LocalTime.of(11, 0));
+        bookedRoomEntity.setNumberOfPersons(3);
+        bookedRoomEntity.setBookingReference("REF-1");
+        book("Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0));
+        Mockito.when(bookedRoomRepository.findByBookingReferenceOrderByStartTime("REF-1")).thenReturn(List.of(bookedRoomEntity));
+        Mockito.when(bookedRoomRepository.moveBooking(Mockito.eq(bookedRoomEntity), Mockito.any())).thenReturn(1);
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(10,30));
+        bookingRequest.setEndTime(LocalTime.of(11,30));
+        bookingRequest.setPersons(3);
+        BookingResponse actual = bookingService.rescheduleBooking("REF-1", bookingRequest);
+        Assertions.assertEquals("Amaze", actual.getRoom());
+        Assertions.assertEquals("REF-1", actual.getBookingReference());
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(10, 15))));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(10, 30))));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(11, 15))));
+        ArgumentCaptor<BookedRoomEntity> moved = ArgumentCaptor.forClass(BookedRoomEntity.class);
+        Mockito.verify(bookedRoomRepository).moveBooking(Mockito.eq(bookedRoomEntity), moved.capture());
+        Assertions.assertEquals(LocalTime.of(10, 30), moved.getValue().getStartTime());
+        Assertions.assertEquals(LocalTime.of(11, 30), moved.getValue().getEndTime());
+        Mockito.verify(bookedRoomRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    /**
+     * Test a failed reschedule keeps the old slots of the booking.
+     */
+    @Test
+    void testRescheduleBooking_keepOldSlotsOnFailure() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+        BookedRoomEntity bookedRoomEntity = new BookedRoomEntity();
+        bookedRoomEntity.setId(1L);
+        bookedRoomEntity.setBookingDate(LocalDate.now(clock));
+        bookedRoomEntity.setRoomName("Amaze");
+        bookedRoomEntity.setStartTime(LocalTime.of(10, 0));
+        bookedRoomEntity.setEndTime(LocalTime.of(11, 0));
+        bookedRoomEntity.setBookingReference("REF-1");
+        book("Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0));
+        book("Amaze", LocalTime.of(12, 0), LocalTime.of(12, 15));
+        Mockito.when(bookedRoomRepository.findByBookingReferenceOrderByStartTime("REF-1")).thenReturn(List.of(bookedRoomEntity));
+
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setStartTime(LocalTime.of(11,30));
+        bookingRequest.setEndTime(LocalTime.of(12,30));
+        bookingRequest.setPersons(3);
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.rescheduleBooking("REF-1", bookingRequest));
+        Assertions.assertEquals(AppErrorCode.NO_ROOMS_FOUND.getErrorCode(), exception.getErrorCode());
+
+        // Cancelled while the new slots were reserved
+        bookingRequest.setStartTime(LocalTime.of(9,0));
+        bookingRequest.setEndTime(LocalTime.of(10,30));
+        exception = Assertions.assertThrows(AppException.class, () -> bookingService.rescheduleBooking("REF-1", bookingRequest));
+        Assertions.assertEquals(AppErrorCode.BOOKING_NOT_FOUND.getErrorCode(), exception.getErrorCode());
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(9, 0))));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(10, 0))));
+        Assertions.assertTrue(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(10, 45))));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Amaze", SlotBitmap.slotOf(LocalTime.of(11, 30))));
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * Test batch booking places the largest groups first and answers in the order of the requests.
+     */
+    @Test
+    void testBookConferenceRooms_largestGroupsFirst() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Beauty", 7));
+        conferenceRooms.add(new ConferenceRoomsEntity(2L, "Strive", 20));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+
+        BatchBookingRequest batchBookingRequest = new BatchBookingRequest();
+        batchBookingRequest.setBookings(List.of(bookingRequest(5, LocalTime.of(10, 0), LocalTime.of(11, 0)),
+                bookingRequest(6, LocalTime.of(10, 0), LocalTime.of(11, 0))));
+        BatchBookingResponse actual = bookingService.bookConferenceRooms(batchBookingRequest);
+
+        Assertions.assertEquals(2, actual.getBookings().size());
+        Assertions.assertEquals("Strive", actual.getBookings().get(0).getRoom());
+        Assertions.assertEquals("Beauty", actual.getBookings().get(1).getRoom());
+        Mockito.verify(bookedRoomRepository, Mockito.times(1)).saveAll(Mockito.argThat(entities -> ((List<?>) entities).size() == 2));
+        Mockito.verify(bookedRoomRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    /**
+     * Test batch booking books nothing when one of the requests cannot be placed.
+     */
+    @Test
+    void testBookConferenceRooms_allOrNothing() {
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(new ArrayList<>());
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Beauty", 7));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+
+        BatchBookingRequest batchBookingRequest = new BatchBookingRequest();
+        batchBookingRequest.setBookings(List.of(bookingRequest(5, LocalTime.of(10, 0), LocalTime.of(11, 0)),
+                bookingRequest(4, LocalTime.of(10, 30), LocalTime.of(11, 30))));
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.bookConferenceRooms(batchBookingRequest));
+
+        Assertions.assertEquals(AppErrorCode.NO_ROOMS_FOUND.getErrorCode(), exception.getErrorCode());
+        Assertions.assertTrue(exception.getErrorDetails().startsWith("Booking request 2: "));
+        Assertions.assertFalse(roomAvailabilityEngine.isBooked(LocalDate.now(clock), "Beauty", SlotBitmap.slotOf(LocalTime.of(10, 0))));
+        Mockito.verify(bookedRoomRepository, Mockito.never()).saveAll(Mockito.any());
+    }
+
+    private BookingRequest bookingRequest(int persons, LocalTime startTime, LocalTime endTime) {
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setPersons(persons);
+        bookingRequest.setStartTime(startTime);
+        bookingRequest.setEndTime(endTime);
+        return bookingRequest;
+    }
+
     /**
      * Test find available rooms more than allowed booking time.
      */
@@ -233,13 +717,13 @@ class BookingServiceImplTest {
     void testFindAvailableRooms_moreThanAllowedBookingTime() {
         ViewRoomRequest viewRoomRequest = new ViewRoomRequest();
         viewRoomRequest.setStartTime(LocalTime.of(23,45));
-        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.findAvailableRooms(viewRoomRequest));
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.SLOTS));
         Assertions.assertNotNull(exception);
         Assertions.assertEquals(AppErrorCode.NO_ROOMS_FOUND.getErrorCode(), exception.getErrorCode());
 
         ViewRoomRequest viewRoomRequest2 = new ViewRoomRequest();
         viewRoomRequest2.setStartTime(LocalTime.of(23,50));
-        exception = Assertions.assertThrows(AppException.class, () -> bookingService.findAvailableRooms(viewRoomRequest2));
+        exception = Assertions.assertThrows(AppException.class, () -> bookingService.findAvailableRooms(viewRoomRequest2, ViewFormat.SLOTS));
         Assertions.assertNotNull(exception);
         Assertions.assertEquals(AppErrorCode.NO_ROOMS_FOUND.getErrorCode(), exception.getErrorCode());
     }
@@ -254,11 +738,11 @@ class BookingServiceImplTest {
         viewRoomRequest.setEndTime(LocalTime.of(8,15));
 
         List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, "08:00", "08:15"));
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, "09:00", "09:15"));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(8, 0), LocalTime.of(8, 15)));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
         Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
 
-        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.findAvailableRooms(viewRoomRequest));
+        AppException exception = Assertions.assertThrows(AppException.class, () -> bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.SLOTS));
         Assertions.assertNotNull(exception);
         Assertions.assertEquals(AppErrorCode.NO_ROOMS_FOUND.getErrorCode(), exception.getErrorCode());
     }
@@ -273,8 +757,8 @@ class BookingServiceImplTest {
         viewRoomRequest.setEndTime(LocalTime.of(10,15));
 
         List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, "08:00", "08:15"));
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, "09:00", "09:15"));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(8, 0), LocalTime.of(8, 15)));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
         Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
 
 
@@ -285,7 +769,7 @@ class BookingServiceImplTest {
         conferenceRooms.add(new ConferenceRoomsEntity(4L, "Strive", 20));
         Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
 
-        ViewRoomResponse availableRooms = bookingService.findAvailableRooms(viewRoomRequest);
+        ViewRoomResponse availableRooms = bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.SLOTS);
         Assertions.assertNotNull(availableRooms);
         Assertions.assertFalse(availableRooms.getAvailableRooms().isEmpty());
         Assertions.assertEquals(4, availableRooms.getAvailableRooms().size());
@@ -302,8 +786,8 @@ class BookingServiceImplTest {
         viewRoomRequest.setEndTime(LocalTime.of(10,15));
 
         List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, "08:00", "08:15"));
-        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, "09:00", "09:15"));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(8, 0), LocalTime.of(8, 15)));
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(2L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
         Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
 
 
@@ -314,27 +798,50 @@ class BookingServiceImplTest {
         conferenceRooms.add(new ConferenceRoomsEntity(4L, "Strive", 20));
         Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
 
-        List<BookedRoomEntity> bookedRoomList = new ArrayList<>();
-        BookedRoomEntity amaze = new BookedRoomEntity();
-        amaze.setRoomName("Amaze");
-        amaze.setStartTime("08:15");
-        amaze.setEndTime("08:30");
-        bookedRoomList.add(amaze);
-        amaze = new BookedRoomEntity();
-        amaze.setRoomName("Amaze");
-        amaze.setStartTime("08:30");
-        amaze.setEndTime("08:45");
-        bookedRoomList.add(amaze);
-        BookedRoomEntity beauty = new BookedRoomEntity();
-        beauty.setRoomName("Beauty");
-        beauty.setStartTime("09:15");
-        beauty.setEndTime("10:15");
-        bookedRoomList.add(amaze);
-        Mockito.when(bookedRoomRepository.getBookedRoomByTime(viewRoomRequest.getStartTime().toString(), viewRoomRequest.getEndTime().toString())).thenReturn(bookedRoomList);
-
-        ViewRoomResponse availableRooms = bookingService.findAvailableRooms(viewRoomRequest);
+        book("Amaze", LocalTime.of(8, 15), LocalTime.of(8, 45));
+        book("Beauty", LocalTime.of(9, 15), LocalTime.of(10, 15));
+
+        ViewRoomResponse availableRooms = bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.SLOTS);
         Assertions.assertNotNull(availableRooms);
         Assertions.assertFalse(availableRooms.getAvailableRooms().isEmpty());
         Assertions.assertEquals(4, availableRooms.getAvailableRooms().size());
+        Assertions.assertEquals(List.of("08:45 - 09:00", "09:15 - 09:30", "09:30 - 09:45", "09:45 - 10:00", "10:00 - 10:15"),
+                availableRooms.getAvailableRooms().get(0).getTime());
+        Assertions.assertEquals(List.of("08:15 - 08:30", "08:30 - 08:45", "08:45 - 09:00"),
+                availableRooms.getAvailableRooms().get(1).getTime());
+        Assertions.assertEquals(7, availableRooms.getAvailableRooms().get(2).getTime().size());
+    }
+
+    /**
+     * Test find available rooms as merged ranges and as a bitmap.
+     */
+    @Test
+    void testFindAvailableRooms_compactFormats() {
+        ViewRoomRequest viewRoomRequest = new ViewRoomRequest();
+        viewRoomRequest.setStartTime(LocalTime.of(8,0));
+        viewRoomRequest.setEndTime(LocalTime.of(10,15));
+
+        List<MaintenanceTimeEntity> maintenanceTimeEntities = new ArrayList<>();
+        maintenanceTimeEntities.add(new MaintenanceTimeEntity(1L, LocalTime.of(9, 0), LocalTime.of(9, 15)));
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(maintenanceTimeEntities);
+
+        List<ConferenceRoomsEntity> conferenceRooms = new ArrayList<>();
+        conferenceRooms.add(new ConferenceRoomsEntity(1L, "Amaze", 3));
+        conferenceRooms.add(new ConferenceRoomsEntity(2L, "Beauty", 7));
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(conferenceRooms);
+
+        book("Amaze", LocalTime.of(8, 15), LocalTime.of(8, 45));
+
+        ViewRoomResponse ranges = bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.RANGES);
+        Assertions.assertNull(ranges.getAvailableRooms().get(0).getTime());
+        Assertions.assertEquals(List.of("08:00 - 08:15", "08:45 - 09:00", "09:15 - 10:15"), ranges.getAvailableRooms().get(0).getRanges());
+        Assertions.assertEquals(List.of("08:00 - 09:00", "09:15 - 10:15"), ranges.getAvailableRooms().get(1).getRanges());
+
+        ViewRoomResponse bitmap = bookingService.findAvailableRooms(viewRoomRequest, ViewFormat.BITMAP);
+        long freeLow = SlotBitmap.lowMask(32, 33) | SlotBitmap.lowMask(35, 36) | SlotBitmap.lowMask(37, 41);
+        Assertions.assertEquals(SlotBitmap.encode(freeLow, 0L), bitmap.getAvailableRooms().get(0).getBitmap());
+        byte[] decoded = Base64.getDecoder().decode(bitmap.getAvailableRooms().get(0).getBitmap());
+        Assertions.assertEquals(12, decoded.length);
+        Assertions.assertEquals(0b11101001, decoded[4] & 0xFF);
     }
-}
\ No newline at end of file
+}
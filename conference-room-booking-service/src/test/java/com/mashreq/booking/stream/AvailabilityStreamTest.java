@@ -0,0 +1,170 @@
+package com.mashreq.booking.stream;
+
+import com.mashreq.booking.availability.CatalogChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.model.AvailabilityDelta;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Availability stream test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailabilityStreamTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private BookedRoomRepository bookedRoomRepository;
+
+    private RoomAvailabilityEngine roomAvailabilityEngine;
+
+    private AvailabilityStream availabilityStream;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        roomAvailabilityEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        availabilityStream = new AvailabilityStream(roomAvailabilityEngine, 2, Duration.ofMinutes(1), 1);
+    }
+
+    /**
+     * Tear down.
+     */
+    @AfterEach
+    void tearDown() {
+        availabilityStream.close();
+    }
+
+    /**
+     * Test changes of a room are coalesced while the subscriber is not ready.
+     */
+    @Test
+    void testCoalescedChanges() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        RecordingSink otherDaySink = new RecordingSink();
+        otherDaySink.ready = true;
+        AvailabilitySubscriber subscriber = availabilityStream.subscribe(DAY, sink);
+        availabilityStream.subscribe(DAY.plusDays(1), otherDaySink);
+
+        this.book("Amaze", 40, 44);
+        this.book("Amaze", 48, 50);
+        roomAvailabilityEngine.release(DAY, "Amaze", SlotBitmap.lowMask(48, 50), SlotBitmap.highMask(48, 50));
+        availabilityStream.onAvailabilityChanged(new RoomAvailabilityChangedEvent(DAY, "Amaze", SlotBitmap.lowMask(48, 50), SlotBitmap.highMask(48, 50)));
+        this.book("Beauty", 40, 44);
+        Assertions.assertNull(sink.events.poll(100, TimeUnit.MILLISECONDS));
+
+        sink.ready = true;
+        availabilityStream.resume(subscriber);
+
+        AvailabilityDelta amaze = (AvailabilityDelta) sink.events.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(amaze);
+        Assertions.assertEquals("Amaze", amaze.getRoom());
+        Assertions.assertEquals(List.of("10:00 - 11:00"), amaze.getBooked());
+        Assertions.assertEquals(List.of("12:00 - 12:30"), amaze.getFree());
+        AvailabilityDelta beauty = (AvailabilityDelta) sink.events.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(beauty);
+        Assertions.assertEquals("Beauty", beauty.getRoom());
+        Assertions.assertNull(sink.events.poll(100, TimeUnit.MILLISECONDS));
+        Assertions.assertNull(otherDaySink.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Test a subscriber is asked to resync when its buffer overflows or the catalog changes.
+     */
+    @Test
+    void testResync() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        AvailabilitySubscriber subscriber = availabilityStream.subscribe(null, sink);
+        this.book("Amaze", 40, 44);
+        this.book("Beauty", 40, 44);
+        this.book("Inspire", 40, 44);
+
+        sink.ready = true;
+        availabilityStream.resume(subscriber);
+        Assertions.assertEquals("buffer-overflow", sink.events.poll(5, TimeUnit.SECONDS));
+        Assertions.assertNull(sink.events.poll(100, TimeUnit.MILLISECONDS));
+
+        availabilityStream.onCatalogChanged(new CatalogChangedEvent(new Object()));
+        Assertions.assertEquals("catalog-changed", sink.events.poll(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test a stalled SSE client holds neither the dispatcher nor the other subscribers, its changes are coalesced
+     * until its write finishes.
+     */
+    @Test
+    void testStalledEmitter() throws Exception {
+        SseEmitter emitter = Mockito.mock(SseEmitter.class);
+        CountDownLatch stalled = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            stalled.await();
+            return null;
+        }).doNothing().when(emitter).send(Mockito.any(SseEmitter.SseEventBuilder.class));
+        RecordingSink sink = new RecordingSink();
+        sink.ready = true;
+        availabilityStream.subscribe(DAY, emitter);
+        availabilityStream.subscribe(DAY, sink);
+
+        this.book("Amaze", 40, 44);
+        Mockito.verify(emitter, Mockito.timeout(5000)).send(Mockito.any(SseEmitter.SseEventBuilder.class));
+        this.book("Beauty", 40, 44);
+        this.book("Amaze", 48, 50);
+        Assertions.assertNotNull(sink.events.poll(5, TimeUnit.SECONDS));
+        Assertions.assertNotNull(sink.events.poll(5, TimeUnit.SECONDS));
+        Assertions.assertNotNull(sink.events.poll(5, TimeUnit.SECONDS));
+
+        stalled.countDown();
+        Mockito.verify(emitter, Mockito.timeout(5000).times(3)).send(Mockito.any(SseEmitter.SseEventBuilder.class));
+    }
+
+    private void book(String roomName, int startSlot, int endSlot) {
+        long maskLow = SlotBitmap.lowMask(startSlot, endSlot);
+        long maskHigh = SlotBitmap.highMask(startSlot, endSlot);
+        roomAvailabilityEngine.markBooked(DAY, roomName, maskLow, maskHigh);
+        availabilityStream.onAvailabilityChanged(new RoomAvailabilityChangedEvent(DAY, roomName, maskLow, maskHigh));
+    }
+
+    private static final class RecordingSink implements AvailabilitySink {
+
+        private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+        private volatile boolean ready;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void send(String eventName, Object data) {
+            events.add(data);
+        }
+
+        @Override
+        public void complete() {
+            ready = false;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.mashreq.booking.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mashreq.booking.availability.CatalogChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.RoomCatalog;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.cluster.BookingOverlapGuard;
+import com.mashreq.booking.entity.BookedRoomEntity;
+import com.mashreq.booking.entity.ConferenceRoomsEntity;
+import com.mashreq.booking.entity.MaintenanceTimeEntity;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.TransferFormat;
+import com.mashreq.booking.enums.TransferTable;
+import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.model.ImportResponse;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.repo.ConferenceRoomRepository;
+import com.mashreq.booking.repo.MaintenanceTimeRepository;
+import com.mashreq.booking.validation.ValidationConstants;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The type Bulk transfer test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class BulkTransferTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 3);
+
+    private final Clock clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private RoomAvailabilityEngine roomAvailabilityEngine;
+
+    private BulkTransfer bulkTransfer;
+
+    @Mock
+    private ConferenceRoomRepository conferenceRoomRepository;
+
+    @Mock
+    private MaintenanceTimeRepository maintenanceTimeRepository;
+
+    @Mock
+    private BookedRoomRepository bookedRoomRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    /**
+     * Sets up, with chunks of two rows.
+     */
+    @BeforeEach
+    void setUp() {
+        roomAvailabilityEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        bulkTransfer = new BulkTransfer(conferenceRoomRepository, maintenanceTimeRepository, bookedRoomRepository,
+                new RoomCatalog(conferenceRoomRepository, maintenanceTimeRepository), roomAvailabilityEngine,
+                new BookingOverlapGuard(conferenceRoomRepository, bookedRoomRepository, false), eventPublisher, jdbcTemplate,
+                transactionManager, entityManager, objectMapper, Validation.buildDefaultValidatorFactory().getValidator(), clock, Period.ofYears(1), 2, 100);
+    }
+
+    /**
+     * Test export rooms as CSV, quoting the fields that need it.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testExport_roomsCsv() throws Exception {
+        Mockito.when(conferenceRoomRepository.streamRoomRows()).thenReturn(Stream.of(new RoomRow("Amaze", 3), new RoomRow("Hall \"A\", East", 40)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bulkTransfer.export(TransferTable.ROOMS, TransferFormat.CSV, null, null, outputStream);
+
+        Assertions.assertEquals("name,capacity\r\nAmaze,3\r\n\"Hall \"\"A\"\", East\",40\r\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test export bookings as NDJSON, all days when no range is given.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testExport_bookingsNdjson() throws Exception {
+        Mockito.when(bookedRoomRepository.streamBookingRows(LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31))).thenReturn(Stream.of(
+                new BookingRow("REF-1", TODAY, "Amaze", LocalTime.of(10, 0), LocalTime.of(10, 30), 2, "Guest",
+                        LocalDateTime.of(2024, 3, 1, 9, 15))));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bulkTransfer.export(TransferTable.BOOKINGS, TransferFormat.NDJSON, null, null, outputStream);
+
+        Assertions.assertEquals("{\"bookingReference\":\"REF-1\",\"bookingDate\":\"2024-03-03\",\"roomName\":\"Amaze\",\"startTime\":\"10:00\","
+                + "\"endTime\":\"10:30\",\"persons\":2,\"bookedBy\":\"Guest\",\"bookingDateTime\":\"2024-03-01T09:15:00\"}\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test import rooms from CSV, the invalid and duplicate rows are rejected and the rest written in chunks.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportRows_roomsCsv() {
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(List.of(new ConferenceRoomsEntity(1L, "Amaze", 3)));
+        String csv = "capacity,name\n8,Orbit\n5,Amaze\n0,Zero\n12,\"Summit\nNorth\"\n16,Orbit\n20,Vista\n";
+
+        ImportResponse importResponse = bulkTransfer.importRows(TransferTable.ROOMS, TransferFormat.CSV, this.input(csv));
+
+        Assertions.assertEquals(3, importResponse.getImported());
+        Assertions.assertEquals(3, importResponse.getRejected());
+        Assertions.assertEquals(List.of("line 3: Conference room Amaze already exists", "line 4: capacity:must be greater than 0",
+                "line 7: Conference room Orbit already exists"), importResponse.getErrors());
+        ArgumentCaptor<Integer> batchSizes = ArgumentCaptor.forClass(Integer.class);
+        Mockito.verify(jdbcTemplate, Mockito.times(2)).batchUpdate(Mockito.anyString(), Mockito.anyCollection(), batchSizes.capture(),
+                Mockito.any(ParameterizedPreparedStatementSetter.class));
+        Assertions.assertEquals(List.of(2, 1), batchSizes.getAllValues());
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(CatalogChangedEvent.class));
+    }
+
+    /**
+     * Test import rooms with an unknown column in the header row.
+     */
+    @Test
+    void testImportRows_unknownColumn() {
+        AppException exception = Assertions.assertThrows(AppException.class,
+                () -> bulkTransfer.importRows(TransferTable.ROOMS, TransferFormat.CSV, this.input("name,seats\nOrbit,8\n")));
+
+        Assertions.assertEquals(AppErrorCode.INVALID_IMPORT_FILE.getErrorCode(), exception.getErrorCode());
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Test import bookings from NDJSON. Upcoming bookings are reserved in memory and rejected when they overlap,
+     * past bookings are imported as they are.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportRows_bookingsNdjson() {
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(List.of(new ConferenceRoomsEntity(1L, "Amaze", 3)));
+        Mockito.when(maintenanceTimeRepository.findAll()).thenReturn(List.of(new MaintenanceTimeEntity(1L, LocalTime.of(9, 0), LocalTime.of(9, 15))));
+        String ndjson = """
+                {"bookingDate":"2024-03-04","roomName":"Amaze","startTime":"10:00","endTime":"10:30","persons":2}
+                {"bookingDate":"2024-03-04","roomName":"Amaze","startTime":"10:15","endTime":"10:45","persons":2}
+                {"bookingDate":"2024-03-01","roomName":"Amaze","startTime":"10:15","endTime":"10:45","persons":3,"bookingReference":"OLD-1"}
+
+                {"bookingDate":"2024-03-04","roomName":"Amaze","startTime":"09:00","endTime":"09:30","persons":2}
+                {"bookingDate":"2024-03-04","roomName":"Amaze","startTime":"11:00","endTime":"11:30","persons":4}
+                {"bookingDate":"2024-03-04","roomName":"Beauty","startTime":"11:00","endTime":"11:30","persons":2}
+                {"bookingDate":"2024-03-04","roomName":
+                """;
+
+        ImportResponse importResponse = bulkTransfer.importRows(TransferTable.BOOKINGS, TransferFormat.NDJSON, this.input(ndjson));
+
+        Assertions.assertEquals(2, importResponse.getImported());
+        Assertions.assertEquals(5, importResponse.getRejected());
+        Assertions.assertTrue(importResponse.getErrors().get(0).startsWith("line 2: "));
+        Assertions.assertTrue(importResponse.getErrors().get(1).startsWith("line 5: "));
+        Assertions.assertTrue(importResponse.getErrors().get(4).startsWith("line 8: "));
+        ArgumentCaptor<List<BookedRoomEntity>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(bookedRoomRepository).saveAll(saved.capture());
+        Assertions.assertEquals(List.of(LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 1)),
+                saved.getValue().stream().map(BookedRoomEntity::getBookingDate).toList());
+        Assertions.assertEquals("OLD-1", saved.getValue().get(1).getBookingReference());
+        Assertions.assertEquals("Guest", saved.getValue().get(0).getBookedBy());
+        Mockito.verify(entityManager).clear();
+
+        int startSlot = SlotBitmap.slotOf(LocalTime.of(10, 0));
+        int endSlot = SlotBitmap.slotOf(LocalTime.of(10, 30));
+        Assertions.assertFalse(roomAvailabilityEngine.isAvailable(LocalDate.of(2024, 3, 4), "Amaze",
+                SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot)));
+        Mockito.verify(eventPublisher).publishEvent(new RoomAvailabilityChangedEvent(LocalDate.of(2024, 3, 4), "Amaze",
+                SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot)));
+    }
+
+    /**
+     * Test import bookings rejects upcoming bookings under a reference already booked or imported, so they cannot join
+     * another booking. Past bookings keep their references.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportRows_bookingReferences() {
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(List.of(new ConferenceRoomsEntity(1L, "Amaze", 3)));
+        Mockito.when(bookedRoomRepository.existsByBookingReference("REF-1")).thenReturn(true);
+        Mockito.when(bookedRoomRepository.existsByBookingReference("REF-2")).thenReturn(false);
+        String ndjson = """
+                {"bookingDate":"2024-03-04","roomName":"Amaze","startTime":"10:00","endTime":"10:30","persons":2,"bookingReference":"REF-1"}
+                {"bookingDate":"2024-03-04","roomName":"Amaze","startTime":"11:00","endTime":"11:30","persons":2,"bookingReference":"REF-2"}
+                {"bookingDate":"2024-03-04","roomName":"Amaze","startTime":"12:00","endTime":"12:30","persons":2,"bookingReference":"REF-2"}
+                {"bookingDate":"2024-03-01","roomName":"Amaze","startTime":"10:00","endTime":"10:15","persons":2,"bookingReference":"OLD-1"}
+                {"bookingDate":"2024-03-01","roomName":"Amaze","startTime":"10:15","endTime":"10:30","persons":2,"bookingReference":"OLD-1"}
+                """;
+
+        ImportResponse importResponse = bulkTransfer.importRows(TransferTable.BOOKINGS, TransferFormat.NDJSON, this.input(ndjson));
+
+        Assertions.assertEquals(3, importResponse.getImported());
+        Assertions.assertEquals(List.of("line 1: Booking reference REF-1 is already in use", "line 3: Booking reference REF-2 is already in use"),
+                importResponse.getErrors());
+        ArgumentCaptor<List<BookedRoomEntity>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(bookedRoomRepository, Mockito.atLeastOnce()).saveAll(saved.capture());
+        Assertions.assertEquals(List.of("REF-2", "OLD-1", "OLD-1"), saved.getAllValues().stream().flatMap(List::stream)
+                .map(BookedRoomEntity::getBookingReference).toList());
+        int startSlot = SlotBitmap.slotOf(LocalTime.of(10, 0));
+        int endSlot = SlotBitmap.slotOf(LocalTime.of(10, 30));
+        Assertions.assertTrue(roomAvailabilityEngine.isAvailable(LocalDate.of(2024, 3, 4), "Amaze",
+                SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot)));
+    }
+
+    /**
+     * Test import bookings rejects upcoming bookings beyond the booking horizon, as the booking requests are.
+     */
+    @Test
+    void testImportRows_beyondHorizon() {
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(List.of(new ConferenceRoomsEntity(1L, "Amaze", 3)));
+        String ndjson = """
+                {"bookingDate":"2025-03-03","roomName":"Amaze","startTime":"10:00","endTime":"10:30","persons":2}
+                {"bookingDate":"2025-03-04","roomName":"Amaze","startTime":"10:00","endTime":"10:30","persons":2}
+                """;
+
+        ImportResponse importResponse = bulkTransfer.importRows(TransferTable.BOOKINGS, TransferFormat.NDJSON, this.input(ndjson));
+
+        Assertions.assertEquals(1, importResponse.getImported());
+        Assertions.assertEquals(List.of("line 2: " + ValidationConstants.BOOKING_DATE_BEYOND_HORIZON), importResponse.getErrors());
+        Assertions.assertFalse(roomAvailabilityEngine.isLoaded(LocalDate.of(2025, 3, 4), 40, 42));
+    }
+
+    /**
+     * Test import bookings in cluster mode, a chunk overlapping a booking of another node is written row by row and only
+     * the overlapping row is rejected.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportRows_bookingsConflict() {
+        BulkTransfer clusteredBulkTransfer = new BulkTransfer(conferenceRoomRepository, maintenanceTimeRepository, bookedRoomRepository,
+                new RoomCatalog(conferenceRoomRepository, maintenanceTimeRepository), roomAvailabilityEngine,
+                new BookingOverlapGuard(conferenceRoomRepository, bookedRoomRepository, true), eventPublisher, jdbcTemplate,
+                transactionManager, entityManager, objectMapper, Validation.buildDefaultValidatorFactory().getValidator(), clock, Period.ofYears(1), 2, 100);
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(List.of(new ConferenceRoomsEntity(1L, "Amaze", 3)));
+        Mockito.lenient().when(bookedRoomRepository.existsOverlappingBooking(Mockito.eq(TODAY), Mockito.eq("Amaze"), Mockito.eq(LocalTime.of(11, 0)),
+                Mockito.eq(LocalTime.of(11, 30)), Mockito.any())).thenReturn(true);
+        String ndjson = """
+                {"bookingDate":"2024-03-03","roomName":"Amaze","startTime":"10:00","endTime":"10:30","persons":2}
+                {"bookingDate":"2024-03-03","roomName":"Amaze","startTime":"11:00","endTime":"11:30","persons":2}
+                {"bookingDate":"2024-03-03","roomName":"Amaze","startTime":"12:00","endTime":"12:30","persons":2}
+                """;
+
+        ImportResponse importResponse = clusteredBulkTransfer.importRows(TransferTable.BOOKINGS, TransferFormat.NDJSON, this.input(ndjson));
+
+        Assertions.assertEquals(2, importResponse.getImported());
+        Assertions.assertEquals(List.of("line 2: Conference room Amaze is already booked for the time range"), importResponse.getErrors());
+        ArgumentCaptor<List<BookedRoomEntity>> saved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(bookedRoomRepository, Mockito.times(2)).saveAll(saved.capture());
+        Assertions.assertEquals(List.of(LocalTime.of(10, 0), LocalTime.of(12, 0)), saved.getAllValues().stream().flatMap(List::stream)
+                .map(BookedRoomEntity::getStartTime).toList());
+        // The conflicting slots were read again from the database
+        Mockito.verify(bookedRoomRepository).findOverlappingBookings(TODAY, "Amaze", LocalTime.of(11, 0), LocalTime.of(11, 30));
+    }
+
+    /**
+     * Test import bookings when the chunk cannot be written, the reserved slots are given back.
+     */
+    @Test
+    void testImportRows_bookingsWriteFailed() {
+        Mockito.when(conferenceRoomRepository.findAll()).thenReturn(List.of(new ConferenceRoomsEntity(1L, "Amaze", 3)));
+        Mockito.when(bookedRoomRepository.saveAll(Mockito.anyList())).thenThrow(new IllegalStateException("Database unavailable"));
+        String ndjson = "{\"bookingDate\":\"2024-03-04\",\"roomName\":\"Amaze\",\"startTime\":\"10:00\",\"endTime\":\"10:30\",\"persons\":2}\n";
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> bulkTransfer.importRows(TransferTable.BOOKINGS, TransferFormat.NDJSON, this.input(ndjson)));
+
+        int startSlot = SlotBitmap.slotOf(LocalTime.of(10, 0));
+        int endSlot = SlotBitmap.slotOf(LocalTime.of(10, 30));
+        Assertions.assertTrue(roomAvailabilityEngine.isAvailable(LocalDate.of(2024, 3, 4), "Amaze",
+                SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot)));
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any(RoomAvailabilityChangedEvent.class));
+    }
+
+    private ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -13,8 +13,10 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.Period;
 import java.time.ZoneId;
 
 
@@ -43,7 +45,7 @@ class BookingRequestValidatorTest {
      */
     @BeforeEach
     void setUp() {
-        bookingRequestValidator = new BookingRequestValidator(clock);
+        bookingRequestValidator = new BookingRequestValidator(clock, Period.ofYears(1));
         bookingRequestValidator.initialize(null);
 
         Clock fixedClock = Clock.fixed(LocalDateTime.of(2024, 3, 3, 6, 30, 0).atZone(ZoneId.systemDefault()).toInstant(),
@@ -138,6 +140,28 @@ class BookingRequestValidatorTest {
         actual = bookingRequestValidator.isValid(bookingRequest, constraintValidatorContext);
         Assertions.assertTrue(actual);
 
+        // Test invalid past booking date
+        bookingRequest.setBookingDate(LocalDate.of(2024, 3, 2));
+        actual = bookingRequestValidator.isValid(bookingRequest, constraintValidatorContext);
+        Assertions.assertFalse(actual);
+        // Test valid future booking date before the current time of day
+        bookingRequest = new BookingRequest();
+        bookingRequest.setPersons(5);
+        bookingRequest.setBookingDate(LocalDate.of(2024, 3, 4));
+        bookingRequest.setStartTime(LocalTime.of(5, 15));
+        bookingRequest.setEndTime(LocalTime.of(5,30));
+        actual = bookingRequestValidator.isValid(bookingRequest, constraintValidatorContext);
+        Assertions.assertTrue(actual);
+
+        // Test invalid booking date beyond the booking horizon
+        bookingRequest.setBookingDate(LocalDate.of(2025, 3, 4));
+        actual = bookingRequestValidator.isValid(bookingRequest, constraintValidatorContext);
+        Assertions.assertFalse(actual);
+        // Test valid booking date on the booking horizon
+        bookingRequest.setBookingDate(LocalDate.of(2025, 3, 3));
+        actual = bookingRequestValidator.isValid(bookingRequest, constraintValidatorContext);
+        Assertions.assertTrue(actual);
+
         actual = bookingRequestValidator.isValid(null, constraintValidatorContext);
         Assertions.assertTrue(actual);
     }
@@ -12,8 +12,10 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.Period;
 import java.time.ZoneId;
 
 
@@ -42,7 +44,7 @@ class ViewRoomRequestValidatorTest {
      */
     @BeforeEach
     void setUp() {
-        viewRoomRequestValidator = new ViewRoomRequestValidator(clock);
+        viewRoomRequestValidator = new ViewRoomRequestValidator(clock, Period.ofYears(1));
         viewRoomRequestValidator.initialize(null);
 
         Clock fixedClock = Clock.fixed(LocalDateTime.of(2024, 3, 3, 8, 0, 0).atZone(ZoneId.systemDefault()).toInstant(),
@@ -89,5 +91,20 @@ class ViewRoomRequestValidatorTest {
         viewRoomRequest.setEndTime(LocalTime.of(10,15));
         actual = viewRoomRequestValidator.isValid(viewRoomRequest, constraintValidatorContext);
         Assertions.assertTrue(actual);
+        // Test invalid past booking date
+        viewRoomRequest.setBookingDate(LocalDate.of(2024, 3, 2));
+        actual = viewRoomRequestValidator.isValid(viewRoomRequest, constraintValidatorContext);
+        Assertions.assertFalse(actual);
+        // Test valid future booking date before the current time of day
+        viewRoomRequest = new ViewRoomRequest();
+        viewRoomRequest.setBookingDate(LocalDate.of(2024, 3, 4));
+        viewRoomRequest.setStartTime(LocalTime.of(6,45));
+        viewRoomRequest.setEndTime(LocalTime.of(7,15));
+        actual = viewRoomRequestValidator.isValid(viewRoomRequest, constraintValidatorContext);
+        Assertions.assertTrue(actual);
+        // Test invalid booking date beyond the booking horizon
+        viewRoomRequest.setBookingDate(LocalDate.of(9999, 12, 31));
+        actual = viewRoomRequestValidator.isValid(viewRoomRequest, constraintValidatorContext);
+        Assertions.assertFalse(actual);
     }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.mashreq.booking.waitlist;
+
+import com.mashreq.booking.availability.CatalogSnapshot;
+import com.mashreq.booking.availability.RoomAvailabilityChangedEvent;
+import com.mashreq.booking.availability.RoomAvailabilityEngine;
+import com.mashreq.booking.availability.RoomCatalog;
+import com.mashreq.booking.availability.RoomInfo;
+import com.mashreq.booking.availability.SlotBitmap;
+import com.mashreq.booking.enums.AppErrorCode;
+import com.mashreq.booking.enums.WaitlistStatus;
+import com.mashreq.booking.exception.AppException;
+import com.mashreq.booking.model.BookingRequest;
+import com.mashreq.booking.model.BookingResponse;
+import com.mashreq.booking.model.WaitlistResponse;
+import com.mashreq.booking.repo.BookedRoomRepository;
+import com.mashreq.booking.service.BookingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Waitlist test.
+ *
+ * @author janv @mashreq.com
+ */
+@ExtendWith(MockitoExtension.class)
+class WaitlistTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private RoomCatalog roomCatalog;
+
+    @Mock
+    private BookedRoomRepository bookedRoomRepository;
+
+    private RoomAvailabilityEngine roomAvailabilityEngine;
+
+    private Waitlist waitlist;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        roomAvailabilityEngine = new RoomAvailabilityEngine(bookedRoomRepository);
+        Mockito.lenient().when(roomCatalog.getSnapshot()).thenReturn(CatalogSnapshot.of(List.of(new RoomInfo("Amaze", 3), new RoomInfo("Beauty", 7)), List.of()));
+        Clock clock = Clock.fixed(Instant.parse("2024-03-04T06:00:00Z"), ZoneOffset.UTC);
+        waitlist = new Waitlist(bookingService, roomCatalog, roomAvailabilityEngine, clock, 2, 10);
+    }
+
+    /**
+     * Tear down.
+     */
+    @AfterEach
+    void tearDown() {
+        waitlist.close();
+    }
+
+    /**
+     * Test a request is booked right away when a room is free.
+     */
+    @Test
+    void testJoin_bookedRightAway() {
+        BookingResponse bookingResponse = new BookingResponse("Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0), DAY, "REF-1");
+        Mockito.when(bookingService.bookConferenceRoom(Mockito.any())).thenReturn(bookingResponse);
+
+        WaitlistResponse waitlistResponse = waitlist.join(this.request(3, 10, 11), 0);
+        Assertions.assertEquals(WaitlistStatus.BOOKED, waitlistResponse.getStatus());
+        Assertions.assertNull(waitlistResponse.getTicketId());
+        Assertions.assertEquals(bookingResponse, waitlistResponse.getBooking());
+    }
+
+    /**
+     * Test the freed slots promote the highest priority ticket first, then the earliest one.
+     */
+    @Test
+    void testPromotionOrder() throws InterruptedException {
+        this.bookAll(40, 44);
+        Mockito.when(bookingService.bookConferenceRoom(Mockito.any())).thenThrow(new AppException(AppErrorCode.NO_ROOMS_FOUND));
+        String first = waitlist.join(this.request(3, 10, 11), 0).getTicketId();
+        String urgent = waitlist.join(this.request(2, 10, 11), 5).getTicketId();
+        Assertions.assertEquals(WaitlistStatus.WAITING, waitlist.getTicket(first).getStatus());
+        Assertions.assertEquals(WaitlistStatus.WAITING, waitlist.getTicket(urgent).getStatus());
+        Thread.sleep(100);
+
+        // The freed room fits one of the tickets
+        BookingResponse bookingResponse = new BookingResponse("Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0), DAY, "REF-1");
+        Mockito.doReturn(bookingResponse).doThrow(new AppException(AppErrorCode.NO_ROOMS_FOUND))
+                .when(bookingService).bookConferenceRoom(Mockito.any());
+        this.release("Amaze", 40, 44);
+
+        Assertions.assertEquals(WaitlistStatus.BOOKED, this.awaitFinished(urgent).getStatus());
+        Assertions.assertEquals(bookingResponse, waitlist.getTicket(urgent).getBooking());
+        Assertions.assertEquals(WaitlistStatus.WAITING, waitlist.getTicket(first).getStatus());
+    }
+
+    /**
+     * Test only the tickets needing the freed slots and fitting the room are tried.
+     */
+    @Test
+    void testPromotion_matchesFreedSlotsOnly() throws InterruptedException {
+        this.bookAll(40, 48);
+        Mockito.when(bookingService.bookConferenceRoom(Mockito.any())).thenThrow(new AppException(AppErrorCode.NO_ROOMS_FOUND));
+        String later = waitlist.join(this.request(2, 11, 12), 0).getTicketId();
+        String larger = waitlist.join(this.request(7, 10, 11), 0).getTicketId();
+        Thread.sleep(100);
+        Mockito.clearInvocations(bookingService);
+
+        this.release("Amaze", 40, 44);
+        Thread.sleep(200);
+        Mockito.verify(bookingService, Mockito.never()).bookConferenceRoom(Mockito.any());
+        Assertions.assertEquals(WaitlistStatus.WAITING, waitlist.getTicket(later).getStatus());
+        Assertions.assertEquals(WaitlistStatus.WAITING, waitlist.getTicket(larger).getStatus());
+    }
+
+    /**
+     * Test the waitlist is bounded and tickets can leave it.
+     */
+    @Test
+    void testLeaveAndFull() {
+        this.bookAll(40, 44);
+        Mockito.when(bookingService.bookConferenceRoom(Mockito.any())).thenThrow(new AppException(AppErrorCode.NO_ROOMS_FOUND));
+        String ticketId = waitlist.join(this.request(3, 10, 11), 0).getTicketId();
+        waitlist.join(this.request(3, 10, 11), 0);
+        AppException full = Assertions.assertThrows(AppException.class, () -> waitlist.join(this.request(3, 10, 11), 0));
+        Assertions.assertEquals(AppErrorCode.WAITLIST_FULL.getErrorCode(), full.getErrorCode());
+        AppException priority = Assertions.assertThrows(AppException.class, () -> waitlist.join(this.request(3, 10, 11), Integer.MAX_VALUE));
+        Assertions.assertEquals(AppErrorCode.INVALID_REQUEST_PARAMETER.getErrorCode(), priority.getErrorCode());
+        Assertions.assertThrows(AppException.class, () -> waitlist.join(this.request(3, 10, 11), -1));
+
+        Assertions.assertEquals(WaitlistStatus.CANCELLED, waitlist.leave(ticketId).getStatus());
+        Assertions.assertEquals(WaitlistStatus.WAITING, waitlist.join(this.request(3, 10, 11), 0).getStatus());
+        AppException notFound = Assertions.assertThrows(AppException.class, () -> waitlist.getTicket("unknown"));
+        Assertions.assertEquals(AppErrorCode.WAITLIST_TICKET_NOT_FOUND.getErrorCode(), notFound.getErrorCode());
+    }
+
+    /**
+     * Test leaving the waitlist does not wait while the ticket is being booked, the booking is given back once made.
+     */
+    @Test
+    void testLeave_whilePromoting() throws Exception {
+        this.bookAll(40, 44);
+        Mockito.when(bookingService.bookConferenceRoom(Mockito.any())).thenThrow(new AppException(AppErrorCode.NO_ROOMS_FOUND));
+        String ticketId = waitlist.join(this.request(3, 10, 11), 0).getTicketId();
+        Thread.sleep(100);
+
+        CountDownLatch booking = new CountDownLatch(1);
+        CountDownLatch booked = new CountDownLatch(1);
+        BookingResponse bookingResponse = new BookingResponse("Amaze", LocalTime.of(10, 0), LocalTime.of(11, 0), DAY, "REF-1");
+        Mockito.doAnswer(invocation -> {
+            booking.countDown();
+            booked.await();
+            return bookingResponse;
+        }).when(bookingService).bookConferenceRoom(Mockito.any());
+        this.release("Amaze", 40, 44);
+        Assertions.assertTrue(booking.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(WaitlistStatus.CANCELLED, CompletableFuture.supplyAsync(() -> waitlist.leave(ticketId))
+                .get(1, TimeUnit.SECONDS).getStatus());
+        booked.countDown();
+        Mockito.verify(bookingService, Mockito.timeout(5000)).cancelBooking("REF-1");
+        Assertions.assertEquals(WaitlistStatus.CANCELLED, waitlist.getTicket(ticketId).getStatus());
+        Assertions.assertNull(waitlist.getTicket(ticketId).getBooking());
+
+        // The ticket no longer counts against the size of the waitlist
+        Mockito.doThrow(new AppException(AppErrorCode.NO_ROOMS_FOUND)).when(bookingService).bookConferenceRoom(Mockito.any());
+        this.bookAll(40, 44);
+        waitlist.join(this.request(3, 10, 11), 0);
+        waitlist.join(this.request(3, 10, 11), 0);
+    }
+
+    private BookingRequest request(int persons, int startHour, int endHour) {
+        BookingRequest bookingRequest = new BookingRequest();
+        bookingRequest.setPersons(persons);
+        bookingRequest.setBookingDate(DAY);
+        bookingRequest.setStartTime(LocalTime.of(startHour, 0));
+        bookingRequest.setEndTime(LocalTime.of(endHour, 0));
+        return bookingRequest;
+    }
+
+    private void bookAll(int startSlot, int endSlot) {
+        roomAvailabilityEngine.markBooked(DAY, "Amaze", SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot));
+        roomAvailabilityEngine.markBooked(DAY, "Beauty", SlotBitmap.lowMask(startSlot, endSlot), SlotBitmap.highMask(startSlot, endSlot));
+    }
+
+    private void release(String roomName, int startSlot, int endSlot) {
+        long maskLow = SlotBitmap.lowMask(startSlot, endSlot);
+        long maskHigh = SlotBitmap.highMask(startSlot, endSlot);
+        roomAvailabilityEngine.release(DAY, roomName, maskLow, maskHigh);
+        waitlist.onAvailabilityChanged(new RoomAvailabilityChangedEvent(DAY, roomName, maskLow, maskHigh));
+    }
+
+    private WaitlistResponse awaitFinished(String ticketId) throws InterruptedException {
+        for (int i = 0; i < 100 && (waitlist.getTicket(ticketId).getStatus() == WaitlistStatus.WAITING
+                || waitlist.getTicket(ticketId).getStatus() == WaitlistStatus.PROMOTING); i++) {
+            Thread.sleep(50);
+        }
+        return waitlist.getTicket(ticketId);
+    }
+}